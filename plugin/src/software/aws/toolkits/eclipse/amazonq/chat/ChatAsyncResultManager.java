@@ -3,84 +3,245 @@
 
 package software.aws.toolkits.eclipse.amazonq.chat;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
+/**
+ * Hands results posted back by the chat UI to the request waiting for them.
+ *
+ * A result for a registered request completes that request's future directly.
+ * The future is kept until the request is removed, so a result that arrives
+ * between registering and waiting is still found. A result that arrives before
+ * the request is even registered is kept in a bounded store until it is picked
+ * up. Stored results are evicted after a fixed time to live, or oldest first
+ * once the entry or byte limits are exceeded, so results nobody asks for do not
+ * accumulate over a long session.
+ */
 public final class ChatAsyncResultManager {
+    private static final int DEFAULT_MAX_ENTRIES = 64;
+    private static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+    private static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
     private static ChatAsyncResultManager instance;
-    private Map<String, CompletableFuture<Object>> results;
-    private Map<String, Object> completedResults;
+    private final Map<String, CompletableFuture<Object>> results = new HashMap<>();
+    private final LinkedHashMap<String, StoredResult> completedResults = new LinkedHashMap<>();
     private final long defaultTimeout;
     private final TimeUnit defaultTimeUnit;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private long storedBytes;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
 
-    private ChatAsyncResultManager(final long timeout, final TimeUnit timeUnit) {
-        results = new ConcurrentHashMap<>();
-        completedResults = new ConcurrentHashMap<>();
+    ChatAsyncResultManager(final long timeout, final TimeUnit timeUnit, final int maxEntries, final long maxBytes,
+            final long ttlMillis, final LongSupplier nanoClock) {
         this.defaultTimeout = timeout;
         this.defaultTimeUnit = timeUnit;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.nanoClock = nanoClock;
     }
 
     public static synchronized ChatAsyncResultManager getInstance() {
         if (instance == null) {
-            instance = new ChatAsyncResultManager(30, TimeUnit.SECONDS);
+            instance = new ChatAsyncResultManager(30, TimeUnit.SECONDS, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES,
+                    DEFAULT_TTL_MILLIS, System::nanoTime);
         }
         return instance;
     }
 
-    public void createRequestId(final String requestId) {
+    public synchronized void createRequestId(final String requestId) {
+        evictExpired();
         if (!completedResults.containsKey(requestId)) {
             results.put(requestId, new CompletableFuture<>());
         }
     }
 
     public void removeRequestId(final String requestId) {
-        CompletableFuture<Object> future = results.remove(requestId);
+        CompletableFuture<Object> future;
+        synchronized (this) {
+            future = results.remove(requestId);
+            removeStored(requestId);
+        }
         if (future != null && !future.isDone()) {
             future.cancel(true);
         }
-        completedResults.remove(requestId);
     }
 
     public void setResult(final String requestId, final Object result) {
-        CompletableFuture<Object> future = results.get(requestId);
+        CompletableFuture<Object> future;
+        synchronized (this) {
+            // the future stays registered, as its waiter may not have asked for it yet
+            future = results.get(requestId);
+            if (future == null) {
+                store(requestId, result);
+            }
+        }
         if (future != null) {
             future.complete(result);
-            completedResults.put(requestId, result);
-            results.remove(requestId);
-        } else {
-            completedResults.put(requestId, result);
-            results.remove(requestId);
         }
     }
 
+    /*
+     * Returns a future for the result of the given request that completes when the
+     * chat UI posts it, or exceptionally with a TimeoutException after the default
+     * timeout. No thread is blocked while waiting.
+     */
+    public CompletableFuture<Object> getResultAsync(final String requestId) {
+        CompletableFuture<Object> future;
+        synchronized (this) {
+            evictExpired();
+            StoredResult completedResult = completedResults.get(requestId);
+            if (completedResult != null) {
+                hitCount.incrementAndGet();
+                return CompletableFuture.completedFuture(completedResult.value());
+            }
+            future = results.get(requestId);
+        }
+
+        if (future == null) {
+            missCount.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Request ID not found: " + requestId));
+        }
+
+        return future.copy()
+                .orTimeout(defaultTimeout, defaultTimeUnit)
+                .handle((result, exception) -> {
+                    if (exception == null) {
+                        hitCount.incrementAndGet();
+                        return result;
+                    }
+                    missCount.incrementAndGet();
+                    if (exception instanceof TimeoutException) {
+                        synchronized (this) {
+                            results.remove(requestId, future);
+                        }
+                        future.cancel(true);
+                        throw new CompletionException(
+                                new TimeoutException("Operation timed out for requestId: " + requestId));
+                    }
+                    throw exception instanceof CompletionException completionException
+                            ? completionException
+                            : new CompletionException(exception);
+                });
+    }
 
     public Object getResult(final String requestId) throws Exception {
-        return getResult(requestId, defaultTimeout, defaultTimeUnit);
+        try {
+            return getResultAsync(requestId).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
-    private Object getResult(final String requestId, final long timeout, final TimeUnit unit) throws Exception {
-        Object completedResult = completedResults.get(requestId);
-        if (completedResult != null) {
-            return completedResult;
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public synchronized int getStoredResultCount() {
+        return completedResults.size();
+    }
+
+    public synchronized long getStoredBytes() {
+        return storedBytes;
+    }
+
+    private void store(final String requestId, final Object result) {
+        removeStored(requestId);
+        long sizeBytes = estimateSize(result);
+        completedResults.put(requestId, new StoredResult(result, sizeBytes, nanoClock.getAsLong()));
+        storedBytes += sizeBytes;
+
+        evictExpired();
+        Iterator<StoredResult> oldestFirst = completedResults.values().iterator();
+        while ((completedResults.size() > maxEntries || storedBytes > maxBytes) && oldestFirst.hasNext()) {
+            storedBytes -= oldestFirst.next().sizeBytes();
+            oldestFirst.remove();
+            evictionCount.incrementAndGet();
         }
+    }
 
-        CompletableFuture<Object> future = results.get(requestId);
-        if (future == null) {
-            throw new IllegalArgumentException("Request ID not found: " + requestId);
+    private void removeStored(final String requestId) {
+        StoredResult removed = completedResults.remove(requestId);
+        if (removed != null) {
+            storedBytes -= removed.sizeBytes();
         }
+    }
 
-        try {
-            Object result = future.get(timeout, unit);
-            completedResults.put(requestId, result);
-            results.remove(requestId);
-            return result;
-        } catch (TimeoutException e) {
-            future.cancel(true);
-            results.remove(requestId);
-            throw new TimeoutException("Operation timed out for requestId: " + requestId);
+    /*
+     * Entries are kept in insertion order, so expired entries are always at the head.
+     */
+    private void evictExpired() {
+        long now = nanoClock.getAsLong();
+        Iterator<StoredResult> oldestFirst = completedResults.values().iterator();
+        while (oldestFirst.hasNext()) {
+            StoredResult oldest = oldestFirst.next();
+            if (now - oldest.storedAtNanos() < ttlNanos) {
+                break;
+            }
+            storedBytes -= oldest.sizeBytes();
+            oldestFirst.remove();
+            evictionCount.incrementAndGet();
         }
     }
+
+    /*
+     * Approximates the retained size of a result posted by the chat UI, which is a
+     * tree of maps, lists, strings and boxed primitives.
+     */
+    static long estimateSize(final Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence text) {
+            return 40 + 2L * text.length();
+        }
+        if (value instanceof ChatResultPayload payload) {
+            return 40 + 2L * payload.json().length();
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = 48;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += 32 + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = 40;
+            for (Object element : collection) {
+                size += 8 + estimateSize(element);
+            }
+            return size;
+        }
+        return 16;
+    }
+
+    private record StoredResult(Object value, long sizeBytes, long storedAtNanos) {
+    }
 }
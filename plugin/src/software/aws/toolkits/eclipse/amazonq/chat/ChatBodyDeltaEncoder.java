@@ -0,0 +1,68 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rewrites streamed partial chat results so that only the part of the body the
+ * webview has not seen yet crosses the browser bridge. For every tab the encoder
+ * remembers the last body sent for the current message. When the next partial
+ * shares a prefix with it, {@link ChatResultPayload} replaces the body with a
+ * delta holding the prefix length and the new tail, which the reassembly script
+ * in the chat webview applies before handing the message to the chat UI.
+ *
+ * A full body is sent whenever the webview state for the tab is unknown, the
+ * message id changes, or the new body shares no prefix with the previous one.
+ */
+final class ChatBodyDeltaEncoder {
+
+    static final String BODY_DELTA_KEY = "bodyDelta";
+    static final String OFFSET_KEY = "offset";
+    static final String TEXT_KEY = "text";
+
+    private final Map<String, SentBody> sentBodyByTabId = new ConcurrentHashMap<>();
+
+    /*
+     * Records the body about to be sent for the tab and returns how many leading
+     * characters of it the webview already holds, or 0 if the full body must be sent.
+     */
+    int deltaOffset(final String tabId, final String messageId, final String body) {
+        SentBody previous = sentBodyByTabId.put(tabId, new SentBody(messageId, body));
+        if (previous == null || !Objects.equals(previous.messageId(), messageId)) {
+            return 0;
+        }
+        return commonPrefixLength(previous.body(), body);
+    }
+
+    /*
+     * Forgets what the webview holds for the tab, so the next partial carries a full body.
+     */
+    void reset(final String tabId) {
+        sentBodyByTabId.remove(tabId);
+    }
+
+    void resetAll() {
+        sentBodyByTabId.clear();
+    }
+
+    static int commonPrefixLength(final String previous, final String current) {
+        // streaming almost always appends, so check that first
+        if (current.startsWith(previous)) {
+            return previous.length();
+        }
+        int limit = Math.min(previous.length(), current.length());
+        int index = 0;
+        while (index < limit && previous.charAt(index) == current.charAt(index)) {
+            index++;
+        }
+        return index;
+    }
+
+    private record SentBody(String messageId, String body) {
+    }
+
+}
@@ -3,19 +3,23 @@
 
 package software.aws.toolkits.eclipse.amazonq.chat;
 
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.List;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IWorkspaceRoot;
@@ -32,7 +36,6 @@ import org.eclipse.swt.widgets.Display;
 import com.google.gson.JsonObject;
 
 import software.aws.toolkits.eclipse.amazonq.broker.api.EventObserver;
-import software.aws.toolkits.eclipse.amazonq.chat.models.ButtonClickResult;
 import software.aws.toolkits.eclipse.amazonq.chat.models.ChatUIInboundCommand;
 import software.aws.toolkits.eclipse.amazonq.chat.models.ChatUIInboundCommandName;
 import software.aws.toolkits.eclipse.amazonq.chat.models.CursorState;
@@ -45,7 +48,6 @@ import software.aws.toolkits.eclipse.amazonq.lsp.encryption.DefaultLspEncryption
 import software.aws.toolkits.eclipse.amazonq.lsp.encryption.LspEncryptionManager;
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
 import software.aws.toolkits.eclipse.amazonq.util.JsonHandler;
-import software.aws.toolkits.eclipse.amazonq.util.ObjectMapperFactory;
 import software.aws.toolkits.eclipse.amazonq.util.ProgressNotificationUtils;
 import software.aws.toolkits.eclipse.amazonq.util.QEclipseEditorUtils;
 import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
@@ -67,27 +69,40 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
     private final ChatPartialResultMap chatPartialResultMap;
     private final LspEncryptionManager lspEncryptionManager;
 
-    private final BlockingQueue<ChatUIInboundCommand> commandQueue;
+    private final Queue<ChatUIInboundCommand> commandQueue;
 
     private final Map<String, Long> lastProcessedTimeMap = new ConcurrentHashMap<>();
+    private final Map<String, Integer> nextPartialDelayMap = new ConcurrentHashMap<>();
+    private final ChatPartialResultCoalescer partialResultCoalescer;
+    private final ChatBodyDeltaEncoder bodyDeltaEncoder = new ChatBodyDeltaEncoder();
+    private final ChatServerRequestDispatcher serverRequestDispatcher = new ChatServerRequestDispatcher(MAX_CONCURRENT_SERVER_REQUESTS);
+    // actions may wait on the user or run for minutes, so they get slots of their own rather than starving list requests
+    private final ChatServerRequestDispatcher serverActionDispatcher = new ChatServerRequestDispatcher(MAX_CONCURRENT_SERVER_ACTIONS);
 
     private static final int MINIMUM_PARTIAL_RESPONSE_LENGTH = 50;
     private static final int MIN_DELAY_BETWEEN_PARTIALS = 250;
     private static final int MAX_DELAY_BETWEEN_PARTIALS = 1500;
     private static final int CHAR_COUNT_FOR_MAX_DELAY = 5000;
+    private static final int MAX_CONCURRENT_SERVER_REQUESTS = 4;
+    private static final int MAX_CONCURRENT_SERVER_ACTIONS = 4;
+    private static final long SERVER_REQUEST_TIMEOUT_MS = 30_000;
+    private static final long SERVER_ACTION_TIMEOUT_MS = 120_000;
+    // list and navigation requests where only the latest response is still of interest
+    private static final Set<Command> SUPERSEDING_COMMANDS = EnumSet.of(Command.LIST_CONVERSATIONS,
+            Command.CONVERSATION_CLICK, Command.LIST_MCP_SERVERS, Command.LIST_RULES, Command.LIST_AVAILABLE_MODELS);
+    private static final Set<Command> SERVER_ACTION_COMMANDS = EnumSet.of(Command.TAB_BAR_ACTION, Command.BUTTON_CLICK,
+            Command.MCP_SERVER_CLICK);
+    // inline chat sessions are not chat panel tabs, but use tab ids with this prefix to route their results
+    public static final String INLINE_CHAT_TAB_ID_PREFIX = "inlineChat-";
 
-    private final ConcurrentHashMap<String, Object> partialResultLocks = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Boolean> finalResultProcessed = new ConcurrentHashMap<>();
 
     private CompletableFuture<ChatUiRequestListener> chatUiRequestListenerFuture;
-    private CompletableFuture<ChatUiRequestListener> inlineChatListenerFuture;
+    // one listener per inline chat session, keyed by the session's tab id
+    private final Map<String, ChatUiRequestListener> inlineChatListeners = new ConcurrentHashMap<>();
     private Map<String, CompletableFuture<String>> inflightRequestByTabId = new ConcurrentHashMap<String, CompletableFuture<String>>();
 
     private volatile boolean isChatReady = false;
-    private volatile boolean isQueueProcessorRunning = false;
-    private volatile Thread queueProcessorThread;
-
-    private final String inlineChatTabId = "123456789";
 
     private ChatCommunicationManager(final Builder builder) {
         this.jsonHandler = builder.jsonHandler != null ? builder.jsonHandler : new JsonHandler();
@@ -96,8 +111,9 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
         this.lspEncryptionManager = builder.lspEncryptionManager != null ? builder.lspEncryptionManager
                 : DefaultLspEncryptionManager.getInstance();
         chatUiRequestListenerFuture = new CompletableFuture<>();
-        inlineChatListenerFuture = new CompletableFuture<>();
-        commandQueue = new LinkedBlockingQueue<>();
+        commandQueue = new ConcurrentLinkedQueue<>();
+        partialResultCoalescer = new ChatPartialResultCoalescer(this::processPartialResult, this::getRemainingPartialDelay,
+                token -> getTabExecutor(Optional.ofNullable(getPartialChatMessage(token)).orElse(token)));
         Activator.getEventBroker().subscribe(ChatUIInboundCommand.class, this);
     }
 
@@ -120,11 +136,6 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
     public void sendMessageToChatServer(final Command command, final ChatMessage message) {
         Activator.getLspProvider().getAmazonQServer().thenAcceptAsync(amazonQLspServer -> {
             try {
-                if (isQueueProcessorRunning && (queueProcessorThread != null && !queueProcessorThread.isAlive())) {
-                    isQueueProcessorRunning = false;
-                    startCommandQueueProcessor();
-                }
-
                 switch (command) {
                     case CHAT_SEND_PROMPT:
                         message.addValueForKey("context", message.getValueForKey("prompt.context"));
@@ -154,6 +165,9 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
                         break;
                     case CHAT_READY:
                         isChatReady = true;
+                        // a (re)loaded webview holds no streamed bodies yet
+                        bodyDeltaEncoder.resetAll();
+                        scheduleCommandQueueDrain();
                         amazonQLspServer.chatReady();
                         break;
                     case CHAT_TAB_ADD:
@@ -161,6 +175,8 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
                         break;
                     case CHAT_TAB_REMOVE:
                         lastProcessedTimeMap.remove(message.getValueAsString("tabId"));
+                        nextPartialDelayMap.remove(message.getValueAsString("tabId"));
+                        bodyDeltaEncoder.reset(message.getValueAsString("tabId"));
                         amazonQLspServer.tabRemove(message.getData());
                         break;
                     case CHAT_TAB_CHANGE:
@@ -199,94 +215,51 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
                         amazonQLspServer.sendTelemetryEvent(message.getData());
                         break;
                     case LIST_CONVERSATIONS:
-                        try {
-                            Object response = amazonQLspServer.listConversations(message.getData()).get();
-                            var listConversationsCommand = ChatUIInboundCommand.createCommand("aws/chat/listConversations",
-                                    response);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, listConversationsCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing listConversations: " + e);
-                        }
+                        forwardServerResponse(command, message, "aws/chat/listConversations",
+                                () -> amazonQLspServer.listConversations(message.getData()));
                         break;
                     case CONVERSATION_CLICK:
-                        try {
-                            Object response = amazonQLspServer.conversationClick(message.getData()).get();
-                            var conversationClickCommand = ChatUIInboundCommand.createCommand("aws/chat/conversationClick",
-                                    response);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, conversationClickCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing conversationClick: " + e);
-                        }
+                        forwardServerResponse(command, message, "aws/chat/conversationClick",
+                                () -> amazonQLspServer.conversationClick(message.getData()));
                         break;
                     case CREATE_PROMPT:
                         amazonQLspServer.createPrompt(message.getData());
                         break;
                     case TAB_BAR_ACTION:
-                        try {
-                            Object response = amazonQLspServer.tabBarAction(message.getData()).get();
-                            var tabBarActionsCommand = ChatUIInboundCommand.createCommand("aws/chat/tabBarAction",
-                                    response);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, tabBarActionsCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing tabBarActions: " + e);
-                        }
+                        forwardServerResponse(command, message, "aws/chat/tabBarAction",
+                                () -> amazonQLspServer.tabBarAction(message.getData()));
                         break;
                     case BUTTON_CLICK:
                         String tabId = message.getValueAsString("tabId");
-                        ButtonClickResult response = amazonQLspServer.buttonClick(message.getData()).get();
-                        if (!response.success()) {
-                            sendErrorToUi(tabId, new Throwable(response.failureReason()));
-                        }
+                        getDispatcher(command).submit(null, getServerRequestTimeout(command),
+                                () -> amazonQLspServer.buttonClick(message.getData()))
+                                .whenComplete((response, exception) -> {
+                                    if (exception != null) {
+                                        logServerRequestFailure(command, exception);
+                                    } else if (!response.success()) {
+                                        sendErrorToUi(tabId, new Throwable(response.failureReason()));
+                                    }
+                                });
                         break;
                     case LIST_MCP_SERVERS:
-                        try {
-                            Object mcpServersResponse = amazonQLspServer.listMcpServers(message.getData()).get();
-                            var listMcpServersCommand = ChatUIInboundCommand.createCommand("aws/chat/listMcpServers",
-                                    mcpServersResponse);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, listMcpServersCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing listMcpServers: " + e);
-                        }
+                        forwardServerResponse(command, message, "aws/chat/listMcpServers",
+                                () -> amazonQLspServer.listMcpServers(message.getData()));
                         break;
                     case MCP_SERVER_CLICK:
-                        try {
-                            Object mcpServerClickResponse = amazonQLspServer.mcpServerClick(message.getData()).get();
-                            var mcpServerClickCommand = ChatUIInboundCommand.createCommand("aws/chat/mcpServerClick",
-                                    mcpServerClickResponse);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, mcpServerClickCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing mcpServerClick: " + e);
-                        }
+                        forwardServerResponse(command, message, "aws/chat/mcpServerClick",
+                                () -> amazonQLspServer.mcpServerClick(message.getData()));
                         break;
                     case LIST_RULES:
-                        try {
-                            Object listRulesResponse = amazonQLspServer.listRules(message.getData()).get();
-                            var listRulesCommand = ChatUIInboundCommand.createCommand(ChatUIInboundCommandName.ListRules.getValue(),
-                                    listRulesResponse);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, listRulesCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing listRules: " + e);
-                        }
+                        forwardServerResponse(command, message, ChatUIInboundCommandName.ListRules.getValue(),
+                                () -> amazonQLspServer.listRules(message.getData()));
                         break;
                     case RULE_CLICK:
-                        try {
-                            Object ruleClickResponse = amazonQLspServer.ruleClick(message.getData()).get();
-                            var ruleClickCommand = ChatUIInboundCommand.createCommand(ChatUIInboundCommandName.RuleClick.getValue(),
-                                    ruleClickResponse);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, ruleClickCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing ruleClick: " + e);
-                        }
+                        forwardServerResponse(command, message, ChatUIInboundCommandName.RuleClick.getValue(),
+                                () -> amazonQLspServer.ruleClick(message.getData()));
                         break;
                     case LIST_AVAILABLE_MODELS:
-                        try {
-                            Object listModelsResponse = amazonQLspServer.listAvailableModels(message.getData()).get();
-                            var listModelsCommand = ChatUIInboundCommand.createCommand(ChatUIInboundCommandName.ListAvailableModels.getValue(),
-                                    listModelsResponse);
-                            Activator.getEventBroker().post(ChatUIInboundCommand.class, listModelsCommand);
-                        } catch (Exception e) {
-                            Activator.getLogger().error("Error processing listAvailableModels: " + e);
-                        }
+                        forwardServerResponse(command, message, ChatUIInboundCommandName.ListAvailableModels.getValue(),
+                                () -> amazonQLspServer.listAvailableModels(message.getData()));
                         break;
                     case PINNED_CONTEXT_ADD:
                         amazonQLspServer.pinnedContextAdd(message.getData());
@@ -306,11 +279,73 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
         });
     }
 
-    public void sendInlineChatMessageToChatServer(final ChatMessage chatMessage) {
+    /*
+     * Sends a request through the dispatcher and posts the server's response back
+     * to the chat UI under the given command name. No thread waits for the server.
+     */
+    private void forwardServerResponse(final Command command, final ChatMessage message, final String inboundCommandName,
+            final Supplier<CompletableFuture<Object>> request) {
+        getDispatcher(command).submit(getSupersedeKey(command, message), getServerRequestTimeout(command), request)
+                .whenComplete((response, exception) -> {
+                    if (exception != null) {
+                        logServerRequestFailure(command, exception);
+                        return;
+                    }
+                    Activator.getEventBroker().post(ChatUIInboundCommand.class,
+                            ChatUIInboundCommand.createCommand(inboundCommandName, response));
+                });
+    }
+
+    /*
+     * Returns the key under which a newer request cancels this one, or null if the
+     * request must run to completion. A conversation click carrying an action
+     * deletes or exports the conversation, so only plain clicks that open one
+     * are superseded.
+     */
+    private static Object getSupersedeKey(final Command command, final ChatMessage message) {
+        if (!SUPERSEDING_COMMANDS.contains(command)) {
+            return null;
+        }
+        if (command == Command.CONVERSATION_CLICK && message.getValueAsString("action") != null) {
+            return null;
+        }
+        return command;
+    }
+
+    private ChatServerRequestDispatcher getDispatcher(final Command command) {
+        return SERVER_ACTION_COMMANDS.contains(command) ? serverActionDispatcher : serverRequestDispatcher;
+    }
+
+    private static long getServerRequestTimeout(final Command command) {
+        return switch (command) {
+            // the server may wait on a save dialog while exporting a conversation
+            case TAB_BAR_ACTION -> 0;
+            case BUTTON_CLICK, MCP_SERVER_CLICK -> SERVER_ACTION_TIMEOUT_MS;
+            default -> SERVER_REQUEST_TIMEOUT_MS;
+        };
+    }
+
+    private void logServerRequestFailure(final Command command, final Throwable exception) {
+        if (exception instanceof CancellationException || exception.getCause() instanceof CancellationException) {
+            // superseded by a newer request of the same kind
+            return;
+        }
+        Activator.getLogger().error("Error processing " + command.toString() + ": " + exception);
+    }
+
+    /*
+     * Sends an inline chat prompt on behalf of the inline chat session with the
+     * given tab id. Each session has its own tab id, so any number of prompts can be
+     * in flight, each with its own partial result token and ordered executor.
+     */
+    public void sendInlineChatMessageToChatServer(final String tabId, final ChatMessage chatMessage) {
         Activator.getLspProvider().getAmazonQServer().thenAcceptAsync(amazonQLspServer -> {
             try {
-                addEditorState(chatMessage, false);
-                sendEncryptedChatMessage(inlineChatTabId, token -> {
+                var textDocument = chatMessage.getValueForKey("textDocument");
+                if (textDocument == null || textDocument.isNull()) {
+                    addEditorState(chatMessage, false);
+                }
+                sendEncryptedChatMessage(tabId, token -> {
                     String encryptedMessage = lspEncryptionManager.encrypt(chatMessage.getData());
 
                     EncryptedChatParams encryptedChatRequestParams = new EncryptedChatParams(encryptedMessage, token);
@@ -409,72 +444,91 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
 
         return action.apply(partialResultToken).handle((encryptedChatResult, exception) -> {
             if (exception != null) {
-                // handle cancellations
+                // handle cancellations once the stop message for this request has arrived
                 if (exception instanceof CancellationException
                         || exception.getCause() instanceof CancellationException) {
+                    // the stop message must not wait for the partial result pacing
+                    partialResultCoalescer.expedite(partialResultToken);
                     ChatAsyncResultManager manager = ChatAsyncResultManager.getInstance();
-                    try {
-                        manager.createRequestId(partialResultToken);
-                        manager.getResult(partialResultToken);
-                        handleCancellation(tabId);
-                    } catch (Exception e) {
-                        Activator.getLogger().error("An error occurred while processing cancellation: " + exception.getMessage());
-                    } finally {
-                        manager.removeRequestId(partialResultToken);
-                        partialResultLocks.remove(partialResultToken);
-                        finalResultProcessed.remove(partialResultToken);
-                        lastProcessedTimeMap.remove(tabId);
-                    }
-                    return null;
+                    manager.createRequestId(partialResultToken);
+                    return manager.getResultAsync(partialResultToken).handle((stopResult, stopException) -> {
+                        try {
+                            if (stopException != null) {
+                                Activator.getLogger().error("An error occurred while processing cancellation: " + exception.getMessage());
+                            } else {
+                                handleCancellation(tabId);
+                            }
+                        } finally {
+                            manager.removeRequestId(partialResultToken);
+                            partialResultCoalescer.discard(partialResultToken);
+                            finalResultProcessed.remove(partialResultToken);
+                            lastProcessedTimeMap.remove(tabId);
+                        }
+                        return null;
+                    });
                 }
-
-                // handle non-cancellation errors
-                Activator.getLogger()
-                        .error("An error occurred while processing chat request: " + exception.getMessage());
-                sendErrorToUi(tabId, exception);
-                removePartialChatMessage(partialResultToken);
-                partialResultLocks.remove(partialResultToken);
-                finalResultProcessed.remove(partialResultToken);
-                lastProcessedTimeMap.remove(tabId);
-                return null;
+            } else {
+                // mark final first so a pending partial cannot overwrite it
+                finalResultProcessed.put(partialResultToken, true);
             }
 
-            // process successful responses
+            // run after any partial already queued for this tab so the final result is always delivered last
+            return CompletableFuture.supplyAsync(
+                    () -> processChatResult(tabId, partialResultToken, encryptedChatResult, exception),
+                    getTabExecutor(tabId));
+        }).thenCompose(Function.identity());
+    }
+
+    private Object processChatResult(final String tabId, final String partialResultToken,
+            final String encryptedChatResult, final Throwable exception) {
+        if (exception != null) {
+            // handle non-cancellation errors
+            Activator.getLogger()
+                    .error("An error occurred while processing chat request: " + exception.getMessage());
+            sendErrorToUi(tabId, exception);
             removePartialChatMessage(partialResultToken);
-            try {
-                finalResultProcessed.put(partialResultToken, true);
-                String serializedData = lspEncryptionManager.decrypt(encryptedChatResult);
-                Map<String, Object> result = jsonHandler.deserialize(serializedData, Map.class);
-
-                if (result.containsKey("codeReference")) {
-                    ReferenceTrackerInformation[] codeReferences = ObjectMapperFactory.getInstance()
-                            .convertValue(result.get("codeReference"), ReferenceTrackerInformation[].class);
-                    if (codeReferences != null && codeReferences.length >= 1) {
-                        Activator.getCodeReferenceLoggingService()
-                                .log(new ChatCodeReference(codeReferences));
-                    }
-                }
+            finalResultProcessed.remove(partialResultToken);
+            lastProcessedTimeMap.remove(tabId);
+            return null;
+        }
 
-                String command = inlineChatTabId.equals(tabId)
-                        ? ChatUIInboundCommandName.InlineChatPrompt.getValue()
-                        : ChatUIInboundCommandName.ChatPrompt.getValue();
+        // process successful responses
+        removePartialChatMessage(partialResultToken);
+        try {
+            ChatResultPayload result = ChatResultPayload.decode(lspEncryptionManager.decrypt(encryptedChatResult));
 
-                sendMessageToChatUI(new ChatUIInboundCommand(command, tabId, result, false, null));
-                return result;
-            } catch (Exception e) {
-                Activator.getLogger()
-                        .error("An error occurred while processing chat response: " + e.getMessage());
-                sendErrorToUi(tabId, e);
-                partialResultLocks.remove(partialResultToken);
-                finalResultProcessed.remove(partialResultToken);
-                return null;
+            ReferenceTrackerInformation[] codeReferences = result.codeReferences();
+            if (codeReferences != null && codeReferences.length >= 1) {
+                Activator.getCodeReferenceLoggingService()
+                        .log(new ChatCodeReference(codeReferences));
             }
-        });
+
+            String command = isInlineChatTab(tabId)
+                    ? ChatUIInboundCommandName.InlineChatPrompt.getValue()
+                    : ChatUIInboundCommandName.ChatPrompt.getValue();
+
+            bodyDeltaEncoder.reset(tabId);
+            sendMessageToChatUI(new ChatUIInboundCommand(command, tabId, result.asParams(), false, null));
+            return result;
+        } catch (Exception e) {
+            Activator.getLogger()
+                    .error("An error occurred while processing chat response: " + e.getMessage());
+            sendErrorToUi(tabId, e);
+            finalResultProcessed.remove(partialResultToken);
+            return null;
+        }
+    }
+
+    /*
+     * Returns the single-writer executor for a chat tab. Partial and final results
+     * for the same tab are processed one at a time in arrival order, while other tabs
+     * proceed independently of each other and of the shared worker pool.
+     */
+    private Executor getTabExecutor(final String tabId) {
+        return ThreadingUtils.getOrderedExecutor(tabId);
     }
 
     void registerPartialResultToken(final String partialResultToken) {
-        Object lock = new Object();
-        partialResultLocks.put(partialResultToken, lock);
         finalResultProcessed.put(partialResultToken, false);
     }
 
@@ -494,6 +548,7 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
         String errorTitle = "An error occurred while processing your request.";
         String errorMessage = extractErrorMessage(exception);
         ErrorParams errorParams = new ErrorParams(tabId, null, errorMessage, errorTitle);
+        bodyDeltaEncoder.reset(tabId);
         ChatUIInboundCommand chatUIInboundCommand = new ChatUIInboundCommand(
                 ChatUIInboundCommandName.ErrorMessage.getValue(), tabId, errorParams, false, null);
         sendMessageToChatUI(chatUIInboundCommand);
@@ -538,29 +593,34 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
         }
     }
 
-    public void setInlineChatRequestListener(final ChatUiRequestListener listener) {
+    public void setInlineChatRequestListener(final String tabId, final ChatUiRequestListener listener) {
         if (listener != null) {
-            inlineChatListenerFuture.complete(listener);
+            inlineChatListeners.put(tabId, listener);
         }
     }
 
     public void removeListener(final ChatUiRequestListener listener) {
         if (chatUiRequestListenerFuture.isDone() && listener == chatUiRequestListenerFuture.join()) {
             chatUiRequestListenerFuture = new CompletableFuture<>();
-        } else if (inlineChatListenerFuture.isDone() && listener == inlineChatListenerFuture.join()) {
-            inlineChatListenerFuture = new CompletableFuture<>();
+        } else {
+            inlineChatListeners.values().removeIf(inlineChatListener -> inlineChatListener == listener);
         }
     }
 
+    public static boolean isInlineChatTab(final String tabId) {
+        return tabId != null && tabId.startsWith(INLINE_CHAT_TAB_ID_PREFIX);
+    }
+
     public void activate() {
-        startCommandQueueProcessor();
+        scheduleCommandQueueDrain();
     }
 
     /*
      * Handles chat progress notifications from the Amazon Q LSP server. - Process
      * partial results for Chat messages if provided token is maintained by
      * ChatCommunicationManager - Other notifications are ignored at this time. -
-     * Sends a partial chat prompt message to the webview.
+     * Hands the still-encrypted partial result to the coalescer, which flushes only
+     * the latest pending frame per token to the webview.
      */
     public void handlePartialResultProgressNotification(final ProgressParams params) {
         String token = ProgressNotificationUtils.getToken(params);
@@ -575,75 +635,88 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
                     "Error handling partial result notification: expected value of type Object");
         }
 
+        if (Boolean.TRUE.equals(finalResultProcessed.get(token))) {
+            return;
+        }
+
         String encryptedPartialChatResult = ProgressNotificationUtils.getObject(params, String.class);
-        String serializedData = lspEncryptionManager.decrypt(encryptedPartialChatResult);
-        Map<String, Object> partialChatResult = jsonHandler.deserialize(serializedData, Map.class);
+        partialResultCoalescer.submit(token, encryptedPartialChatResult);
+    }
 
-        if (partialChatResult == null) {
+    /*
+     * Decrypts and processes the latest coalesced partial result for a token. Runs
+     * on the tab's executor, so partials for a tab never race with each other or
+     * with the final result. Superseded frames never reach this method.
+     */
+    void processPartialResult(final String token, final String encryptedPartialChatResult) {
+        String tabId = getPartialChatMessage(token);
+        if (tabId == null || tabId.isEmpty() || Boolean.TRUE.equals(finalResultProcessed.get(token))) {
             return;
         }
 
-        String command = inlineChatTabId.equals(tabId)
+        ChatResultPayload partialChatResult;
+        try {
+            partialChatResult = ChatResultPayload.decode(lspEncryptionManager.decrypt(encryptedPartialChatResult));
+        } catch (IOException e) {
+            Activator.getLogger().error("Error parsing partial chat result: " + e.getMessage());
+            return;
+        }
+
+        String command = isInlineChatTab(tabId)
                 ? ChatUIInboundCommandName.InlineChatPrompt.getValue()
                 : ChatUIInboundCommandName.ChatPrompt.getValue();
 
-        // special case: check for stop message before acquiring lock
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> additionalMessages = (List<Map<String, Object>>) partialChatResult.get("additionalMessages");
-        if (additionalMessages != null) {
-            for (Map<String, Object> message : additionalMessages) {
-                String messageId = (String) message.get("messageId");
-                if (messageId != null && messageId.startsWith("stopped")) {
-                    // process stop messages immediately
-                    sendMessageToChatUI(new ChatUIInboundCommand(command, tabId, partialChatResult, true, null));
-                    finalResultProcessed.put(token, true);
-                    ChatAsyncResultManager.getInstance().setResult(token, partialChatResult);
-                    return;
-                }
-            }
+        // special case: stop messages are delivered even if the token has been released
+        if (partialChatResult.isStopMessage()) {
+            // process stop messages immediately; the coalescer expedites the token once its request is cancelled
+            bodyDeltaEncoder.reset(tabId);
+            sendMessageToChatUI(new ChatUIInboundCommand(command, tabId, partialChatResult.asParams(), true, null));
+            finalResultProcessed.put(token, true);
+            ChatAsyncResultManager.getInstance().setResult(token, partialChatResult);
+            return;
         }
 
         // normal partial processing
-        Object lock = partialResultLocks.get(token);
-        if (lock == null) {
+        if (!Boolean.FALSE.equals(finalResultProcessed.get(token))) {
             return;
         }
 
-        synchronized (lock) {
-            if (partialResultLocks.get(token) == null || Boolean.TRUE.equals(finalResultProcessed.get(token))) {
-                return;
-            }
-
-            Object body = partialChatResult.get("body");
-            boolean hasAdditionalMessages = (additionalMessages != null && !additionalMessages.isEmpty());
-            long currentTime = System.currentTimeMillis();
-
-            // rate limit by discarding messages that have arrived too soon since the last was fired
-            if (!hasAdditionalMessages && body instanceof String) {
-                Long lastProcessedTime = lastProcessedTimeMap.get(tabId);
-                if (lastProcessedTime != null) {
-                    int currentDelay = calculateDelay((String) body);
-                    if ((currentTime - lastProcessedTime) < currentDelay) {
-                        return;
-                    }
-                }
-            }
+        String body = partialChatResult.body();
+        boolean insufficientContent = body == null || body.length() < MINIMUM_PARTIAL_RESPONSE_LENGTH;
+        if (insufficientContent && !partialChatResult.hasAdditionalMessages()) {
+            return;
+        }
 
-            boolean insufficientContent = (body == null
-                    || (body instanceof String && ((String) body).length() < MINIMUM_PARTIAL_RESPONSE_LENGTH));
-            if (insufficientContent && !hasAdditionalMessages) {
-                return;
-            }
+        // the chat panel only needs the new tail of the body; inline chat consumes full bodies on the host
+        int deltaOffset = isInlineChatTab(tabId) || body == null
+                ? 0
+                : bodyDeltaEncoder.deltaOffset(tabId, partialChatResult.messageId(), body);
+        Object params = deltaOffset > 0
+                ? partialChatResult.asParamsWithBodyDelta(deltaOffset)
+                : partialChatResult.asParams();
+        sendMessageToChatUI(new ChatUIInboundCommand(command, tabId, params, true, null));
+        // pace the next flush by the size of the body shown so far
+        if (body != null) {
+            lastProcessedTimeMap.put(tabId, System.currentTimeMillis());
+            nextPartialDelayMap.put(tabId, calculateDelay(body));
+        }
+    }
 
-            // send partial response to UI if not cancelled in the interim
-            if (Boolean.FALSE.equals(finalResultProcessed.get(token))) {
-                sendMessageToChatUI(new ChatUIInboundCommand(command, tabId, partialChatResult, true, null));
-                // only update timestamp for rate-limited messages (string body without additional messages)
-                if (!hasAdditionalMessages && body instanceof String) {
-                    lastProcessedTimeMap.put(tabId, currentTime);
-                }
-            }
+    /*
+     * Returns how long the coalescer should wait before flushing the next partial
+     * result for the tab owning the given token.
+     */
+    private long getRemainingPartialDelay(final String token) {
+        String tabId = getPartialChatMessage(token);
+        if (tabId == null) {
+            return 0;
         }
+        Long lastProcessedTime = lastProcessedTimeMap.get(tabId);
+        Integer delay = nextPartialDelayMap.get(tabId);
+        if (lastProcessedTime == null || delay == null) {
+            return 0;
+        }
+        return lastProcessedTime + delay - System.currentTimeMillis();
     }
 
     private int calculateDelay(final String bodyString) {
@@ -659,6 +732,7 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
     @Override
     public void onEvent(final ChatUIInboundCommand command) {
         commandQueue.add(command);
+        scheduleCommandQueueDrain();
     }
 
     /*
@@ -666,12 +740,12 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
      */
     private void sendMessageToChatUI(final ChatUIInboundCommand command) {
         String message = jsonHandler.serialize(command);
-        String inlineChatCommand = ChatUIInboundCommandName.InlineChatPrompt.getValue();
-        if (inlineChatCommand.equals(command.command())) {
-            inlineChatListenerFuture.thenApply(listener -> {
+        if (isInlineChatTab(command.tabId())) {
+            // results and errors of an inline chat request go to the session that sent it, if it is still open
+            ChatUiRequestListener listener = inlineChatListeners.get(command.tabId());
+            if (listener != null) {
                 listener.onSendToChatUi(message);
-                return listener;
-            });
+            }
         } else {
             chatUiRequestListenerFuture.thenApply(listener -> {
                 listener.onSendToChatUi(message);
@@ -703,41 +777,34 @@ public final class ChatCommunicationManager implements EventObserver<ChatUIInbou
     private void removePartialChatMessage(final String partialResultToken) {
         String tabId = chatPartialResultMap.getValue(partialResultToken);
         chatPartialResultMap.removeEntry(partialResultToken);
+        partialResultCoalescer.discard(partialResultToken);
         if (tabId != null) {
             lastProcessedTimeMap.remove(tabId);
+            nextPartialDelayMap.remove(tabId);
         }
     }
 
-    private void startCommandQueueProcessor() {
-        if (isQueueProcessorRunning) {
+    /*
+     * Commands are buffered until the chat UI reports CHAT_READY and then drained in
+     * bulk. Drains run on a dedicated ordered executor, so commands reach the UI in
+     * the order they were posted and no thread is held while the queue is idle.
+     */
+    private void scheduleCommandQueueDrain() {
+        if (!isChatReady || commandQueue.isEmpty()) {
             return;
         }
-        isQueueProcessorRunning = true;
-        ThreadingUtils.executeAsyncTask(() -> {
-            queueProcessorThread = Thread.currentThread();
-            while (isQueueProcessorRunning && !Thread.currentThread().isInterrupted()) {
-                try {
-                    if (!isChatReady) {
-                        Thread.sleep(100);
-                        continue;
-                    }
-                    ChatUIInboundCommand command = commandQueue.take();
-                    sendMessageToChatUI(command);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    isQueueProcessorRunning = false;
-                } catch (Exception e) {
-                    Activator.getLogger().error("Error processing command from queue", e);
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        isQueueProcessorRunning = false;
-                    }
-                }
+        ThreadingUtils.executeOrderedTask(commandQueue, this::drainCommandQueue);
+    }
+
+    private void drainCommandQueue() {
+        ChatUIInboundCommand command;
+        while (isChatReady && (command = commandQueue.poll()) != null) {
+            try {
+                sendMessageToChatUI(command);
+            } catch (Exception e) {
+                Activator.getLogger().error("Error processing command from queue", e);
             }
-            isQueueProcessorRunning = false;
-        });
+        }
     }
 
     public static final class Builder {
@@ -3,29 +3,76 @@
 
 package software.aws.toolkits.eclipse.amazonq.chat;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import software.aws.toolkits.eclipse.amazonq.util.JsonHandler;
+import software.aws.toolkits.eclipse.amazonq.util.ObjectMapperFactory;
 
+/**
+ * A chat message received from the chat UI. The message is converted to a
+ * single {@link ObjectNode} the first time a key is read or written, and all
+ * further lookups and updates work on that tree. Resolved dotted paths are
+ * cached until the next update.
+ *
+ * Until it is modified, {@link #getData()} returns the original object so it
+ * can be forwarded to the language server unchanged. Once modified, it returns
+ * the tree, which is then serialized directly.
+ */
 public final class ChatMessage {
-    private final JsonHandler jsonHandler;
+    private final ObjectMapper objectMapper;
+    private final Map<String, JsonNode> resolvedPaths = new HashMap<>();
     private Object data;
+    private ObjectNode tree;
+    private boolean treeConverted;
 
     public ChatMessage(final Object data) {
-        this.jsonHandler = new JsonHandler();
+        this.objectMapper = ObjectMapperFactory.getInstance();
         this.data = data;
     }
 
     public boolean hasKey(final String key) {
-        return jsonHandler.getValueForKey(data, key) != null;
+        return getValueForKey(key) != null;
     }
 
     public JsonNode getValueForKey(final String key) {
-        return jsonHandler.getValueForKey(data, key);
+        if (resolvedPaths.containsKey(key)) {
+            return resolvedPaths.get(key);
+        }
+
+        JsonNode currentNode = getTree();
+        for (String keyPart : key.split("\\.")) {
+            if (currentNode == null) {
+                break;
+            }
+            currentNode = currentNode.get(keyPart);
+        }
+
+        resolvedPaths.put(key, currentNode);
+        return currentNode;
     }
 
     public void addValueForKey(final String key, final Object obj) {
-        data = jsonHandler.addValueForKey(data, key, obj);
+        ObjectNode currentNode = getTree();
+        if (currentNode == null) {
+            currentNode = objectMapper.createObjectNode();
+            tree = currentNode;
+        }
+        data = tree;
+
+        String[] keyParts = key.split("\\.");
+        for (int i = 0; i < keyParts.length - 1; i++) {
+            JsonNode child = currentNode.get(keyParts[i]);
+            currentNode = child != null && child.isObject() ? (ObjectNode) child : currentNode.putObject(keyParts[i]);
+        }
+
+        if (obj != null) {
+            currentNode.set(keyParts[keyParts.length - 1], objectMapper.valueToTree(obj));
+        }
+        resolvedPaths.clear();
     }
 
     public Object getData() {
@@ -33,8 +80,21 @@ public final class ChatMessage {
     }
 
     public String getValueAsString(final String key) {
-        JsonNode node = jsonHandler.getValueForKey(data, key);
+        JsonNode node = getValueForKey(key);
         return node != null ? node.asText() : null;
     }
 
+    /*
+     * Converts the message to a tree on first use. Returns null when the message
+     * is not a JSON object.
+     */
+    private ObjectNode getTree() {
+        if (!treeConverted) {
+            treeConverted = true;
+            JsonNode node = data instanceof JsonNode jsonNode ? jsonNode : objectMapper.valueToTree(data);
+            tree = node instanceof ObjectNode objectNode ? objectNode : null;
+        }
+        return tree;
+    }
+
 }
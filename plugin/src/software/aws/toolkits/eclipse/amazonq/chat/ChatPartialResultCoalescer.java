@@ -0,0 +1,138 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+
+/**
+ * Coalesces partial chat results per partial result token so that only the most
+ * recent frame is handed to the flush handler. Partial results from the language
+ * server are cumulative, so a frame that is superseded before its flush tick is
+ * dropped while still encrypted and is never decrypted or parsed.
+ *
+ * At most one flush is scheduled or running per token at any time, and flushes
+ * run on the executor supplied for the token, which keeps frames for a token in
+ * arrival order without locking. A token whose request has been cancelled is
+ * expedited: its frames, including the stop message that ends the request, are
+ * flushed as soon as they arrive rather than on the next tick.
+ */
+final class ChatPartialResultCoalescer {
+
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    private final BiConsumer<String, String> flushHandler;
+    private final ToLongFunction<String> flushDelayProvider;
+    private final Function<String, Executor> flushExecutorProvider;
+
+    /**
+     * @param flushHandler          invoked with the token and latest pending payload on each flush tick
+     * @param flushDelayProvider    returns the delay in milliseconds before the next flush for a token
+     * @param flushExecutorProvider returns the executor the flush for a token runs on
+     */
+    ChatPartialResultCoalescer(final BiConsumer<String, String> flushHandler,
+            final ToLongFunction<String> flushDelayProvider, final Function<String, Executor> flushExecutorProvider) {
+        this.flushHandler = flushHandler;
+        this.flushDelayProvider = flushDelayProvider;
+        this.flushExecutorProvider = flushExecutorProvider;
+    }
+
+    /*
+     * Replaces any pending payload for the token and schedules a flush if one is
+     * not already pending.
+     */
+    void submit(final String token, final String payload) {
+        Slot slot = slots.computeIfAbsent(token, key -> new Slot());
+        slot.pending.set(payload);
+        if (slot.expedited) {
+            flushNow(token, slot);
+        } else {
+            scheduleFlush(token, slot);
+        }
+    }
+
+    /*
+     * Stops pacing the token: a pending payload is flushed right away, and so is
+     * every payload submitted afterwards.
+     */
+    void expedite(final String token) {
+        Slot slot = slots.computeIfAbsent(token, key -> new Slot());
+        slot.expedited = true;
+        if (slot.pending.get() != null) {
+            flushNow(token, slot);
+        }
+    }
+
+    /*
+     * Drops the pending payload for the token, if any. A flush that is already
+     * running is not interrupted.
+     */
+    void discard(final String token) {
+        Slot slot = slots.remove(token);
+        if (slot != null) {
+            slot.pending.set(null);
+        }
+    }
+
+    boolean hasPending(final String token) {
+        Slot slot = slots.get(token);
+        return slot != null && slot.pending.get() != null;
+    }
+
+    private void scheduleFlush(final String token, final Slot slot) {
+        if (!slot.flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        long delay = flushDelayProvider.applyAsLong(token);
+        Executor executor = flushExecutorProvider.apply(token);
+        if (delay <= 0) {
+            executor.execute(() -> flush(token, slot, true));
+        } else {
+            // the shared scheduler only acts as a timer; the flush itself runs on the token's executor
+            ThreadingUtils.scheduleAsyncTaskWithDelay(() -> executor.execute(() -> flush(token, slot, true)), delay);
+        }
+    }
+
+    /*
+     * Flushes on the token's executor without waiting for a flush that is already
+     * scheduled, which then finds nothing left to flush.
+     */
+    private void flushNow(final String token, final Slot slot) {
+        flushExecutorProvider.apply(token).execute(() -> flush(token, slot, false));
+    }
+
+    private void flush(final String token, final Slot slot, final boolean scheduled) {
+        try {
+            String payload = slot.pending.getAndSet(null);
+            if (payload != null && slots.get(token) == slot) {
+                flushHandler.accept(token, payload);
+            }
+        } catch (Exception e) {
+            Activator.getLogger().error("Error flushing partial chat result", e);
+        } finally {
+            if (scheduled) {
+                slot.flushScheduled.set(false);
+                // pick up frames that arrived while the handler was running
+                if (slot.pending.get() != null && slots.get(token) == slot) {
+                    scheduleFlush(token, slot);
+                }
+            }
+        }
+    }
+
+    private static final class Slot {
+        private final AtomicReference<String> pending = new AtomicReference<>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+        private volatile boolean expedited;
+    }
+
+}
@@ -0,0 +1,146 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import software.aws.toolkits.eclipse.amazonq.chat.models.ReferenceTrackerInformation;
+import software.aws.toolkits.eclipse.amazonq.util.ObjectMapperFactory;
+
+/**
+ * A decrypted chat result kept as its original JSON text, together with the few
+ * fields the host acts on. The fields are pulled out with a single streaming pass
+ * over the top-level object; everything else is skipped without being
+ * materialized, and the original text is handed to the webview as a raw value
+ * instead of being deserialized and serialized again.
+ */
+record ChatResultPayload(
+        String json,
+        String messageId,
+        String body,
+        int bodyValueStart,
+        int bodyValueEnd,
+        List<String> additionalMessageIds,
+        ReferenceTrackerInformation[] codeReferences) {
+
+    static ChatResultPayload decode(final String json) throws IOException {
+        String messageId = null;
+        String body = null;
+        int bodyValueStart = -1;
+        int bodyValueEnd = -1;
+        List<String> additionalMessageIds = null;
+        ReferenceTrackerInformation[] codeReferences = null;
+
+        try (JsonParser parser = ObjectMapperFactory.getInstance().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected chat result to be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "messageId":
+                        messageId = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                        break;
+                    case "body":
+                        if (value == JsonToken.VALUE_STRING) {
+                            bodyValueStart = (int) parser.currentTokenLocation().getCharOffset();
+                            body = parser.getText();
+                            bodyValueEnd = (int) parser.currentLocation().getCharOffset();
+                        } else {
+                            parser.skipChildren();
+                        }
+                        break;
+                    case "additionalMessages":
+                        additionalMessageIds = readMessageIds(parser);
+                        break;
+                    case "codeReference":
+                        codeReferences = value == JsonToken.START_ARRAY
+                                ? parser.readValueAs(ReferenceTrackerInformation[].class)
+                                : null;
+                        if (codeReferences == null) {
+                            parser.skipChildren();
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+        }
+
+        return new ChatResultPayload(json, messageId, body, bodyValueStart, bodyValueEnd,
+                additionalMessageIds == null ? Collections.emptyList() : additionalMessageIds, codeReferences);
+    }
+
+    private static List<String> readMessageIds(final JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<String> messageIds = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String messageId = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("messageId".equals(field) && value == JsonToken.VALUE_STRING) {
+                    messageId = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            messageIds.add(messageId);
+        }
+        return messageIds;
+    }
+
+    boolean hasBody() {
+        return body != null;
+    }
+
+    boolean hasAdditionalMessages() {
+        return !additionalMessageIds.isEmpty();
+    }
+
+    boolean isStopMessage() {
+        return additionalMessageIds.stream().anyMatch(id -> id != null && id.startsWith("stopped"));
+    }
+
+    /*
+     * The original JSON, embedded verbatim when the enclosing command is serialized.
+     */
+    RawValue asParams() {
+        return new RawValue(json);
+    }
+
+    /*
+     * The original JSON with the body replaced by a delta against the first
+     * prefixLength characters the webview already holds. Only the new tail is
+     * escaped; the rest of the text is copied as is.
+     */
+    RawValue asParamsWithBodyDelta(final int prefixLength) {
+        int objectStart = json.indexOf('{');
+        StringBuilder builder = new StringBuilder(json.length() - (bodyValueEnd - bodyValueStart) + body.length() - prefixLength + 64);
+        builder.append(json, 0, objectStart + 1)
+                .append('"').append(ChatBodyDeltaEncoder.BODY_DELTA_KEY).append("\":{\"")
+                .append(ChatBodyDeltaEncoder.OFFSET_KEY).append("\":").append(prefixLength).append(",\"")
+                .append(ChatBodyDeltaEncoder.TEXT_KEY).append("\":\"");
+        JsonStringEncoder.getInstance().quoteAsString(body.substring(prefixLength), builder);
+        builder.append("\"},")
+                .append(json, objectStart + 1, bodyValueStart)
+                .append("null")
+                .append(json, bodyValueEnd, json.length());
+        return new RawValue(builder.toString());
+    }
+
+}
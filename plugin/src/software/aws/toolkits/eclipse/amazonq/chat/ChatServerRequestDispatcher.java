@@ -0,0 +1,130 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+
+/**
+ * Issues chat UI requests to the language server without holding a thread while
+ * the server responds. At most a fixed number of requests are in flight at once;
+ * further requests wait in arrival order and are started as earlier ones finish.
+ *
+ * Each request may carry a timeout and a supersede key. A new request with the
+ * same key as an earlier one cancels the earlier request whether it is still
+ * waiting or already sent, so repeated clicks only ever wait for the latest
+ * response. Cancelling or timing out a sent request cancels the underlying
+ * server future, which notifies the server.
+ */
+final class ChatServerRequestDispatcher {
+
+    private final int maxConcurrentRequests;
+    private final Queue<PendingRequest<?>> waitingRequests = new ArrayDeque<>();
+    private final Map<Object, CompletableFuture<?>> latestRequestByKey = new ConcurrentHashMap<>();
+    private int inFlightRequests;
+
+    ChatServerRequestDispatcher(final int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    /*
+     * Queues a server request. A null supersede key never cancels other requests,
+     * and a timeout of zero or less waits for the server indefinitely.
+     */
+    <T> CompletableFuture<T> submit(final Object supersedeKey, final long timeoutMs,
+            final Supplier<CompletableFuture<T>> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (supersedeKey != null) {
+            CompletableFuture<?> superseded = latestRequestByKey.put(supersedeKey, result);
+            if (superseded != null) {
+                superseded.cancel(true);
+            }
+            result.whenComplete((response, exception) -> latestRequestByKey.remove(supersedeKey, result));
+        }
+
+        synchronized (this) {
+            waitingRequests.add(new PendingRequest<>(request, timeoutMs, result));
+        }
+        startWaitingRequests();
+        return result;
+    }
+
+    synchronized int getInFlightRequestCount() {
+        return inFlightRequests;
+    }
+
+    synchronized int getWaitingRequestCount() {
+        return waitingRequests.size();
+    }
+
+    private void startWaitingRequests() {
+        while (true) {
+            PendingRequest<?> next;
+            synchronized (this) {
+                if (inFlightRequests >= maxConcurrentRequests) {
+                    return;
+                }
+                next = waitingRequests.poll();
+                if (next == null) {
+                    return;
+                }
+                if (next.result().isDone()) {
+                    // cancelled or superseded before it was sent
+                    continue;
+                }
+                inFlightRequests++;
+            }
+            start(next);
+        }
+    }
+
+    private <T> void start(final PendingRequest<T> pending) {
+        CompletableFuture<T> result = pending.result();
+        CompletableFuture<T> serverFuture;
+        try {
+            serverFuture = pending.request().get();
+        } catch (RuntimeException e) {
+            serverFuture = CompletableFuture.failedFuture(e);
+        }
+
+        Future<?> timeoutTask = pending.timeoutMs() > 0
+                ? ThreadingUtils.scheduleAsyncTaskWithDelay(() -> result.completeExceptionally(
+                        new TimeoutException("Server request timed out after " + pending.timeoutMs() + " ms")),
+                        pending.timeoutMs())
+                : null;
+
+        CompletableFuture<T> sent = serverFuture;
+        sent.whenComplete((response, exception) -> {
+            if (exception != null) {
+                result.completeExceptionally(exception);
+            } else {
+                result.complete(response);
+            }
+        });
+        result.whenComplete((response, exception) -> {
+            if (timeoutTask != null) {
+                timeoutTask.cancel(false);
+            }
+            if (!sent.isDone()) {
+                sent.cancel(true);
+            }
+            synchronized (this) {
+                inFlightRequests--;
+            }
+            startWaitingRequests();
+        });
+    }
+
+    private record PendingRequest<T>(Supplier<CompletableFuture<T>> request, long timeoutMs, CompletableFuture<T> result) {
+    }
+
+}
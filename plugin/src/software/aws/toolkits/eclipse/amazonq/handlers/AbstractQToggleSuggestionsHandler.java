@@ -18,8 +18,7 @@ public abstract class AbstractQToggleSuggestionsHandler extends AbstractHandler
     @Override
     public final boolean isEnabled() {
         QInvocationSession qInvocationSessionInstance = QInvocationSession.getInstance();
-        return qInvocationSessionInstance != null && !qInvocationSessionInstance.hasBeenTypedahead()
-                && qInvocationSessionInstance.isPreviewingSuggestions();
+        return qInvocationSessionInstance != null && qInvocationSessionInstance.canToggleSuggestions();
     }
 
     /**
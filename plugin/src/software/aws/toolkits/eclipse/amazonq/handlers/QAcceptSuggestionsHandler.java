@@ -56,6 +56,8 @@ public class QAcceptSuggestionsHandler extends AbstractHandler {
             widget.setCaretOffset(insertOffset + adjustedSuggestion.length());
             QInvocationSession.getInstance().getViewer().getTextWidget().redraw();
             QInvocationSession.getInstance().executeCallbackForCodeReference();
+            // the user usually carries on right after the accepted text, so ask for that position now
+            QInvocationSession.getInstance().prefetchNextSuggestions();
             QInvocationSession.getInstance().end();
         } catch (BadLocationException e) {
             Activator.getLogger().error(e.toString());
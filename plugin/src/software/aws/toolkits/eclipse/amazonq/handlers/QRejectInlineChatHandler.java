@@ -3,6 +3,8 @@
 
 package software.aws.toolkits.eclipse.amazonq.handlers;
 
+import static software.aws.toolkits.eclipse.amazonq.util.QEclipseEditorUtils.getActiveTextEditor;
+
 import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.ExecutionException;
@@ -20,13 +22,13 @@ public class QRejectInlineChatHandler extends AbstractHandler {
         IContextService contextService = PlatformUI.getWorkbench().getService(IContextService.class);
         var activeContexts = contextService.getActiveContextIds();
 
-        return activeContexts.contains(Constants.INLINE_CHAT_CONTEXT_ID) && InlineChatSession.getInstance().isDeciding();
+        return activeContexts.contains(Constants.INLINE_CHAT_CONTEXT_ID) && InlineChatSession.getSession(getActiveTextEditor()).isDeciding();
     }
 
     @Override
     public final synchronized Object execute(final ExecutionEvent event) throws ExecutionException {
         try {
-            InlineChatSession.getInstance().handleDecision(false);
+            InlineChatSession.getSession(getActiveTextEditor()).handleDecision(false);
         } catch (Exception e) {
             Activator.getLogger().error("Declining inline chat results failed with: " + e.getMessage(), e);
         }
@@ -29,8 +29,10 @@ public class QTriggerInlineChatHandler extends AbstractHandler {
             return null;
         }
 
-        if (InlineChatSession.getInstance().isSessionActive()) {
-            if (InlineChatSession.getInstance().isDeciding() || InlineChatSession.getInstance().isGenerating()) {
+        // sessions in other editors carry on, only this editor's session blocks a new one
+        var session = InlineChatSession.getSession(editor);
+        if (session.isSessionActive()) {
+            if (session.isDeciding() || session.isGenerating()) {
                 showMultipleTriggerNotification();
             }
             Activator.getLogger().info("Inline Chat triggered with existing session active. Returning.");
@@ -40,7 +42,7 @@ public class QTriggerInlineChatHandler extends AbstractHandler {
         boolean newSession = false;
         try {
             Activator.getLogger().info("Starting inline chat session.");
-            newSession = InlineChatSession.getInstance().startSession(editor);
+            newSession = session.startSession(editor);
         } catch (Exception e) {
             Activator.getLogger().error("Session start interrupted", e);
         }
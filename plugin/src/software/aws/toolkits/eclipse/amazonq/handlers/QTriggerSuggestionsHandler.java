@@ -29,14 +29,15 @@ public class QTriggerSuggestionsHandler extends AbstractHandler {
             return null;
         }
 
-        if (QInvocationSession.getInstance().isActive()) {
+        var session = QInvocationSession.getSession(editor);
+        if (session.isActive()) {
             Activator.getLogger().info("Suggestion triggered with existing session active. Returning.");
             return null;
         }
 
         boolean newSession;
         try {
-            newSession = QInvocationSession.getInstance().start(editor);
+            newSession = session.start(editor);
         } catch (java.util.concurrent.ExecutionException e) {
             Activator.getLogger().error("Session start interrupted", e);
             throw new ExecutionException("Session start interrupted", e);
@@ -47,7 +48,7 @@ public class QTriggerSuggestionsHandler extends AbstractHandler {
             return null;
         }
 
-        QInvocationSession.getInstance().invoke();
+        session.invoke();
 
         return null;
     }
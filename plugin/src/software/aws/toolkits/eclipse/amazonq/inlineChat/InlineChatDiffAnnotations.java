@@ -0,0 +1,202 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.inlineChat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.source.Annotation;
+import org.eclipse.jface.text.source.IAnnotationModel;
+import org.eclipse.jface.text.source.IAnnotationModelExtension;
+import org.eclipse.text.edits.DeleteEdit;
+import org.eclipse.text.edits.MultiTextEdit;
+
+/**
+ * The annotations highlighting an inline chat diff, one per rendered line.
+ *
+ * Only these annotations are ever looked at, never the rest of the annotation
+ * model, which also holds every marker, spelling and breakpoint annotation of
+ * the file. Each change is made with a single replaceAnnotations call where the
+ * model supports it, so the model and its listeners are updated once per frame.
+ *
+ * Each run of annotated lines is a hunk, which the user can accept or reject on
+ * its own. Deciding on any number of hunks yields one edit deleting the lines it
+ * drops, so the document is changed once however many lines the hunks span.
+ */
+final class InlineChatDiffAnnotations {
+
+    /*
+     * A run of lineCount changed lines from startLine, counted in rendered lines.
+     */
+    record Hunk(int startLine, int lineCount) {
+    }
+
+    // the annotation of each rendered line, or null for unchanged lines
+    private final List<Annotation> lineAnnotations = new ArrayList<>();
+
+    /*
+     * Starts over with the given number of lines, none of them annotated.
+     */
+    void reset(final int lineCount) {
+        lineAnnotations.clear();
+        lineAnnotations.addAll(Collections.nCopies(lineCount, null));
+    }
+
+    /*
+     * Replaces the annotations of removedLineCount lines from startLine with ones
+     * at the given positions, where a null position is an unchanged line.
+     */
+    void replaceLines(final IAnnotationModel model, final int startLine, final int removedLineCount,
+            final List<TextDiff> positions, final String addedType, final String deletedType) {
+        List<Annotation> replaced = lineAnnotations.subList(startLine, startLine + removedLineCount);
+        List<Annotation> toRemove = new ArrayList<>(replaced.size());
+        for (Annotation annotation : replaced) {
+            if (annotation != null) {
+                toRemove.add(annotation);
+            }
+        }
+        replaced.clear();
+
+        Map<Annotation, Position> toAdd = new HashMap<>();
+        List<Annotation> added = new ArrayList<>(positions.size());
+        for (TextDiff position : positions) {
+            Annotation annotation = null;
+            if (position != null) {
+                String annotationType = position.isDeletion() ? deletedType : addedType;
+                String annotationText = position.isDeletion() ? "Deleted Code" : "Added Code";
+                annotation = new Annotation(annotationType, false, annotationText);
+                toAdd.put(annotation, new Position(position.offset(), position.length()));
+            }
+            added.add(annotation);
+        }
+        lineAnnotations.addAll(startLine, added);
+        replaceAnnotations(model, toRemove, toAdd);
+    }
+
+    /*
+     * Returns where the annotations of the given type currently are in the
+     * document, in no particular order.
+     */
+    List<Position> getPositions(final IAnnotationModel model, final String type) {
+        List<Position> positions = new ArrayList<>();
+        for (Annotation annotation : lineAnnotations) {
+            if (annotation != null && type.equals(annotation.getType())) {
+                Position position = model.getPosition(annotation);
+                if (position != null) {
+                    positions.add(position);
+                }
+            }
+        }
+        return positions;
+    }
+
+    List<Hunk> getHunks() {
+        List<Hunk> hunks = new ArrayList<>();
+        int start = -1;
+        for (int line = 0; line <= lineAnnotations.size(); line++) {
+            boolean annotated = line < lineAnnotations.size() && lineAnnotations.get(line) != null;
+            if (annotated && start < 0) {
+                start = line;
+            } else if (!annotated && start >= 0) {
+                hunks.add(new Hunk(start, line - start));
+                start = -1;
+            }
+        }
+        return hunks;
+    }
+
+    /*
+     * Returns the hunk the offset is in, or else the first one after it, wrapping
+     * around to the first hunk of the diff. Returns null if there are no hunks.
+     */
+    Hunk getHunkAt(final IAnnotationModel model, final int offset) {
+        List<Hunk> hunks = getHunks();
+        for (Hunk hunk : hunks) {
+            Position last = model.getPosition(lineAnnotations.get(hunk.startLine() + hunk.lineCount() - 1));
+            if (last != null && offset <= last.getOffset() + last.getLength()) {
+                return hunk;
+            }
+        }
+        return hunks.isEmpty() ? null : hunks.get(0);
+    }
+
+    /*
+     * Decides on the given hunks: returns the edit deleting their lines annotated
+     * with typeToRemove, and drops their annotations, so the lines that are kept
+     * are shown unchanged. The edit must be applied to the document right after.
+     */
+    MultiTextEdit resolve(final IDocument document, final IAnnotationModel model, final List<Hunk> hunks,
+            final String typeToRemove) throws BadLocationException {
+        MultiTextEdit edit = new MultiTextEdit();
+        List<Annotation> toRemove = new ArrayList<>();
+        List<Hunk> sortedHunks = new ArrayList<>(hunks);
+        // from the last hunk back, so the line numbers of the ones before stay valid
+        sortedHunks.sort((a, b) -> Integer.compare(b.startLine(), a.startLine()));
+
+        for (Hunk hunk : sortedHunks) {
+            int deleteStart = -1;
+            int deleteEnd = -1;
+            for (int line = hunk.startLine() + hunk.lineCount() - 1; line >= hunk.startLine(); line--) {
+                Annotation annotation = lineAnnotations.get(line);
+                toRemove.add(annotation);
+                if (!typeToRemove.equals(annotation.getType())) {
+                    lineAnnotations.set(line, null);
+                    continue;
+                }
+                lineAnnotations.remove(line);
+                Position position = model.getPosition(annotation);
+                if (position == null || position.isDeleted()) {
+                    continue;
+                }
+                int documentLine = document.getLineOfOffset(position.getOffset());
+                int lineStart = document.getLineOffset(documentLine);
+                int lineEnd = lineStart + document.getLineLength(documentLine);
+                if (deleteStart >= 0 && lineEnd >= deleteStart) {
+                    // the line is right before the lines being deleted, or among them already
+                    deleteStart = Math.min(deleteStart, lineStart);
+                    continue;
+                }
+                if (deleteStart >= 0) {
+                    edit.addChild(new DeleteEdit(deleteStart, deleteEnd - deleteStart));
+                }
+                deleteStart = lineStart;
+                deleteEnd = lineEnd;
+            }
+            if (deleteStart >= 0) {
+                edit.addChild(new DeleteEdit(deleteStart, deleteEnd - deleteStart));
+            }
+        }
+        replaceAnnotations(model, toRemove, Map.of());
+        return edit;
+    }
+
+    void clear(final IAnnotationModel model) {
+        List<Annotation> toRemove = lineAnnotations.stream().filter(Objects::nonNull).toList();
+        lineAnnotations.clear();
+        replaceAnnotations(model, toRemove, Map.of());
+    }
+
+    private static void replaceAnnotations(final IAnnotationModel model, final List<Annotation> toRemove,
+            final Map<Annotation, Position> toAdd) {
+        if (toRemove.isEmpty() && toAdd.isEmpty()) {
+            return;
+        }
+        if (model instanceof IAnnotationModelExtension) {
+            ((IAnnotationModelExtension) model).replaceAnnotations(toRemove.toArray(new Annotation[0]), toAdd);
+            return;
+        }
+        for (Annotation annotation : toRemove) {
+            model.removeAnnotation(annotation);
+        }
+        toAdd.forEach(model::addAnnotation);
+    }
+
+}
@@ -4,47 +4,47 @@
 package software.aws.toolkits.eclipse.amazonq.inlineChat;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import org.apache.commons.text.StringEscapeUtils;
-import org.eclipse.jface.text.Position;
-import org.eclipse.jface.text.source.Annotation;
+import org.eclipse.jface.text.DocumentRewriteSession;
+import org.eclipse.jface.text.DocumentRewriteSessionType;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.ITextSelection;
 import org.eclipse.jface.text.source.IAnnotationModel;
 import org.eclipse.swt.widgets.Display;
-
-import com.github.difflib.DiffUtils;
-import com.github.difflib.patch.AbstractDelta;
-import com.github.difflib.patch.DeltaType;
-import com.github.difflib.patch.Patch;
+import org.eclipse.text.edits.TextEdit;
 
 import software.aws.toolkits.eclipse.amazonq.chat.models.InlineChatResult;
+import software.aws.toolkits.eclipse.amazonq.inlineChat.InlineChatDiffAnnotations.Hunk;
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
 
 public final class InlineChatDiffManager {
 
-    private static InlineChatDiffManager instance;
     private String annotationAdded;
     private String annotationDeleted;
     private List<TextDiff> currentDiffs;
+    // only used by the stage building render plans once a task has started
+    private volatile InlineChatStreamingDiff streamingDiff;
+    private final InlineChatDiffAnnotations diffAnnotations = new InlineChatDiffAnnotations();
+    // the latest result waiting for its render plan to be built
+    private final Object pendingResultLock = new Object();
+    private PendingResult pendingResult;
     private InlineChatTask task;
 
-    private InlineChatDiffManager() {
-        // Prevent instantiation
-    }
-
-    static InlineChatDiffManager getInstance() {
-        if (instance == null) {
-            instance = new InlineChatDiffManager();
-        }
-        return instance;
+    // each inline chat session has its own diff manager
+    InlineChatDiffManager() {
     }
 
     void initNewTask(final InlineChatTask task, final boolean isDarkTheme) {
         this.task = task;
         this.currentDiffs = new ArrayList<>();
+        this.streamingDiff = null;
+        this.diffAnnotations.reset(0);
         setColorPalette(isDarkTheme);
     }
     synchronized CompletableFuture<Void> processDiff(final InlineChatResult chatResult, final boolean isPartialResult) throws Exception {
@@ -56,10 +56,10 @@ public final class InlineChatDiffManager {
         if (isPartialResult) {
             // Only process if content has changed
             if (!chatResult.body().equals(task.getPreviousPartialResponse())) {
-                diffFuture = updateUI(chatResult);
-                diffFuture.thenRun(() -> {
-                    if (task.getFirstTokenTime() == -1) {
-                        task.setFirstTokenTime(System.currentTimeMillis());
+                var partialTask = task;
+                diffFuture = updateUI(chatResult, false).thenRun(() -> {
+                    if (partialTask.getFirstTokenTime() == -1) {
+                        partialTask.setFirstTokenTime(System.currentTimeMillis());
                     }
                 });
             } else {
@@ -67,130 +67,181 @@ public final class InlineChatDiffManager {
             }
         } else {
             // Final result - always update UI state regardless of content
-            diffFuture = updateUI(chatResult);
-            diffFuture.thenRun(() -> {
-                task.setLastTokenTime(System.currentTimeMillis());
+            var finalTask = task;
+            diffFuture = updateUI(chatResult, true).thenRun(() -> {
+                finalTask.setLastTokenTime(System.currentTimeMillis());
             });
-            task.setTextDiffs(currentDiffs);
         }
         return diffFuture;
     }
 
-    private CompletableFuture<Void> updateUI(final InlineChatResult chatResult) throws Exception {
+    /*
+     * Builds the render plan of a result off the UI thread, then applies it on the
+     * UI thread. Plans are built one at a time in the order results arrive, and a
+     * partial result still waiting when a newer one arrives is dropped, since the
+     * newer one renders everything it would have. The returned future completes
+     * once the result is shown, or dropped.
+     */
+    private CompletableFuture<Void> updateUI(final InlineChatResult chatResult, final boolean isFinalResult) throws Exception {
         if (!task.isActive()) {
             return CompletableFuture.completedFuture(null);
         }
         CompletableFuture<Void> future = new CompletableFuture<>();
-        Display.getDefault().syncExec(() -> {
-            try {
-                var newCode = unescapeChatResult(chatResult.body());
-                computeDiffAndRenderOnEditor(newCode);
-                future.complete(null);
-            } catch (Exception e) {
-                future.completeExceptionally(e);
+        synchronized (pendingResultLock) {
+            if (pendingResult != null && !pendingResult.isFinalResult()) {
+                pendingResult.future().complete(null);
             }
-        });
+            pendingResult = new PendingResult(task, chatResult.body(), isFinalResult, Display.getDefault(), future);
+        }
+        ThreadingUtils.executeOrderedTask(task, this::buildPendingRenderPlan);
         return future;
     }
 
-    private boolean computeDiffAndRenderOnEditor(final String newCode) throws Exception {
-
-        // Annotation model provides highlighting for the diff additions/deletions
-        IAnnotationModel annotationModel = task.getEditor().getDocumentProvider().getAnnotationModel(task.getEditor().getEditorInput());
-        var document = task.getEditor().getDocumentProvider().getDocument(task.getEditor().getEditorInput());
-
-        // Clear existing diff annotations prior to starting new diff
-        clearDiffAnnotations(annotationModel);
+    private void buildPendingRenderPlan() {
+        PendingResult result;
+        synchronized (pendingResultLock) {
+            result = pendingResult;
+            pendingResult = null;
+        }
+        if (result == null) {
+            // already built along with an earlier request
+            return;
+        }
+        try {
+            if (result.task() != task || !result.task().isActive()) {
+                result.future().complete(null);
+                return;
+            }
+            RenderPlan plan = buildRenderPlan(result);
+            result.display().asyncExec(() -> {
+                try {
+                    if (plan.task() == task && plan.task().isActive()) {
+                        applyRenderPlan(plan);
+                    }
+                    result.future().complete(null);
+                } catch (Exception e) {
+                    result.future().completeExceptionally(e);
+                }
+            });
+        } catch (Exception e) {
+            result.future().completeExceptionally(e);
+        }
+    }
 
-        // Split original and new code into lines for diff comparison
-        String[] originalLines = (task.hasActiveSelection()) ? task.getOriginalCode().lines().toArray(String[]::new) : new String[0];
-        String[] newLines = newCode.lines().toArray(String[]::new);
+    /*
+     * Works out everything a result changes in the editor, without touching the
+     * editor. Plans are applied in the order they are built, so the streaming diff
+     * always matches what the editor will show once the plan is applied.
+     */
+    private RenderPlan buildRenderPlan(final PendingResult result) {
+        var planTask = result.task();
+        var newCode = unescapeChatResult(result.response());
+
+        // The document starts out with the original code, shown as unchanged lines
+        int originalLineCount = -1;
+        var diff = streamingDiff;
+        if (diff == null) {
+            diff = new InlineChatStreamingDiff((planTask.hasActiveSelection()) ? planTask.getOriginalCode() : "");
+            streamingDiff = diff;
+            originalLineCount = diff.getRenderedLines().size();
+        }
 
-        // Diff generation --> returns Patch object which contains deltas for each line
-        Patch<String> patch = DiffUtils.diff(Arrays.asList(originalLines), Arrays.asList(newLines));
+        // Only the lines after the last stable line are diffed again, and only the range that changed is updated
+        InlineChatStreamingDiff.Update update = diff.update(newCode);
 
-        StringBuilder resultText = new StringBuilder();
-        currentDiffs.clear(); // Clear previous diffs
-        int currentPos = 0;
-        int currentLine = 0;
-        int deletedLines = 0;
-        int insertedLines = 0;
+        // Annotation position of each line shown in the changed range, or null for unchanged lines
+        List<TextDiff> annotationPositions = new ArrayList<>(update.insertedLines().size());
+        int lineOffset = planTask.getSelectionOffset() + update.lineOffset();
+        for (InlineChatStreamingDiff.RenderedLine line : update.insertedLines()) {
+            annotationPositions.add(line.type() == InlineChatStreamingDiff.LineType.UNCHANGED ? null
+                    : new TextDiff(lineOffset, line.text().length(), line.type() == InlineChatStreamingDiff.LineType.DELETED));
+            lineOffset += line.text().length() + 1;
+        }
 
-        for (AbstractDelta<String> delta : patch.getDeltas()) {
+        return new RenderPlan(planTask, newCode, originalLineCount, update, Collections.unmodifiableList(annotationPositions),
+                result.isFinalResult() ? collectTextDiffs(diff, planTask.getSelectionOffset()) : List.of(),
+                diff.getDisplayLength(), diff.getDeletedLineCount(), diff.getAddedLineCount(),
+                result.isFinalResult());
+    }
 
-            // Count deletion and addition lines for telemetry
-            if (delta.getType() == DeltaType.DELETE || delta.getType() == DeltaType.CHANGE) {
-                deletedLines += delta.getSource().getLines().size();
-            }
-            if (delta.getType() == DeltaType.INSERT || delta.getType() == DeltaType.CHANGE) {
-                insertedLines += delta.getTarget().getLines().size();
-            }
+    private void applyRenderPlan(final RenderPlan plan) throws Exception {
 
-            // Continuously copy unchanged lines until we hit a diff
-            while (currentLine < delta.getSource().getPosition()) {
-                resultText.append(originalLines[currentLine]).append("\n");
-                currentPos += originalLines[currentLine].length() + 1;
-                currentLine++;
-            }
+        // Annotation model provides highlighting for the diff additions/deletions
+        IAnnotationModel annotationModel = task.getEditor().getDocumentProvider().getAnnotationModel(task.getEditor().getEditorInput());
+        var document = task.getEditor().getDocumentProvider().getDocument(task.getEditor().getEditorInput());
 
-            List<String> originalChangedLines = delta.getSource().getLines();
-            List<String> newChangedLines = delta.getTarget().getLines();
+        if (plan.originalLineCount() >= 0) {
+            diffAnnotations.reset(plan.originalLineCount());
+        }
 
-            // Handle deleted lines and mark position
-            for (String line : originalChangedLines) {
-                resultText.append(line).append("\n");
-                currentDiffs.add(new TextDiff(task.getSelectionOffset() + currentPos, line.length(), true));
-                currentPos += line.length() + 1;
+        InlineChatStreamingDiff.Update update = plan.update();
+        if (!update.isEmpty()) {
+            // Apply new diff text in a rewrite session, so listeners of the document catch up once
+            DocumentRewriteSession rewriteSession = null;
+            if (document instanceof IDocumentExtension4) {
+                rewriteSession = ((IDocumentExtension4) document).startRewriteSession(DocumentRewriteSessionType.UNRESTRICTED_SMALL);
             }
-
-            // Handle added lines and mark position
-            for (String line : newChangedLines) {
-                resultText.append(line).append("\n");
-                currentDiffs.add(new TextDiff(task.getSelectionOffset() + currentPos, line.length(), false));
-                currentPos += line.length() + 1;
+            try {
+                document.replace(task.getSelectionOffset() + update.displayOffset(), update.displayRemovedLength(),
+                        update.displayText());
+            } finally {
+                if (rewriteSession != null) {
+                    ((IDocumentExtension4) document).stopRewriteSession(rewriteSession);
+                }
             }
 
-            currentLine = delta.getSource().getPosition() + delta.getSource().size();
-        }
-        // Loop through remaining unchanged lines
-        while (currentLine < originalLines.length) {
-            resultText.append(originalLines[currentLine]).append("\n");
-            currentPos += originalLines[currentLine].length() + 1;
-            currentLine++;
+            // Swap the annotations of the changed lines in one go after text modifications are complete
+            diffAnnotations.replaceLines(annotationModel, update.startLine(), update.removedLineCount(),
+                    plan.annotationPositions(), annotationAdded, annotationDeleted);
         }
 
-        var originalEndsInNewLine = task.getOriginalCode().endsWith("\n");
-        var diffEndsInNewLine = resultText.length() > 0 && resultText.charAt(resultText.length() - 1) == '\n';
-
-        if (!originalEndsInNewLine && diffEndsInNewLine) {
-            resultText.setLength(resultText.length() - 1);
+        if (plan.isFinalResult()) {
+            currentDiffs.clear();
+            currentDiffs.addAll(plan.textDiffs());
+            task.setTextDiffs(currentDiffs);
         }
-        final String finalText = resultText.toString();
-
-        // Clear existing annotations in the affected range
-        clearAnnotationsInRange(annotationModel, task.getSelectionOffset(), task.getSelectionOffset() + task.getOriginalCode().length());
 
-        // Apply new diff text
-        document.replace(task.getSelectionOffset(), task.getPreviousDisplayLength(), finalText);
+        // Store rendered text length for proper clearing next iteration
+        task.setPreviousDisplayLength(plan.displayLength());
+        task.setPreviousPartialResponse(plan.response());
+        task.setNumDeletedLines(plan.deletedLines());
+        task.setNumAddedLines(plan.addedLines());
+    }
 
-        // Add all annotations after text modifications are complete
-        for (TextDiff diff : currentDiffs) {
-            Position position = new Position(diff.offset(), diff.length());
-            String annotationType = diff.isDeletion() ? annotationDeleted : annotationAdded;
-            String annotationText = diff.isDeletion() ? "Deleted Code" : "Added Code";
-            annotationModel.addAnnotation(new Annotation(annotationType, false, annotationText), position);
+    private static List<TextDiff> collectTextDiffs(final InlineChatStreamingDiff diff, final int selectionOffset) {
+        List<TextDiff> textDiffs = new ArrayList<>();
+        int currentPos = selectionOffset;
+        for (InlineChatStreamingDiff.RenderedLine line : diff.getRenderedLines()) {
+            if (line.type() != InlineChatStreamingDiff.LineType.UNCHANGED) {
+                textDiffs.add(new TextDiff(currentPos, line.text().length(),
+                        line.type() == InlineChatStreamingDiff.LineType.DELETED));
+            }
+            currentPos += line.text().length() + 1;
         }
-
-        // Store rendered text length for proper clearing next iteration
-        task.setPreviousDisplayLength(finalText.length());
-        task.setPreviousPartialResponse(newCode);
-        task.setNumDeletedLines(deletedLines);
-        task.setNumAddedLines(insertedLines);
-        return true;
+        return textDiffs;
     }
 
     CompletableFuture<Void> handleDecision(final boolean userAcceptedChanges) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
+        return decideHunks(userAcceptedChanges, annotationModel -> diffAnnotations.getHunks())
+                .thenApply(hasPendingHunks -> null);
+    }
+
+    /*
+     * Accepts or rejects the hunk at the caret, or the next one after it. Completes
+     * with whether any hunks are left to decide on.
+     */
+    CompletableFuture<Boolean> handleHunkDecision(final boolean userAcceptedChanges) {
+        return decideHunks(userAcceptedChanges, annotationModel -> {
+            int caretOffset = task.getEditor().getSelectionProvider().getSelection() instanceof ITextSelection selection
+                    ? selection.getOffset() : 0;
+            var hunk = diffAnnotations.getHunkAt(annotationModel, caretOffset);
+            return hunk == null ? List.of() : List.of(hunk);
+        });
+    }
+
+    private CompletableFuture<Boolean> decideHunks(final boolean userAcceptedChanges,
+            final Function<IAnnotationModel, List<Hunk>> hunksToDecide) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
         var typeToRemove = (userAcceptedChanges) ? annotationDeleted : annotationAdded;
 
         Display.getDefault().syncExec(() -> {
@@ -198,36 +249,26 @@ public final class InlineChatDiffManager {
                 var document = task.getEditor().getDocumentProvider().getDocument(task.getEditor().getEditorInput());
                 final IAnnotationModel annotationModel = task.getEditor().getDocumentProvider().getAnnotationModel(task.getEditor().getEditorInput());
 
-                // Collect lines to remove
-                List<Position> linesToRemove = new ArrayList<>();
-                Iterator<?> annotations = annotationModel.getAnnotationIterator();
-
-                // Iterate over annotations to guarantee editor changes don't cause incorrect
-                // code placement and deletions
-                while (annotations.hasNext()) {
-                    var obj = annotations.next();
-                    if (obj instanceof Annotation) {
-                        Annotation annotation = (Annotation) obj;
-                        Position position = annotationModel.getPosition(annotation);
-                        if (position != null && typeToRemove.equals(annotation.getType())) {
-                            linesToRemove.add(position);
+                // Collect the lines to remove from the positions of the diff annotations, which
+                // have followed any editor changes, into one edit
+                var edit = diffAnnotations.resolve(document, annotationModel, hunksToDecide.apply(annotationModel),
+                        typeToRemove);
+
+                // Remove them all in a single document change
+                if (edit.hasChildren()) {
+                    DocumentRewriteSession rewriteSession = null;
+                    if (document instanceof IDocumentExtension4) {
+                        rewriteSession = ((IDocumentExtension4) document).startRewriteSession(DocumentRewriteSessionType.UNRESTRICTED);
+                    }
+                    try {
+                        edit.apply(document, TextEdit.NONE);
+                    } finally {
+                        if (rewriteSession != null) {
+                            ((IDocumentExtension4) document).stopRewriteSession(rewriteSession);
                         }
                     }
                 }
-
-                // Sort in reverse order to maintain valid offsets when removing
-                linesToRemove.sort((a, b) -> Integer.compare(b.offset, a.offset));
-
-                // Remove the lines
-                for (Position pos : linesToRemove) {
-                    int lineNumber = document.getLineOfOffset(pos.offset);
-                    int lineStart = document.getLineOffset(lineNumber);
-                    int lineLength = document.getLineLength(lineNumber);
-                    document.replace(lineStart, lineLength, "");
-                }
-
-                clearDiffAnnotations(annotationModel);
-                future.complete(null);
+                future.complete(!diffAnnotations.getHunks().isEmpty());
 
             } catch (final Exception e) {
                 String action = userAcceptedChanges ? "Accepting" : "Declining";
@@ -242,7 +283,7 @@ public final class InlineChatDiffManager {
     void restoreState() {
         try {
             final IAnnotationModel annotationModel = task.getEditor().getDocumentProvider().getAnnotationModel(task.getEditor().getEditorInput());
-            clearDiffAnnotations(annotationModel);
+            diffAnnotations.clear(annotationModel);
         } catch (Exception e) {
             Activator.getLogger().error("Failed to restore state in diff manager: " + e.getMessage(), e);
         }
@@ -251,6 +292,14 @@ public final class InlineChatDiffManager {
 
     void endSession() {
         task = null;
+        streamingDiff = null;
+        diffAnnotations.reset(0);
+        synchronized (pendingResultLock) {
+            if (pendingResult != null) {
+                pendingResult.future().complete(null);
+                pendingResult = null;
+            }
+        }
     }
 
     private void setColorPalette(final boolean isDark) {
@@ -262,28 +311,6 @@ public final class InlineChatDiffManager {
         }
     }
 
-    private void clearDiffAnnotations(final IAnnotationModel annotationModel) {
-        var annotations = annotationModel.getAnnotationIterator();
-        while (annotations.hasNext()) {
-            var annotation = annotations.next();
-            String type = annotation.getType();
-            if (type.startsWith("diffAnnotation.")) {
-                annotationModel.removeAnnotation(annotation);
-            }
-        }
-    }
-
-    private void clearAnnotationsInRange(final IAnnotationModel model, final int start, final int end) {
-        Iterator<Annotation> iterator = model.getAnnotationIterator();
-        while (iterator.hasNext()) {
-            Annotation annotation = iterator.next();
-            Position position = model.getPosition(annotation);
-            if (position != null && position.offset >= start && position.offset + position.length <= end) {
-                model.removeAnnotation(annotation);
-            }
-        }
-    }
-
     private String unescapeChatResult(final String s) {
         if (s == null || s.isEmpty()) {
             return s;
@@ -291,4 +318,18 @@ public final class InlineChatDiffManager {
 
         return StringEscapeUtils.unescapeHtml4(s);
     }
+
+    private record PendingResult(InlineChatTask task, String response, boolean isFinalResult, Display display,
+            CompletableFuture<Void> future) {
+    }
+
+    /*
+     * Everything one result changes in the editor: the text replacing the range of
+     * lines that changed, and the annotations of the lines in that range.
+     * originalLineCount is only set on the first plan of a task.
+     */
+    private record RenderPlan(InlineChatTask task, String response, int originalLineCount,
+            InlineChatStreamingDiff.Update update, List<TextDiff> annotationPositions, List<TextDiff> textDiffs,
+            int displayLength, int deletedLines, int addedLines, boolean isFinalResult) {
+    }
 }
@@ -45,7 +45,7 @@ public final class InlineChatEditorListener extends FoldingListener implements I
         // Prevent instantiation
         this.themeDetector = new ThemeDetector();
         this.isDarkTheme = themeDetector.isDarkTheme();
-        this.uiManager = InlineChatUIManager.getInstance();
+        this.uiManager = new InlineChatUIManager();
         this.inlineChatHint = (PluginUtils.getPlatform() == PluginPlatform.MAC) ? "Amazon Q: ⌘ + SHIFT + I" : "Amazon Q: CTRL + SHIFT + I";
 
     }
@@ -146,7 +146,7 @@ public final class InlineChatEditorListener extends FoldingListener implements I
             if (!Activator.getLoginService().getAuthState().isLoggedIn()) {
                 return;
             }
-            if (InlineChatSession.getInstance().isSessionActive()) {
+            if (InlineChatSession.getSession(editor).isSessionActive()) {
                 return;
             }
             // Cancel any pending prompt updates
@@ -6,6 +6,7 @@ package software.aws.toolkits.eclipse.amazonq.inlineChat;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.jface.text.IDocument;
@@ -16,6 +17,7 @@ import org.eclipse.jface.text.ITextViewerExtension;
 import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.source.IAnnotationModel;
 import org.eclipse.jface.text.source.projection.ProjectionAnnotationModel;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.swt.custom.VerifyKeyListener;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.text.undo.DocumentUndoEvent;
@@ -49,16 +51,23 @@ import software.aws.toolkits.eclipse.amazonq.util.QEclipseEditorUtils;
 import software.aws.toolkits.eclipse.amazonq.util.ThemeDetector;
 import software.aws.toolkits.eclipse.amazonq.views.ChatUiRequestListener;
 
+/**
+ * An inline chat session in one editor. Sessions are kept per editor by the
+ * {@link InlineChatSessionRegistry}, and each sends its prompt under its own tab
+ * id, so sessions in different editors generate and are decided on in parallel.
+ */
 public final class InlineChatSession extends FoldingListener implements ChatUiRequestListener, IPartListener2 {
 
     // Session state variables
-    private static InlineChatSession instance;
+    // a new tab id for every run, so results of a request the previous run left in flight are never shown
+    private volatile String tabId;
     private SessionState currentState = SessionState.INACTIVE;
     private final Object stateLock = new Object();
     private InlineChatTask task;
     private boolean referencesEnabled;
     private IWorkbenchPage workbenchPage;
     private ProjectionAnnotationModel projectionModel;
+    private boolean acceptedAnyHunk;
 
     // Dependencies
     private final InlineChatUIManager uiManager;
@@ -79,23 +88,20 @@ public final class InlineChatSession extends FoldingListener implements ChatUiRe
     private IContextActivation contextActivation;
     private final int aboutToUndo = 17; // 17 maps to this event type
 
-    private InlineChatSession() {
+    InlineChatSession() {
         chatCommunicationManager = ChatCommunicationManager.getInstance();
-        chatCommunicationManager.setInlineChatRequestListener(this);
-        uiManager = InlineChatUIManager.getInstance();
-        diffManager = InlineChatDiffManager.getInstance();
+        uiManager = new InlineChatUIManager();
+        diffManager = new InlineChatDiffManager();
         themeDetector = new ThemeDetector();
         contextService = PlatformUI.getWorkbench().getService(IContextService.class);
     }
 
-    public static synchronized InlineChatSession getInstance() {
-        if (instance == null) {
-            instance = new InlineChatSession();
-        }
-        return instance;
+    // Returns the session of the given editor, which is inactive unless inline chat was started in it
+    public static InlineChatSession getSession(final ITextEditor editor) {
+        return InlineChatSessionRegistry.getInstance().getSession(editor);
     }
 
-    public boolean startSession(final ITextEditor editor) {
+    public synchronized boolean startSession(final ITextEditor editor) {
         if (isSessionActive()) {
             return false;
         }
@@ -105,11 +111,14 @@ public final class InlineChatSession extends FoldingListener implements ChatUiRe
         try {
             InlineChatEditorListener.getInstance().closePrompt();
 
-            this.document = editor.getDocumentProvider().getDocument(editor.getEditorInput());
-            if (this.document == null) {
+            var editorDocument = editor.getDocumentProvider().getDocument(editor.getEditorInput());
+            if (editorDocument == null || InlineChatSessionRegistry.getInstance().isDocumentInSession(editorDocument, this)) {
                 return false;
             }
+            this.document = editorDocument;
             setState(SessionState.ACTIVE);
+            tabId = ChatCommunicationManager.INLINE_CHAT_TAB_ID_PREFIX + UUID.randomUUID();
+            chatCommunicationManager.setInlineChatRequestListener(tabId, this);
             // Get the context service and activate inline chat context used for button
             contextActivation = contextService.activateContext(Constants.INLINE_CHAT_CONTEXT_ID);
 
@@ -229,14 +238,35 @@ public final class InlineChatSession extends FoldingListener implements ChatUiRe
         });
     }
 
+    // Registered to accept and decline hunk handler in plugin.xml
+    public void handleHunkDecision(final boolean userAcceptedChanges) throws Exception {
+        diffManager.handleHunkDecision(userAcceptedChanges).thenAccept(hasPendingHunks -> {
+            acceptedAnyHunk |= userAcceptedChanges;
+            if (!hasPendingHunks) {
+                // the last hunk was decided on, which ends the session as a decision on the whole diff does
+                uiManager.closePrompt();
+                undoManager.endCompoundChange();
+                task.setUserDecision(acceptedAnyHunk);
+                endSession();
+            }
+        }).exceptionally(throwable -> {
+            Activator.getLogger().error("Failed to handle decision: " + throwable.getMessage());
+            uiManager.showErrorNotification();
+            restoreAndEndSession();
+            return null;
+        });
+    }
+
     private void sendInlineChatRequest() {
         try {
             var prompt = task.getPrompt();
             var chatPrompt = new ChatPrompt(prompt, prompt, "", Collections.emptyList());
-            params = new InlineChatRequestParams(chatPrompt, null, Arrays.asList(task.getCursorState()));
-            chatCommunicationManager.sendInlineChatMessageToChatServer(new ChatMessage(params));
+            // the file of this session's editor, which need not be the active one by the time the request is sent
+            Optional<String> fileUri = QEclipseEditorUtils.getOpenFileUri(task.getEditor().getEditorInput());
+            var textDocument = fileUri.map(TextDocumentIdentifier::new).orElse(null);
+            params = new InlineChatRequestParams(chatPrompt, textDocument, Arrays.asList(task.getCursorState()));
+            chatCommunicationManager.sendInlineChatMessageToChatServer(tabId, new ChatMessage(params));
 
-            Optional<String> fileUri = QEclipseEditorUtils.getOpenFileUri();
             if (fileUri.isPresent()) {
                 String language = LanguageUtil.extractLanguageFromFileUri(fileUri.get());
                 task.setLanguage(language);
@@ -254,6 +284,7 @@ public final class InlineChatSession extends FoldingListener implements ChatUiRe
             return;
         }
         CompletableFuture<Void> uiThreadFuture = new CompletableFuture<>();
+        chatCommunicationManager.removeListener(this);
         cleanupContext();
 
         Display.getDefault().asyncExec(() -> {
@@ -409,7 +440,12 @@ public final class InlineChatSession extends FoldingListener implements ChatUiRe
         }
     }
 
+    IDocument getDocument() {
+        return document;
+    }
+
     private void cleanupSessionState() {
+        this.acceptedAnyHunk = false;
         this.document = null;
         this.undoManager = null;
         this.undoListener = null;
@@ -541,7 +577,7 @@ public final class InlineChatSession extends FoldingListener implements ChatUiRe
     public void modelChanged(final IAnnotationModel model) {
         if (model instanceof ProjectionAnnotationModel) {
             if (isGenerating() || isDeciding()) {
-                InlineChatUIManager.getInstance().updatePromptPosition(getCurrentState());
+                uiManager.updatePromptPosition(getCurrentState());
             }
         }
     }
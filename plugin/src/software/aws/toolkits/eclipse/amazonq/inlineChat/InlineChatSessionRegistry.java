@@ -0,0 +1,71 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.inlineChat;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.ui.texteditor.ITextEditor;
+
+/**
+ * Keeps one {@link InlineChatSession} per editor, so inline chat can run in
+ * several editors at once. Each session sends its prompts under its own tab id,
+ * so it has its own partial results, diff state, prompt and undo compound, and
+ * sessions never end or block one another.
+ *
+ * Two editors on the same document share its undo history, so only one of them
+ * can have an inline chat session going at a time.
+ */
+public final class InlineChatSessionRegistry {
+    private static final InlineChatSessionRegistry INSTANCE = new InlineChatSessionRegistry();
+
+    private final Map<ITextEditor, InlineChatSession> sessions = new ConcurrentHashMap<>();
+    // stands in for the session of an editor without a text viewer, which inline chat cannot run in
+    private final InlineChatSession detachedSession = new InlineChatSession();
+
+    private InlineChatSessionRegistry() {
+        // singleton
+    }
+
+    public static InlineChatSessionRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /*
+     * Returns the session for the given editor, creating it on first use. The
+     * session is dropped once the editor's text widget is disposed.
+     */
+    public InlineChatSession getSession(final ITextEditor editor) {
+        if (editor == null) {
+            return detachedSession;
+        }
+        ITextViewer viewer = editor.getAdapter(ITextViewer.class);
+        if (viewer == null || viewer.getTextWidget() == null) {
+            return sessions.getOrDefault(editor, detachedSession);
+        }
+        return sessions.computeIfAbsent(editor, key -> {
+            viewer.getTextWidget().addDisposeListener(e -> sessions.remove(key));
+            return new InlineChatSession();
+        });
+    }
+
+    /*
+     * Returns whether a session other than the given one is active on the document.
+     */
+    boolean isDocumentInSession(final IDocument document, final InlineChatSession except) {
+        return sessions.values().stream()
+                .anyMatch(session -> session != except && session.isSessionActive() && session.getDocument() == document);
+    }
+
+    public boolean isAnySessionActive() {
+        return sessions.values().stream().anyMatch(InlineChatSession::isSessionActive);
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+}
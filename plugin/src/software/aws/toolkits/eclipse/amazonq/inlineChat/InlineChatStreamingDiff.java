@@ -0,0 +1,240 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.inlineChat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.Patch;
+
+/**
+ * Diffs the code selected for inline chat against a response that is still
+ * streaming in, as the lines shown in the editor: unchanged lines, deleted
+ * original lines and added response lines.
+ *
+ * Each partial response is only diffed from a checkpoint after the last
+ * unchanged line that was matched to a complete response line, since the
+ * response grows at its end. Everything before the checkpoint is kept as is,
+ * and each update reports the one range of lines that changed, so the editor
+ * only has to replace that range.
+ */
+final class InlineChatStreamingDiff {
+
+    enum LineType {
+        UNCHANGED, DELETED, ADDED
+    }
+
+    record RenderedLine(String text, LineType type) {
+    }
+
+    /*
+     * The lines from startLine on that replaced removedLineCount lines, starting at
+     * lineOffset in the rendered text. The displayed text leaves out the last line
+     * break when the original code has none, so the text to replace is given
+     * separately, as displayOffset, displayRemovedLength and displayText.
+     */
+    record Update(int startLine, int removedLineCount, List<RenderedLine> insertedLines, int lineOffset,
+            int displayOffset, int displayRemovedLength, String displayText) {
+        boolean isEmpty() {
+            return removedLineCount == 0 && insertedLines.isEmpty() && displayRemovedLength == 0 && displayText.isEmpty();
+        }
+    }
+
+    private final List<String> originalLines;
+    private final boolean trimsTrailingLineBreak;
+    private final List<RenderedLine> renderedLines = new ArrayList<>();
+    private int renderedLength = 0;
+
+    // the checkpoint: the lines before it are settled and never diffed again
+    private String stableResponse = "";
+    private int stableResponseLength = 0;
+    private int stableOriginalLines = 0;
+    private int stableRenderedLines = 0;
+    private int stableRenderedLength = 0;
+    private int stableDeletedLines = 0;
+    private int stableAddedLines = 0;
+
+    private int deletedLines = 0;
+    private int addedLines = 0;
+
+    InlineChatStreamingDiff(final String originalCode) {
+        this.originalLines = originalCode.lines().toList();
+        this.trimsTrailingLineBreak = !originalCode.endsWith("\n");
+        for (String line : originalLines) {
+            renderedLines.add(new RenderedLine(line, LineType.UNCHANGED));
+            renderedLength += line.length() + 1;
+        }
+    }
+
+    Update update(final String response) {
+        if (!response.regionMatches(0, stableResponse, 0, stableResponseLength)) {
+            // the response changed before the checkpoint, so it is diffed in full again
+            resetCheckpoint();
+        }
+        String tailResponse = response.substring(stableResponseLength);
+        List<String> tailResponseLines = tailResponse.lines().toList();
+        // the last line may still be growing until it ends in a line break
+        int completeTailLines = tailResponse.isEmpty() || tailResponse.endsWith("\n") ? tailResponseLines.size()
+                : tailResponseLines.size() - 1;
+        List<String> tailOriginalLines = originalLines.subList(stableOriginalLines, originalLines.size());
+
+        Patch<String> patch = DiffUtils.diff(tailOriginalLines, tailResponseLines);
+
+        List<RenderedLine> tail = new ArrayList<>();
+        Checkpoint checkpoint = new Checkpoint(0, 0, 0, 0, 0);
+        int originalLine = 0;
+        int responseLine = 0;
+        int tailDeleted = 0;
+        int tailAdded = 0;
+        for (AbstractDelta<String> delta : patch.getDeltas()) {
+            while (originalLine < delta.getSource().getPosition()) {
+                tail.add(new RenderedLine(tailOriginalLines.get(originalLine++), LineType.UNCHANGED));
+                if (++responseLine <= completeTailLines) {
+                    checkpoint = new Checkpoint(originalLine, responseLine, tail.size(), tailDeleted, tailAdded);
+                }
+            }
+            for (String line : delta.getSource().getLines()) {
+                tail.add(new RenderedLine(line, LineType.DELETED));
+                tailDeleted++;
+            }
+            for (String line : delta.getTarget().getLines()) {
+                tail.add(new RenderedLine(line, LineType.ADDED));
+                tailAdded++;
+            }
+            originalLine = delta.getSource().getPosition() + delta.getSource().size();
+            responseLine = delta.getTarget().getPosition() + delta.getTarget().size();
+        }
+        while (originalLine < tailOriginalLines.size()) {
+            tail.add(new RenderedLine(tailOriginalLines.get(originalLine++), LineType.UNCHANGED));
+            if (++responseLine <= completeTailLines) {
+                checkpoint = new Checkpoint(originalLine, responseLine, tail.size(), tailDeleted, tailAdded);
+            }
+        }
+
+        deletedLines = stableDeletedLines + tailDeleted;
+        addedLines = stableAddedLines + tailAdded;
+        Update update = replaceTail(tail);
+        advanceCheckpoint(response, tailResponse, tail, checkpoint);
+        return update;
+    }
+
+    /*
+     * Replaces the rendered lines after the checkpoint with the given ones, leaving
+     * alone the lines the two have in common at either end.
+     */
+    private Update replaceTail(final List<RenderedLine> tail) {
+        int oldEnd = renderedLines.size();
+        int commonPrefix = 0;
+        int lineOffset = stableRenderedLength;
+        while (stableRenderedLines + commonPrefix < oldEnd && commonPrefix < tail.size()
+                && renderedLines.get(stableRenderedLines + commonPrefix).equals(tail.get(commonPrefix))) {
+            lineOffset += tail.get(commonPrefix).text().length() + 1;
+            commonPrefix++;
+        }
+        int startLine = stableRenderedLines + commonPrefix;
+        int commonSuffix = 0;
+        while (oldEnd - commonSuffix > startLine && tail.size() - commonSuffix > commonPrefix
+                && renderedLines.get(oldEnd - 1 - commonSuffix).equals(tail.get(tail.size() - 1 - commonSuffix))) {
+            commonSuffix++;
+        }
+
+        List<RenderedLine> removed = renderedLines.subList(startLine, oldEnd - commonSuffix);
+        List<RenderedLine> inserted = new ArrayList<>(tail.subList(commonPrefix, tail.size() - commonSuffix));
+        int removedLineCount = removed.size();
+        int removedLength = lengthOf(removed);
+        StringBuilder insertedText = new StringBuilder();
+        for (RenderedLine line : inserted) {
+            insertedText.append(line.text()).append("\n");
+        }
+
+        int oldRenderedLength = renderedLength;
+        boolean wasEmpty = renderedLines.isEmpty();
+        removed.clear();
+        renderedLines.addAll(startLine, inserted);
+        renderedLength += insertedText.length() - removedLength;
+
+        int displayOffset = lineOffset;
+        int displayRemovedLength = removedLength;
+        String displayText = insertedText.toString();
+        if (trimsTrailingLineBreak && commonSuffix == 0) {
+            // the change runs to the end of the text, whose last line break is not shown
+            int oldDisplayLength = oldRenderedLength - (wasEmpty ? 0 : 1);
+            int newDisplayLength = renderedLength - (renderedLines.isEmpty() ? 0 : 1);
+            displayOffset = Math.min(lineOffset, Math.min(oldDisplayLength, newDisplayLength));
+            displayRemovedLength = oldDisplayLength - displayOffset;
+            displayText = ("\n".repeat(lineOffset - displayOffset) + displayText).substring(0,
+                    newDisplayLength - displayOffset);
+        }
+        return new Update(startLine, removedLineCount, Collections.unmodifiableList(inserted), lineOffset, displayOffset,
+                displayRemovedLength, displayText);
+    }
+
+    private void advanceCheckpoint(final String response, final String tailResponse, final List<RenderedLine> tail,
+            final Checkpoint checkpoint) {
+        stableResponse = response;
+        stableResponseLength += lengthOfLines(tailResponse, checkpoint.responseLines());
+        stableOriginalLines += checkpoint.originalLines();
+        stableRenderedLength += lengthOf(tail.subList(0, checkpoint.renderedLines()));
+        stableRenderedLines += checkpoint.renderedLines();
+        stableDeletedLines += checkpoint.deletedLines();
+        stableAddedLines += checkpoint.addedLines();
+    }
+
+    private void resetCheckpoint() {
+        stableResponse = "";
+        stableResponseLength = 0;
+        stableOriginalLines = 0;
+        stableRenderedLines = 0;
+        stableRenderedLength = 0;
+        stableDeletedLines = 0;
+        stableAddedLines = 0;
+    }
+
+    List<RenderedLine> getRenderedLines() {
+        return Collections.unmodifiableList(renderedLines);
+    }
+
+    int getDisplayLength() {
+        return renderedLength - (trimsTrailingLineBreak && !renderedLines.isEmpty() ? 1 : 0);
+    }
+
+    int getDeletedLineCount() {
+        return deletedLines;
+    }
+
+    int getAddedLineCount() {
+        return addedLines;
+    }
+
+    private static int lengthOf(final List<RenderedLine> lines) {
+        int length = 0;
+        for (RenderedLine line : lines) {
+            length += line.text().length() + 1;
+        }
+        return length;
+    }
+
+    /*
+     * Returns the length of the first lines of the text, including their line
+     * breaks, which are any of the ones String.lines splits at.
+     */
+    private static int lengthOfLines(final String text, final int lineCount) {
+        int offset = 0;
+        for (int i = 0; i < lineCount; i++) {
+            while (text.charAt(offset) != '\n' && text.charAt(offset) != '\r') {
+                offset++;
+            }
+            offset += text.startsWith("\r\n", offset) ? 2 : 1;
+        }
+        return offset;
+    }
+
+    private record Checkpoint(int originalLines, int responseLines, int renderedLines, int deletedLines,
+            int addedLines) {
+    }
+
+}
@@ -40,7 +40,6 @@ import software.aws.toolkits.eclipse.amazonq.util.ToolkitNotification;
 public final class InlineChatUIManager {
 
     // State variables
-    private static InlineChatUIManager instance;
     private InlineChatTask task;
 
     // UI elements
@@ -55,15 +54,8 @@ public final class InlineChatUIManager {
     private int latestOffset;
     private Listener paintListenerRef = null;
 
-    private InlineChatUIManager() {
-        // Prevent instantiation
-    }
-
-    public static InlineChatUIManager getInstance() {
-        if (instance == null) {
-            instance = new InlineChatUIManager();
-        }
-        return instance;
+    // each inline chat session has its own UI manager, as does the editor listener for its hint
+    InlineChatUIManager() {
     }
 
     public void initNewTask(final InlineChatTask task, final boolean isDarkTheme) {
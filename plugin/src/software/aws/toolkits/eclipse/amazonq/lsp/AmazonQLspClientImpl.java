@@ -164,15 +164,12 @@ public class AmazonQLspClientImpl extends LanguageClientImpl implements AmazonQL
      */
     @Override
     public final void notifyProgress(final ProgressParams params) {
-        var chatCommunicationManager = ChatCommunicationManager.getInstance();
-
-        ThreadingUtils.executeAsyncTask(() -> {
-            try {
-                chatCommunicationManager.handlePartialResultProgressNotification(params);
-            } catch (Exception e) {
-                Activator.getLogger().error("Error processing partial result progress notification", e);
-            }
-        });
+        // only parks the encrypted payload; decryption and delivery run on the chat tab's own executor
+        try {
+            ChatCommunicationManager.getInstance().handlePartialResultProgressNotification(params);
+        } catch (Exception e) {
+            Activator.getLogger().error("Error processing partial result progress notification", e);
+        }
     }
 
     @Override
@@ -273,21 +270,17 @@ public class AmazonQLspClientImpl extends LanguageClientImpl implements AmazonQL
 
     @Override
     public final CompletableFuture<Object> openTab(final Object params) {
-        return CompletableFuture.supplyAsync(() -> {
-            String requestId = UUID.randomUUID().toString();
-            var command = ChatUIInboundCommand.createCommand("aws/chat/openTab", params, requestId);
-            Activator.getEventBroker().post(ChatUIInboundCommand.class, command);
-            ChatAsyncResultManager manager = ChatAsyncResultManager.getInstance();
-            manager.createRequestId(requestId);
-            OpenTabUiResponse response;
-            try {
-                Object res = ChatAsyncResultManager.getInstance().getResult(requestId);
-                response = ObjectMapperFactory.getInstance().convertValue(res, OpenTabUiResponse.class);
-            } catch (Exception e) {
-                throw new IllegalStateException("Failed to retrieve new tab response from chat UI", e);
-            } finally {
-                manager.removeRequestId(requestId);
+        String requestId = UUID.randomUUID().toString();
+        var command = ChatUIInboundCommand.createCommand("aws/chat/openTab", params, requestId);
+        ChatAsyncResultManager manager = ChatAsyncResultManager.getInstance();
+        manager.createRequestId(requestId);
+        Activator.getEventBroker().post(ChatUIInboundCommand.class, command);
+        return manager.getResultAsync(requestId).handle((res, exception) -> {
+            manager.removeRequestId(requestId);
+            if (exception != null) {
+                throw new IllegalStateException("Failed to retrieve new tab response from chat UI", exception);
             }
+            OpenTabUiResponse response = ObjectMapperFactory.getInstance().convertValue(res, OpenTabUiResponse.class);
             if (response.result() == null) {
                 Activator.getLogger().warn("Got null tab response from UI");
                 return null;
@@ -331,23 +324,18 @@ public class AmazonQLspClientImpl extends LanguageClientImpl implements AmazonQL
 
     @Override
     public final CompletableFuture<SerializedChatResult> getSerializedChat(final GetSerializedChatParams params) {
-        return CompletableFuture.supplyAsync(() -> {
-            String requestId = UUID.randomUUID().toString();
-            var command = ChatUIInboundCommand.createCommand("aws/chat/getSerializedChat", params, requestId);
-            ChatAsyncResultManager manager = ChatAsyncResultManager.getInstance();
-            manager.createRequestId(requestId);
-            Activator.getEventBroker().post(ChatUIInboundCommand.class, command);
-            SerializedChatResult result;
-            try {
-                Object res = ChatAsyncResultManager.getInstance().getResult(requestId);
-                GetSerializedChatResult serializedChatResult = ObjectMapperFactory.getInstance().convertValue(res, GetSerializedChatResult.class);
-                result = serializedChatResult.result();
-            } catch (Exception e) {
-                throw new IllegalStateException("Failed to retrieve serialized chat from chat UI", e);
-            } finally {
-                manager.removeRequestId(requestId);
+        String requestId = UUID.randomUUID().toString();
+        var command = ChatUIInboundCommand.createCommand("aws/chat/getSerializedChat", params, requestId);
+        ChatAsyncResultManager manager = ChatAsyncResultManager.getInstance();
+        manager.createRequestId(requestId);
+        Activator.getEventBroker().post(ChatUIInboundCommand.class, command);
+        return manager.getResultAsync(requestId).handle((res, exception) -> {
+            manager.removeRequestId(requestId);
+            if (exception != null) {
+                throw new IllegalStateException("Failed to retrieve serialized chat from chat UI", exception);
             }
-            return result;
+            GetSerializedChatResult serializedChatResult = ObjectMapperFactory.getInstance().convertValue(res, GetSerializedChatResult.class);
+            return serializedChatResult.result();
         });
     }
 
@@ -11,7 +11,7 @@ public final class DefaultLspEncryptionManager implements LspEncryptionManager {
 
     private static DefaultLspEncryptionManager instance;
     private final LspEncryptionKey lspEncryptionKey;
-
+    private volatile LspEncryptionContext encryptionContext;
 
     private DefaultLspEncryptionManager(final Builder builder) {
         lspEncryptionKey = builder.lspEncryptionKey != null ? builder.lspEncryptionKey : new LspEncryptionKey();
@@ -34,12 +34,30 @@ public final class DefaultLspEncryptionManager implements LspEncryptionManager {
 
     @Override
     public String encrypt(final Object data) {
-        return LspJsonWebToken.encrypt(lspEncryptionKey.getKey(), data);
+        return getEncryptionContext().encrypt(data);
     }
 
     @Override
     public String decrypt(final String jwt) {
-        return LspJsonWebToken.decrypt(lspEncryptionKey.getKey(), jwt);
+        return getEncryptionContext().decrypt(jwt);
+    }
+
+    /*
+     * The key is fixed for the lifetime of the manager, so the cipher context is
+     * built once on first use and shared by all threads.
+     */
+    private LspEncryptionContext getEncryptionContext() {
+        LspEncryptionContext context = encryptionContext;
+        if (context == null) {
+            synchronized (this) {
+                context = encryptionContext;
+                if (context == null) {
+                    context = new LspEncryptionContext(lspEncryptionKey.getKey());
+                    encryptionContext = context;
+                }
+            }
+        }
+        return context;
     }
 
     /*
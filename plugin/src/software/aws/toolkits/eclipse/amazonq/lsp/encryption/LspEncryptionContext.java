@@ -0,0 +1,167 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.lsp.encryption;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.crypto.DirectDecrypter;
+import com.nimbusds.jose.util.Base64URL;
+
+import software.aws.toolkits.eclipse.amazonq.exception.AmazonQPluginException;
+import software.aws.toolkits.eclipse.amazonq.util.ObjectMapperFactory;
+
+/**
+ * Reusable, thread-safe context for the direct AES-256-GCM JWE messages exchanged
+ * with the Amazon Q LSP server. The protected header, key spec and a per-thread
+ * {@link Cipher} are created once, and compact serializations are split and
+ * decoded directly instead of going through a full JOSE object parse. Tokens
+ * using any other header fall back to the Nimbus implementation.
+ */
+public final class LspEncryptionContext {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int KEY_LENGTH_BYTES = 32;
+    private static final int IV_LENGTH_BYTES = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final int TAG_LENGTH_BYTES = TAG_LENGTH_BITS / 8;
+
+    private static final String PROTECTED_HEADER = new JWEHeader(JWEAlgorithm.DIR, EncryptionMethod.A256GCM)
+            .toBase64URL().toString();
+    private static final byte[] PROTECTED_HEADER_AAD = PROTECTED_HEADER.getBytes(StandardCharsets.US_ASCII);
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new AmazonQPluginException("AES-GCM is not available", e);
+        }
+    });
+
+    private final SecretKey encryptionKey;
+    private final SecretKeySpec keySpec;
+    private final ObjectMapper objectMapper;
+    private volatile String lastVerifiedHeader = PROTECTED_HEADER;
+
+    public LspEncryptionContext(final SecretKey encryptionKey) {
+        this.encryptionKey = encryptionKey;
+        byte[] encoded = encryptionKey.getEncoded();
+        this.keySpec = encoded != null && encoded.length == KEY_LENGTH_BYTES ? new SecretKeySpec(encoded, "AES") : null;
+        this.objectMapper = ObjectMapperFactory.getInstance();
+    }
+
+    public String encrypt(final Object data) {
+        try {
+            byte[] plaintext = objectMapper.writeValueAsBytes(data);
+            byte[] iv = new byte[IV_LENGTH_BYTES];
+            RANDOM.nextBytes(iv);
+
+            Cipher cipher = CIPHER.get();
+            cipher.init(Cipher.ENCRYPT_MODE, requireKey(), new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            cipher.updateAAD(PROTECTED_HEADER_AAD);
+            byte[] output = cipher.doFinal(plaintext);
+            int cipherTextLength = output.length - TAG_LENGTH_BYTES;
+
+            // header . (empty encrypted key for "dir") . iv . ciphertext . tag
+            return new StringBuilder(PROTECTED_HEADER.length() + output.length * 4 / 3 + 32)
+                    .append(PROTECTED_HEADER).append("..")
+                    .append(ENCODER.encodeToString(iv)).append('.')
+                    .append(ENCODER.encodeToString(Arrays.copyOf(output, cipherTextLength))).append('.')
+                    .append(ENCODER.encodeToString(Arrays.copyOfRange(output, cipherTextLength, output.length)))
+                    .toString();
+        } catch (AmazonQPluginException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AmazonQPluginException("Error occurred while encrypting JWT", e);
+        }
+    }
+
+    public String decrypt(final String jwt) {
+        return new String(decryptToBytes(jwt), StandardCharsets.UTF_8);
+    }
+
+    private byte[] decryptToBytes(final String jwt) {
+        try {
+            int headerEnd = jwt.indexOf('.');
+            int keyEnd = headerEnd < 0 ? -1 : jwt.indexOf('.', headerEnd + 1);
+            int ivEnd = keyEnd < 0 ? -1 : jwt.indexOf('.', keyEnd + 1);
+            int cipherTextEnd = ivEnd < 0 ? -1 : jwt.indexOf('.', ivEnd + 1);
+            if (cipherTextEnd < 0 || jwt.indexOf('.', cipherTextEnd + 1) >= 0) {
+                throw new IllegalArgumentException("Expected a JWE compact serialization with five parts");
+            }
+
+            String header = jwt.substring(0, headerEnd);
+            if (keyEnd != headerEnd + 1 || !isSupportedHeader(header)) {
+                return decryptWithJose(jwt);
+            }
+
+            byte[] iv = DECODER.decode(jwt.substring(keyEnd + 1, ivEnd));
+            byte[] cipherText = DECODER.decode(jwt.substring(ivEnd + 1, cipherTextEnd));
+            byte[] tag = DECODER.decode(jwt.substring(cipherTextEnd + 1));
+            if (tag.length != TAG_LENGTH_BYTES) {
+                throw new IllegalArgumentException("Unexpected authentication tag length");
+            }
+
+            Cipher cipher = CIPHER.get();
+            cipher.init(Cipher.DECRYPT_MODE, requireKey(), new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            cipher.updateAAD(header.getBytes(StandardCharsets.US_ASCII));
+            byte[] input = Arrays.copyOf(cipherText, cipherText.length + TAG_LENGTH_BYTES);
+            System.arraycopy(tag, 0, input, cipherText.length, TAG_LENGTH_BYTES);
+            return cipher.doFinal(input);
+        } catch (AmazonQPluginException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AmazonQPluginException("Error occurred while decrypting JWT", e);
+        }
+    }
+
+    /*
+     * The server always sends the same protected header, so it is only parsed the
+     * first time it is seen.
+     */
+    private boolean isSupportedHeader(final String header) throws Exception {
+        if (header.equals(lastVerifiedHeader)) {
+            return true;
+        }
+        JWEHeader parsed = JWEHeader.parse(new Base64URL(header));
+        boolean supported = JWEAlgorithm.DIR.equals(parsed.getAlgorithm())
+                && EncryptionMethod.A256GCM.equals(parsed.getEncryptionMethod())
+                && parsed.getCompressionAlgorithm() == null;
+        if (supported) {
+            lastVerifiedHeader = header;
+        }
+        return supported;
+    }
+
+    private byte[] decryptWithJose(final String jwt) throws Exception {
+        JWEObject jweObject = JWEObject.parse(jwt);
+        jweObject.decrypt(new DirectDecrypter(encryptionKey));
+        return jweObject.getPayload().toBytes();
+    }
+
+    private SecretKeySpec requireKey() {
+        if (keySpec == null) {
+            throw new AmazonQPluginException("LSP encryption key must be 256 bits");
+        }
+        return keySpec;
+    }
+
+}
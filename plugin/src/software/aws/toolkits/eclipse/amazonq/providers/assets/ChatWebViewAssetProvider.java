@@ -192,6 +192,7 @@ public final class ChatWebViewAssetProvider extends WebViewAssetProvider {
         return String.format("""
                 <script type="text/javascript" charset="UTF-8" src="%s" defer></script>
                 <script type="text/javascript">
+                    %s
                     %s
                     const init = () => {
                         waitForFunction('ideCommand')
@@ -221,10 +222,45 @@ public final class ChatWebViewAssetProvider extends WebViewAssetProvider {
                     window.addEventListener('load', init);
                     %s
                 </script>
-                """, jsEntrypoint, getWaitFunction(), "true".equals(disclaimerAcknowledged), "true".equals(pairProgrammingAcknowledged),
+                """, jsEntrypoint, getWaitFunction(), getDeltaReassemblyFunction(),
+                "true".equals(disclaimerAcknowledged), "true".equals(pairProgrammingAcknowledged),
                 getInputFunctions());
     }
 
+    /**
+     * Defines the delivery function used by the host for every batch of messages.
+     * Streamed partial results may carry a body delta (prefix length and new tail)
+     * instead of the full body; the full body is rebuilt here from the last body
+     * seen for the tab before the message is posted to the chat UI.
+     */
+    private String getDeltaReassemblyFunction() {
+        return """
+                const streamedBodies = {};
+                window.amazonQChatDeliver = (messages) => {
+                    messages.forEach(message => {
+                        const params = message.params;
+                        if (message.tabId && params && typeof params === 'object') {
+                            const previous = streamedBodies[message.tabId];
+                            if (params.bodyDelta) {
+                                if (!previous || previous.messageId !== params.messageId) {
+                                    // base body is unknown; the next full body or final result restores the message
+                                    return;
+                                }
+                                params.body = previous.body.substring(0, params.bodyDelta.offset) + params.bodyDelta.text;
+                                delete params.bodyDelta;
+                            }
+                            if (typeof params.body === 'string' && message.isPartialResult) {
+                                streamedBodies[message.tabId] = { messageId: params.messageId, body: params.body };
+                            } else if (!message.isPartialResult) {
+                                delete streamedBodies[message.tabId];
+                            }
+                        }
+                        window.postMessage(message);
+                    });
+                };
+                """;
+    }
+
     @SuppressWarnings("MethodLength")
     private String getInputFunctions() {
         return """
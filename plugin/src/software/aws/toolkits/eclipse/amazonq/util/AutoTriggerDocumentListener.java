@@ -12,6 +12,7 @@ import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocumentListener;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.commands.ICommandService;
+import org.eclipse.ui.texteditor.ITextEditor;
 
 import software.aws.toolkits.eclipse.amazonq.editor.InMemoryInput;
 import software.aws.toolkits.eclipse.amazonq.inlineChat.InlineChatSession;
@@ -21,9 +22,15 @@ public final class AutoTriggerDocumentListener implements IDocumentListener, IAu
     private static final String UNDO_COMMAND_ID = "org.eclipse.ui.edit.undo";
 
     private final ThreadLocal<Boolean> isChangeInducedByUndo = ThreadLocal.withInitial(() -> false);
+    private final InlineCompletionTriggerScheduler triggerScheduler;
     private IExecutionListener commandListener;
 
     public AutoTriggerDocumentListener() {
+        this(new InlineCompletionTriggerScheduler());
+    }
+
+    AutoTriggerDocumentListener(final InlineCompletionTriggerScheduler triggerScheduler) {
+        this.triggerScheduler = triggerScheduler;
     }
 
     @Override
@@ -33,25 +40,41 @@ public final class AutoTriggerDocumentListener implements IDocumentListener, IAu
 
     @Override
     public synchronized void documentChanged(final DocumentEvent e) {
-        var qSes = QInvocationSession.getInstance();
-        if (InlineChatSession.getInstance().isSessionActive()) {
+        var editor = getActiveTextEditor();
+        if (editor == null || InlineChatSession.getSession(editor).isSessionActive()) {
             return;
         }
+        var qSes = QInvocationSession.getSession(editor);
         if (!shouldSendQuery(e, qSes)) {
             return;
         }
-        var editor = getActiveTextEditor();
+        if (editor.getEditorInput() instanceof InMemoryInput) {
+            return;
+        }
 
-        if (!qSes.isActive() && !(editor.getEditorInput() instanceof InMemoryInput)) {
+        // only the last keystroke of a burst queries the server
+        triggerScheduler.onKeystroke(() -> triggerInvocation(editor));
+    }
+
+    /*
+     * Runs on the UI thread once typing pauses. The caret has moved past the typed
+     * text by now, so the request is made at the current caret offset.
+     */
+    private void triggerInvocation(final ITextEditor editor) {
+        var qSes = QInvocationSession.getSession(editor);
+        if (InlineChatSession.getSession(editor).isSessionActive() || editor != getActiveTextEditor()
+                || qSes.isPreviewingSuggestions() || qSes.isDecisionMade()) {
+            return;
+        }
+
+        if (!qSes.isActive()) {
             try {
                 qSes.start(editor);
             } catch (ExecutionException e1) {
                 return;
             }
         }
-        if (!(editor.getEditorInput() instanceof InMemoryInput)) {
-            qSes.invoke(qSes.getViewer().getTextWidget().getCaretOffset(), e.getText().length());
-        }
+        qSes.invoke(qSes.getViewer().getTextWidget().getCaretOffset(), 0);
     }
 
     private boolean shouldSendQuery(final DocumentEvent e, final QInvocationSession session) {
@@ -81,11 +104,13 @@ public final class AutoTriggerDocumentListener implements IDocumentListener, IAu
         ICommandService commandService = PlatformUI.getWorkbench().getService(ICommandService.class);
         commandListener = QEclipseEditorUtils.getAutoTriggerExecutionListener((commandId) -> undoCommandListenerCallback(commandId));
         commandService.addExecutionListener(commandListener);
+        QInvocationSessionRegistry.getInstance().assignResponseLatencyCallback(triggerScheduler::recordServerLatency);
         return;
     }
 
     @Override
     public void onShutdown() {
+        triggerScheduler.cancel();
         if (commandListener != null) {
             ICommandService commandService = PlatformUI.getWorkbench().getService(ICommandService.class);
             commandService.removeExecutionListener(commandListener);
@@ -8,4 +8,13 @@ import org.eclipse.swt.graphics.GC;
 public interface IQInlineSuggestionSegment {
     void render(GC gc, int currentCaretOffset);
     void cleanUp();
+
+    // The suggestion line this segment is drawn on, counting from the invocation line
+    default int getLineInSuggestion() {
+        return 0;
+    }
+
+    // Called when the suggestion is toggled back to, to forget state kept from earlier paints
+    default void reset() {
+    }
 }
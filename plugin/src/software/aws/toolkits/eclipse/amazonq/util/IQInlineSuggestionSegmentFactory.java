@@ -5,122 +5,62 @@ package software.aws.toolkits.eclipse.amazonq.util;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 
 public final class IQInlineSuggestionSegmentFactory {
 
     private IQInlineSuggestionSegmentFactory() {
     }
 
-    private enum BracketType {
-        OPEN, CLOSE, NONE;
+    public static List<IQInlineSuggestionSegment> getSegmentsFromSuggestion(final QInvocationSession qSes) {
+        return getSegmentsFromSuggestion(qSes, InlineSuggestionModel.of(qSes.getCurrentSuggestion().getInsertText()));
     }
 
-    public static List<IQInlineSuggestionSegment> getSegmentsFromSuggestion(final QInvocationSession qSes) {
-        var suggestion = qSes.getCurrentSuggestion().getInsertText();
-        var suggestionLines = suggestion.split("\\R");
-        var res = new ArrayList<IQInlineSuggestionSegment>();
+    /*
+     * Wraps a precomputed suggestion model in segments. Bracket segments are only
+     * created for the pairs the model holds, and the normal segment of each line
+     * draws the line with its matched close brackets blanked out, since those are
+     * rendered separately.
+     */
+    public static List<IQInlineSuggestionSegment> getSegmentsFromSuggestion(final QInvocationSession qSes,
+            final InlineSuggestionModel model) {
+        var res = new ArrayList<IQInlineSuggestionSegment>(model.getLineCount() + 2 * model.getPairCount());
         var widget = qSes.getViewer().getTextWidget();
         int currentOffset = qSes.getInvocationOffset();
-        int distanceTraversed = 0;
-        Stack<QInlineSuggestionOpenBracketSegment> unresolvedBrackets = new Stack<>();
-        for (int i = 0; i < suggestionLines.length; i++) {
-            int startOffset;
-            int endOffset;
-            String currentLine = suggestionLines[i];
-            StringBuilder sb;
 
-            startOffset = currentOffset + distanceTraversed; // this line might not exist yet so we need to think of
-                                                             // something more robust
-            sb = new StringBuilder(currentLine);
+        String content = widget.getLine(widget.getLineAtOffset(currentOffset));
+        int leadingWhitespacePosition = !content.isEmpty() ? idxOfFirstNonwhiteSpace(content) : 0;
+        String firstLineIndent = content.substring(0, leadingWhitespacePosition);
 
-            String currentIndent;
-            if (i == 0) {
-                int currentLineInDoc = widget.getLineAtOffset(currentOffset);
-                String content = widget.getLine(currentLineInDoc);
-                int leadingWhitespacePosition = !content.isEmpty() ? idxOfFirstNonwhiteSpace(content) : 0;
-                currentIndent = content.substring(0, leadingWhitespacePosition);
-            } else {
-                int leadingWhitespacePosition = idxOfFirstNonwhiteSpace(currentLine);
-                currentIndent = currentLine.substring(0, leadingWhitespacePosition);
-            }
-            for (int j = 0; j < currentLine.length(); j++) {
-                char c = currentLine.charAt(j);
-                switch (getBracketType(unresolvedBrackets, suggestion, distanceTraversed + j)) {
-                case OPEN:
-                    var openBracket = new QInlineSuggestionOpenBracketSegment(startOffset + j, currentIndent, c);
-                    unresolvedBrackets.push(openBracket);
-                    break;
-                case CLOSE:
-                    if (!unresolvedBrackets.isEmpty()) {
-                        var closeBracket = new QInlineSuggestionCloseBracketSegment(startOffset + j, i,
-                                currentLine.substring(0, j), c, qSes.isMacOS());
-                        var top = unresolvedBrackets.pop();
-                        if (top.isAMatch(closeBracket)) {
-                            top.pairUp(closeBracket);
-                            sb.setCharAt(j, ' ');
-                            res.add(closeBracket);
-                            res.add(top);
-                        }
-                    }
-                    break;
-                case NONE:
-                default:
-                    continue;
-                }
-            }
-            distanceTraversed += sb.length() + 1; // plus one because we got rid of a \\R when we split it
-            endOffset = startOffset + sb.length() - 1;
-            res.add(new QInlineSuggestionNormalSegment(startOffset, endOffset, i, sb.toString(), qSes.isMacOS()));
-        }
-        return res;
-    }
-
-    public static QInlineSuggestionRightContextSegment getRightCtxSegment(final String text,
-            final String firstLineInSuggestion) {
-        return new QInlineSuggestionRightContextSegment(text, firstLineInSuggestion);
-    }
+        int pair = 0;
+        for (int i = 0; i < model.getLineCount(); i++) {
+            String currentLine = model.getLine(i);
+            // this line might not exist yet so we need to think of something more robust
+            int startOffset = currentOffset + model.getLineStart(i);
 
-    private static BracketType getBracketType(final Stack<QInlineSuggestionOpenBracketSegment> unresolvedBrackets,
-            final String input, final int idx) {
-        if (isCloseBracket(input, idx, unresolvedBrackets)) {
-            // TODO: enrich logic here to eliminate false positive
-            return BracketType.CLOSE;
-        } else if (isOpenBracket(input, idx)) {
-            // TODO: enrich logic here to eliminate false positive
-            return BracketType.OPEN;
-        }
-        return BracketType.NONE;
-    }
+            for (; pair < model.getPairCount() && model.getCloseLine(pair) == i; pair++) {
+                int openLine = model.getOpenLine(pair);
+                String indent = openLine == 0 ? firstLineIndent
+                        : model.getLine(openLine).substring(0, idxOfFirstNonwhiteSpace(model.getLine(openLine)));
+                var openBracket = new QInlineSuggestionOpenBracketSegment(currentOffset + model.getOpenOffset(pair),
+                        indent, model.getOpenSymbol(pair));
+                int column = model.getCloseColumn(pair);
+                var closeBracket = new QInlineSuggestionCloseBracketSegment(qSes, startOffset + column, i,
+                        currentLine.substring(0, column), model.getCloseSymbol(pair), qSes.isMacOS());
+                openBracket.pairUp(closeBracket);
+                res.add(closeBracket);
+                res.add(openBracket);
+            }
 
-    private static boolean isCloseBracket(final String input, final int idx,
-            final Stack<QInlineSuggestionOpenBracketSegment> unresolvedBrackets) {
-        char c = input.charAt(idx);
-        boolean isBracket = c == ')' || c == ']' || c == '}' || c == '>' || c == '"' || c == '\'';
-        if (!isBracket) {
-            return false;
-        }
-        if (c == '"' || c == '\'') {
-            return !unresolvedBrackets.isEmpty() && unresolvedBrackets.peek().getSymbol() == c;
+            String text = model.getNormalText(i);
+            int endOffset = startOffset + text.length() - 1;
+            res.add(new QInlineSuggestionNormalSegment(qSes, startOffset, endOffset, i, text, qSes.isMacOS()));
         }
-        // TODO: enrich this check to eliminate false positives
-        if (idx > 0 && Character.isWhitespace(input.charAt(idx - 1)) && c == '>') {
-            return false;
-        }
-        return true;
+        return res;
     }
 
-    private static boolean isOpenBracket(final String input, final int idx) {
-        char c = input.charAt(idx);
-        boolean isBracket = c == '(' || c == '[' || c == '{' || c == '<' || c == '"' || c == '\'';
-        if (!isBracket) {
-            return false;
-        }
-        // TODO: enrich this check to eliminate false postives
-        if (idx > 0 && Character.isWhitespace(input.charAt(idx - 1)) && c == '<') {
-            return false;
-        }
-        return true;
+    public static QInlineSuggestionRightContextSegment getRightCtxSegment(final QInvocationSession qSes,
+            final String text, final String firstLineInSuggestion) {
+        return new QInlineSuggestionRightContextSegment(qSes, text, firstLineInSuggestion);
     }
 
     private static int idxOfFirstNonwhiteSpace(final String input) {
@@ -0,0 +1,126 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Records how long each stage of the inline completion pipeline takes, in one
+ * {@link LatencyHistogram} per stage and language, so tail latency can be
+ * traced to the stage it comes from.
+ *
+ * A {@link Trace} follows one request through the stages. Marking a stage
+ * records the time since the previous mark, and a stage a request does not go
+ * through, such as the server round trip of a cached response, is skipped.
+ */
+public final class InlineCompletionLatencyRecorder {
+    static final String UNKNOWN_LANGUAGE = "unknown";
+
+    public enum Stage {
+        // from the trigger to the request parameters being built from the document
+        TRIGGER_TO_REQUEST,
+        // from the request being sent to the server response arriving
+        REQUEST_TO_RESPONSE,
+        // from the response arriving to the UI thread picking it up, including precomputing suggestion models
+        RESPONSE_TO_DISPATCH,
+        // from the UI thread picking the response up to the suggestion first being painted
+        DISPATCH_TO_FIRST_PAINT
+    }
+
+    private final Map<String, Map<Stage, LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+
+    public InlineCompletionLatencyRecorder() {
+        this(System::nanoTime);
+    }
+
+    InlineCompletionLatencyRecorder(final LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    /*
+     * Starts following a request that was triggered at the given time, as read
+     * from System.nanoTime.
+     */
+    public Trace startTrace(final String language, final long triggeredAtNanos) {
+        return new Trace(language == null ? UNKNOWN_LANGUAGE : language, triggeredAtNanos);
+    }
+
+    public long nanoTime() {
+        return nanoClock.getAsLong();
+    }
+
+    public void record(final String language, final Stage stage, final long nanos) {
+        histograms.computeIfAbsent(language, key -> {
+            Map<Stage, LatencyHistogram> byStage = new EnumMap<>(Stage.class);
+            for (Stage each : Stage.values()) {
+                byStage.put(each, new LatencyHistogram());
+            }
+            return byStage;
+        }).get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /*
+     * Returns the statistics of every stage that has been recorded, by language
+     * and then by stage, in a stable order.
+     */
+    public Map<String, Map<Stage, LatencyHistogram.Snapshot>> snapshot() {
+        Map<String, Map<Stage, LatencyHistogram.Snapshot>> snapshot = new TreeMap<>();
+        histograms.forEach((language, byStage) -> {
+            Map<Stage, LatencyHistogram.Snapshot> stages = new EnumMap<>(Stage.class);
+            byStage.forEach((stage, histogram) -> {
+                var stageSnapshot = histogram.snapshot();
+                if (stageSnapshot.count() > 0) {
+                    stages.put(stage, stageSnapshot);
+                }
+            });
+            snapshot.put(language, stages);
+        });
+        return snapshot;
+    }
+
+    public String exportJson() throws JsonProcessingException {
+        return ObjectMapperFactory.getInstance().writerWithDefaultPrettyPrinter().writeValueAsString(snapshot());
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+
+    /**
+     * The stages of one request. A trace is handed from thread to thread along
+     * with the request, never used by two threads at once.
+     */
+    public final class Trace {
+        private final String language;
+        private long lastMarkNanos;
+
+        private Trace(final String language, final long triggeredAtNanos) {
+            this.language = language;
+            this.lastMarkNanos = triggeredAtNanos;
+        }
+
+        public void mark(final Stage stage) {
+            long now = nanoClock.getAsLong();
+            record(language, stage, now - lastMarkNanos);
+            lastMarkNanos = now;
+        }
+
+        public void skip() {
+            lastMarkNanos = nanoClock.getAsLong();
+        }
+
+        public String getLanguage() {
+            return language;
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionResponse;
+
+/**
+ * Holds a single speculative inline completion request, made for the position
+ * right after an accepted suggestion before the user asks for the next one.
+ *
+ * The next request claims the prefetched response if it is made at the same
+ * {@link InlineSuggestionCache.Snapshot}, allowing for text typed at the caret
+ * since. A request made anywhere else, a newer prefetch, or the slot outliving
+ * its time to live cancels the prefetch so the server stops working on it.
+ */
+public final class InlineCompletionPrefetcher {
+    static final long PREFETCH_TTL_MS = 5000;
+
+    private final BiFunction<Runnable, Long, Future<?>> timer;
+    private Slot slot;
+    private long prefetchCount;
+    private long claimCount;
+
+    public InlineCompletionPrefetcher() {
+        this(ThreadingUtils::scheduleAsyncTaskWithDelay);
+    }
+
+    InlineCompletionPrefetcher(final BiFunction<Runnable, Long, Future<?>> timer) {
+        this.timer = timer;
+    }
+
+    /*
+     * Stores a prefetched response, replacing and cancelling any earlier prefetch.
+     */
+    public void prefetch(final InlineSuggestionCache.Snapshot snapshot, final CompletableFuture<InlineCompletionResponse> response) {
+        Slot created = new Slot(snapshot, response);
+        synchronized (this) {
+            cancelSlot();
+            slot = created;
+            prefetchCount++;
+        }
+        timer.apply(() -> expire(created), PREFETCH_TTL_MS);
+    }
+
+    /*
+     * Hands the prefetched response over to a request made at the given snapshot.
+     * A prefetch made for another position is stale and is cancelled instead.
+     */
+    public synchronized Optional<Claim> claim(final InlineSuggestionCache.Snapshot snapshot) {
+        if (slot == null) {
+            return Optional.empty();
+        }
+        Slot current = slot;
+        if (current.snapshot().key().equals(snapshot.key())
+                && snapshot.linePrefix().startsWith(current.snapshot().linePrefix())) {
+            slot = null;
+            claimCount++;
+            int typedLength = snapshot.linePrefix().length() - current.snapshot().linePrefix().length();
+            return Optional.of(new Claim(current.response(), typedLength));
+        }
+        cancelSlot();
+        return Optional.empty();
+    }
+
+    public synchronized void cancel() {
+        cancelSlot();
+    }
+
+    public synchronized long getPrefetchCount() {
+        return prefetchCount;
+    }
+
+    public synchronized long getClaimCount() {
+        return claimCount;
+    }
+
+    private synchronized void expire(final Slot expired) {
+        if (slot == expired) {
+            cancelSlot();
+        }
+    }
+
+    private void cancelSlot() {
+        if (slot != null) {
+            slot.response().cancel(true);
+            slot = null;
+        }
+    }
+
+    public record Claim(CompletableFuture<InlineCompletionResponse> response, int typedLength) {
+    }
+
+    private record Slot(InlineSuggestionCache.Snapshot snapshot, CompletableFuture<InlineCompletionResponse> response) {
+    }
+
+}
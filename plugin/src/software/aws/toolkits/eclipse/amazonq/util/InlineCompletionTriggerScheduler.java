@@ -0,0 +1,130 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Debounces automatic inline completion triggers. Every keystroke restarts the
+ * debounce window, and only the trigger of the last keystroke in a burst runs,
+ * so a fast typist produces one request per pause instead of one per character.
+ *
+ * The window adapts to the user and the server: it is a little longer than the
+ * observed gap between keystrokes, so that a typing burst is coalesced, but never
+ * longer than half the observed server latency, so that debouncing adds at most
+ * a fraction of the time the user already waits for a response.
+ */
+public final class InlineCompletionTriggerScheduler {
+    static final long MIN_DEBOUNCE_MS = 30;
+    static final long MAX_DEBOUNCE_MS = 250;
+    // gaps longer than this end a typing burst and are not counted as typing speed
+    static final long TYPING_PAUSE_MS = 1000;
+    private static final double TYPING_GAP_FACTOR = 1.5;
+    private static final double SMOOTHING = 0.3;
+
+    private final LongSupplier clock;
+    private final BiFunction<Runnable, Long, Future<?>> timer;
+
+    private double typingGapMs = -1;
+    private double serverLatencyMs = -1;
+    private long lastKeystrokeAt = -1;
+    private long generation;
+    private Future<?> pendingTrigger;
+    private long keystrokeCount;
+    private long triggerCount;
+
+    public InlineCompletionTriggerScheduler() {
+        this(System::currentTimeMillis, (task, delay) -> ThreadingUtils.scheduleAsyncTaskWithDelay(
+                () -> Display.getDefault().asyncExec(task), delay));
+    }
+
+    InlineCompletionTriggerScheduler(final LongSupplier clock, final BiFunction<Runnable, Long, Future<?>> timer) {
+        this.clock = clock;
+        this.timer = timer;
+    }
+
+    /*
+     * Records a keystroke and schedules its trigger, superseding any trigger that
+     * has not run yet.
+     */
+    public void onKeystroke(final Runnable trigger) {
+        long scheduledGeneration;
+        long debounceMs;
+        synchronized (this) {
+            long now = clock.getAsLong();
+            if (lastKeystrokeAt >= 0 && now - lastKeystrokeAt < TYPING_PAUSE_MS) {
+                typingGapMs = smooth(typingGapMs, now - lastKeystrokeAt);
+            }
+            lastKeystrokeAt = now;
+            keystrokeCount++;
+
+            cancelPendingTrigger();
+            scheduledGeneration = generation;
+            debounceMs = getDebounceMillis();
+        }
+
+        Future<?> scheduled = timer.apply(() -> runIfCurrent(scheduledGeneration, trigger), debounceMs);
+        synchronized (this) {
+            if (scheduledGeneration == generation) {
+                pendingTrigger = scheduled;
+            }
+        }
+    }
+
+    public synchronized void cancel() {
+        cancelPendingTrigger();
+    }
+
+    public synchronized void recordServerLatency(final long latencyMs) {
+        serverLatencyMs = smooth(serverLatencyMs, latencyMs);
+    }
+
+    public synchronized long getDebounceMillis() {
+        long upperBound = MAX_DEBOUNCE_MS;
+        if (serverLatencyMs >= 0) {
+            upperBound = Math.max(MIN_DEBOUNCE_MS, Math.min(upperBound, Math.round(serverLatencyMs / 2)));
+        }
+        if (typingGapMs < 0) {
+            return MIN_DEBOUNCE_MS;
+        }
+        long window = Math.round(typingGapMs * TYPING_GAP_FACTOR);
+        return Math.max(MIN_DEBOUNCE_MS, Math.min(upperBound, window));
+    }
+
+    public synchronized long getKeystrokeCount() {
+        return keystrokeCount;
+    }
+
+    public synchronized long getTriggerCount() {
+        return triggerCount;
+    }
+
+    private void runIfCurrent(final long scheduledGeneration, final Runnable trigger) {
+        synchronized (this) {
+            if (scheduledGeneration != generation) {
+                return;
+            }
+            pendingTrigger = null;
+            triggerCount++;
+        }
+        trigger.run();
+    }
+
+    private void cancelPendingTrigger() {
+        generation++;
+        if (pendingTrigger != null) {
+            pendingTrigger.cancel(false);
+            pendingTrigger = null;
+        }
+    }
+
+    private static double smooth(final double average, final double sample) {
+        return average < 0 ? sample : average + SMOOTHING * (sample - average);
+    }
+
+}
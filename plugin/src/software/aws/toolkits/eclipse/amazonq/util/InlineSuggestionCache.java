@@ -0,0 +1,195 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionItem;
+
+/**
+ * Least recently used cache of inline completion responses.
+ *
+ * A response is stored against a {@link Snapshot} of the document taken when it
+ * was requested: the document URI, the line, fingerprints of the text before
+ * that line and of the text after the caret, and the text of the line up to the
+ * caret. The fingerprints only cover the file context the language server sends
+ * with a request, so taking a snapshot costs the same however long the document
+ * is. A later request hits the cache when the document differs only by text
+ * typed at the caret and at least one cached suggestion starts with that text.
+ * Any edit outside the typed prefix changes a fingerprint, so the entry stops
+ * matching and ages out.
+ *
+ * Every entry belongs to a server session whose result can only be logged once.
+ * An entry is dropped when its session result is logged, so a hit never reuses
+ * a closed session. Entries of sessions that were never shown, such as the
+ * background refresh of a hit, are handed to a listener when they are evicted,
+ * replaced or cleared, so that their session can still be closed.
+ */
+public final class InlineSuggestionCache {
+
+    // characters of file context the language server sends either side of the caret
+    public static final int CONTEXT_LENGTH = 10240;
+
+    private final Map<Key, Entry> entries;
+    private final Set<String> shownSessions = new HashSet<>();
+    private final BiConsumer<String, List<InlineCompletionItem>> unshownSessionListener;
+    // entries evicted by the put in progress, handed to the listener once the lock is released
+    private final List<Entry> evicted = new ArrayList<>();
+    private long hitCount;
+    private long missCount;
+
+    public InlineSuggestionCache(final int maxEntries) {
+        this(maxEntries, (sessionId, items) -> { });
+    }
+
+    public InlineSuggestionCache(final int maxEntries,
+            final BiConsumer<String, List<InlineCompletionItem>> unshownSessionListener) {
+        this.unshownSessionListener = unshownSessionListener;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evicted.add(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public void put(final Snapshot snapshot, final String sessionId, final List<InlineCompletionItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<Entry> dropped;
+        synchronized (this) {
+            Entry replaced = entries.put(snapshot.key(), new Entry(snapshot.linePrefix(), sessionId, List.copyOf(items)));
+            if (replaced != null && !replaced.sessionId().equals(sessionId)) {
+                evicted.add(replaced);
+            }
+            dropped = takeUnshown(evicted);
+            evicted.clear();
+        }
+        notifyUnshown(dropped);
+    }
+
+    /*
+     * Records that the session's suggestions are being shown, so the session that
+     * shows them logs its result rather than the cache.
+     */
+    public synchronized void markShown(final String sessionId) {
+        shownSessions.add(sessionId);
+    }
+
+    /*
+     * Drops the entries of a session once its result has been logged, as the server
+     * has closed the session and its suggestions must not be shown under it again.
+     */
+    public synchronized void invalidate(final String sessionId) {
+        shownSessions.remove(sessionId);
+        entries.values().removeIf(entry -> entry.sessionId().equals(sessionId));
+    }
+
+    /*
+     * Returns the cached suggestions for the snapshot if the user has only typed
+     * text that at least one of them still starts with.
+     */
+    public synchronized Optional<Hit> get(final Snapshot snapshot) {
+        Entry entry = entries.get(snapshot.key());
+        if (entry != null && snapshot.linePrefix().startsWith(entry.linePrefix())) {
+            String typed = snapshot.linePrefix().substring(entry.linePrefix().length());
+            if (entry.items().stream().anyMatch(item -> item.getInsertText().startsWith(typed))) {
+                hitCount++;
+                return Optional.of(new Hit(entry.sessionId(), entry.items(), typed.length()));
+            }
+        }
+        missCount++;
+        return Optional.empty();
+    }
+
+    public void clear() {
+        List<Entry> dropped;
+        synchronized (this) {
+            dropped = takeUnshown(entries.values());
+            entries.clear();
+            shownSessions.clear();
+        }
+        notifyUnshown(dropped);
+    }
+
+    private List<Entry> takeUnshown(final Iterable<Entry> removed) {
+        List<Entry> unshown = new ArrayList<>();
+        for (Entry entry : removed) {
+            if (!shownSessions.contains(entry.sessionId())) {
+                unshown.add(entry);
+            }
+        }
+        return unshown;
+    }
+
+    private void notifyUnshown(final List<Entry> dropped) {
+        dropped.forEach(entry -> unshownSessionListener.accept(entry.sessionId(), entry.items()));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized double getHitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    /*
+     * Captures the cache key for a request at the given offsets into the text. The
+     * fingerprints cover up to CONTEXT_LENGTH characters before the line and after
+     * the caret, so the text only needs to span that window around the caret.
+     */
+    public static Snapshot snapshot(final String uri, final String text, final int lineNumber,
+            final int lineOffset, final int caretOffset) {
+        Key key = new Key(uri, lineNumber, fingerprint(text, Math.max(0, lineOffset - CONTEXT_LENGTH), lineOffset),
+                fingerprint(text, caretOffset, Math.min(text.length(), caretOffset + CONTEXT_LENGTH)));
+        return new Snapshot(key, text.substring(lineOffset, caretOffset));
+    }
+
+    // 64-bit FNV-1a over the UTF-16 code units, mixed with the range length
+    static long fingerprint(final String text, final int start, final int end) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash ^ (end - start);
+    }
+
+    public record Snapshot(Key key, String linePrefix) {
+    }
+
+    public record Hit(String sessionId, List<InlineCompletionItem> items, int typedLength) {
+    }
+
+    record Key(String uri, int lineNumber, long leftContext, long rightContext) {
+    }
+
+    private record Entry(String linePrefix, String sessionId, List<InlineCompletionItem> items) {
+    }
+
+}
@@ -0,0 +1,153 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionItem;
+
+/**
+ * The text analysis of one inline suggestion that its segments are built from:
+ * its lines, the text of each line as drawn in the normal segment, and its
+ * bracket pairs.
+ *
+ * A model depends only on the suggestion text, so the models of every returned
+ * suggestion are computed off the UI thread as soon as a response arrives, and
+ * toggling between suggestions only wraps a ready model in segments. Models are
+ * immutable and safe to share between threads.
+ */
+public final class InlineSuggestionModel {
+    // the tokenizer's buffers are copied out by each model, so every thread keeps one and grows it only when needed
+    private static final ThreadLocal<SuggestionBracketTokenizer> TOKENIZER = ThreadLocal.withInitial(SuggestionBracketTokenizer::new);
+
+    private final String insertText;
+    private final String[] lines;
+    private final String[] normalTexts;
+    private final int[] lineStarts;
+    private final int[] openOffsets;
+    private final int[] openLines;
+    private final char[] openSymbols;
+    private final int[] closeLines;
+    private final int[] closeColumns;
+    private final char[] closeSymbols;
+
+    private InlineSuggestionModel(final String insertText, final String[] lines, final SuggestionBracketTokenizer tokenizer) {
+        this.insertText = insertText;
+        this.lines = lines;
+        int lineCount = tokenizer.getLineCount();
+        int pairCount = tokenizer.getPairCount();
+        lineStarts = new int[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            lineStarts[i] = tokenizer.getLineStart(i);
+        }
+        openOffsets = new int[pairCount];
+        openLines = new int[pairCount];
+        openSymbols = new char[pairCount];
+        closeLines = new int[pairCount];
+        closeColumns = new int[pairCount];
+        closeSymbols = new char[pairCount];
+        char[][] blankedLines = new char[lineCount][];
+        for (int pair = 0; pair < pairCount; pair++) {
+            openOffsets[pair] = tokenizer.getOpenOffset(pair);
+            openLines[pair] = tokenizer.getOpenLine(pair);
+            openSymbols[pair] = tokenizer.getOpenSymbol(pair);
+            closeLines[pair] = tokenizer.getCloseLine(pair);
+            closeColumns[pair] = tokenizer.getCloseColumn(pair);
+            closeSymbols[pair] = tokenizer.getCloseSymbol(pair);
+
+            // matched close brackets are rendered by their own segment
+            int line = closeLines[pair];
+            if (blankedLines[line] == null) {
+                blankedLines[line] = lines[line].toCharArray();
+            }
+            blankedLines[line][closeColumns[pair]] = ' ';
+        }
+        normalTexts = new String[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            normalTexts[i] = blankedLines[i] != null ? new String(blankedLines[i]) : lines[i];
+        }
+    }
+
+    public static InlineSuggestionModel of(final String insertText) {
+        return of(insertText, TOKENIZER.get());
+    }
+
+    static InlineSuggestionModel of(final String insertText, final SuggestionBracketTokenizer tokenizer) {
+        String[] lines = insertText.split("\\R");
+        tokenizer.tokenize(lines);
+        return new InlineSuggestionModel(insertText, lines, tokenizer);
+    }
+
+    /*
+     * Computes the models of all suggestions in parallel on the given executor.
+     * The returned list is in the order of the suggestions.
+     */
+    public static CompletableFuture<List<InlineSuggestionModel>> precompute(final List<InlineCompletionItem> suggestions,
+            final Executor executor) {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<InlineSuggestionModel>[] models = suggestions.stream()
+                .map(item -> CompletableFuture.supplyAsync(() -> of(item.getInsertText()), executor))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(models)
+                .thenApply(done -> Arrays.stream(models).map(CompletableFuture::join).toList());
+    }
+
+    public String getInsertText() {
+        return insertText;
+    }
+
+    public int getLineCount() {
+        return lines.length;
+    }
+
+    public String getLine(final int line) {
+        return lines[line];
+    }
+
+    // The line with its matched close brackets blanked out
+    public String getNormalText(final int line) {
+        return normalTexts[line];
+    }
+
+    // Offset of the line from the start of the suggestion, counting one character per line break
+    public int getLineStart(final int line) {
+        return lineStarts[line];
+    }
+
+    public int getPairCount() {
+        return openOffsets.length;
+    }
+
+    public int getOpenOffset(final int pair) {
+        return openOffsets[pair];
+    }
+
+    public int getOpenLine(final int pair) {
+        return openLines[pair];
+    }
+
+    public char getOpenSymbol(final int pair) {
+        return openSymbols[pair];
+    }
+
+    public int getCloseOffset(final int pair) {
+        return lineStarts[closeLines[pair]] + closeColumns[pair];
+    }
+
+    public int getCloseLine(final int pair) {
+        return closeLines[pair];
+    }
+
+    public int getCloseColumn(final int pair) {
+        return closeColumns[pair];
+    }
+
+    public char getCloseSymbol(final int pair) {
+        return closeSymbols[pair];
+    }
+
+}
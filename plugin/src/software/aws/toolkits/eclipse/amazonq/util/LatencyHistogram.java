@@ -0,0 +1,121 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free latency histogram with log-linear buckets, in the manner of an
+ * HDR histogram.
+ *
+ * Values are recorded in microseconds. Every power of two is split into
+ * {@value #SUB_BUCKET_COUNT} linear sub-buckets, so any reported value is
+ * within about 3% of the recorded one, from a microsecond up to hours, in a
+ * fixed array of counters. Recording is a single atomic increment and can
+ * happen on any thread. Reads are not atomic across buckets, so a snapshot
+ * taken while values are recorded may miss the latest few of them.
+ */
+public final class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // values at or beyond 2^36 microseconds, about 19 hours, are counted in the last bucket
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void record(final long duration, final TimeUnit unit) {
+        long micros = Math.max(0, unit.toMicros(duration));
+        counts.incrementAndGet(bucketOf(micros));
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public long getCount() {
+        return sum(copyCounts());
+    }
+
+    /*
+     * Returns the highest value, in microseconds, that is equivalent to the value
+     * at the given percentile, or 0 if nothing has been recorded.
+     */
+    public long getValueAtPercentile(final double percentile) {
+        long[] snapshot = copyCounts();
+        return valueAtPercentile(snapshot, sum(snapshot), percentile);
+    }
+
+    public Snapshot snapshot() {
+        long[] snapshot = copyCounts();
+        long count = sum(snapshot);
+        double mean = count == 0 ? 0 : (double) totalMicros.get() / count;
+        return new Snapshot(count, toMillis(mean), toMillis(valueAtPercentile(snapshot, count, 50)),
+                toMillis(valueAtPercentile(snapshot, count, 90)), toMillis(valueAtPercentile(snapshot, count, 99)),
+                toMillis(maxMicros.get()));
+    }
+
+    private long valueAtPercentile(final long[] snapshot, final long count, final double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                // never report more than was actually recorded, and the last bucket has no upper bound
+                return i == BUCKET_COUNT - 1 ? maxMicros.get() : Math.min(highestValueIn(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    private long[] copyCounts() {
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    private static long sum(final long[] snapshot) {
+        long count = 0;
+        for (long bucketCount : snapshot) {
+            count += bucketCount;
+        }
+        return count;
+    }
+
+    static int bucketOf(final long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKET_COUNT;
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long highestValueIn(final int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKET_COUNT - 1;
+        long lowest = (long) (SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    private static double toMillis(final double micros) {
+        return Math.round(micros / 10) / 100.0;
+    }
+
+    public record Snapshot(long count, double meanMs, double p50Ms, double p90Ms, double p99Ms, double maxMs) {
+    }
+
+}
@@ -295,8 +295,8 @@ public final class QEclipseEditorUtils {
         return new Font(widget.getDisplay(), fontData);
     }
 
-    public static QInlineInputListener getInlineInputListener(final StyledText widget) {
-        return new QInlineInputListener(widget);
+    public static QInlineInputListener getInlineInputListener(final QInvocationSession session, final StyledText widget) {
+        return new QInlineInputListener(session, widget);
     }
 
     public static int getOffsetInFullyExpandedDocument(final ITextViewer viewer, final int caretOffsetFromWidget) {
@@ -309,8 +309,8 @@ public final class QEclipseEditorUtils {
         return adjustedOffset > -1 ? adjustedOffset : caretOffsetFromWidget;
     }
 
-    public static QInlineTerminationListener getInlineTerminationListener() {
-        return new QInlineTerminationListener();
+    public static QInlineTerminationListener getInlineTerminationListener(final QInvocationSession session) {
+        return new QInlineTerminationListener(session);
     }
 
     public static IExecutionListener getAutoTriggerExecutionListener(final Consumer<String> callback) {
@@ -8,30 +8,31 @@ import org.eclipse.swt.custom.CaretListener;
 import org.eclipse.swt.custom.StyledText;
 
 public final class QInlineCaretListener implements CaretListener {
+    private final QInvocationSession session;
     private StyledText widget = null;
     private int previousLine;
 
-    public QInlineCaretListener(final StyledText widget) {
+    public QInlineCaretListener(final QInvocationSession session, final StyledText widget) {
+        this.session = session;
         this.widget = widget;
         this.previousLine = widget.getLineAtOffset(widget.getCaretOffset());
     }
 
     @Override
     public void caretMoved(final CaretEvent event) {
-        var qInvocationSessionInstance = QInvocationSession.getInstance();
-        CaretMovementReason caretMovementReason = qInvocationSessionInstance.getCaretMovementReason();
+        CaretMovementReason caretMovementReason = session.getCaretMovementReason();
 
         // We want to ignore caret movements induced by text editing
         if (caretMovementReason == CaretMovementReason.TEXT_INPUT) {
-            qInvocationSessionInstance.setCaretMovementReason(CaretMovementReason.UNEXAMINED);
+            session.setCaretMovementReason(CaretMovementReason.UNEXAMINED);
             previousLine = widget.getLineAtOffset(widget.getCaretOffset());
             return;
         }
 
-        if (qInvocationSessionInstance.isPreviewingSuggestions()
+        if (session.isPreviewingSuggestions()
                 && caretMovementReason != CaretMovementReason.UNEXAMINED) {
-            qInvocationSessionInstance.transitionToDecisionMade(previousLine + 1);
-            qInvocationSessionInstance.end();
+            session.transitionToDecisionMade(previousLine + 1);
+            session.end();
             return;
         }
     }
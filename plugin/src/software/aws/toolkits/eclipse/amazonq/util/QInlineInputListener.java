@@ -4,7 +4,9 @@
 package software.aws.toolkits.eclipse.amazonq.util;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.DocumentEvent;
@@ -23,11 +25,18 @@ import org.eclipse.ui.texteditor.ITextEditor;
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
 
 public final class QInlineInputListener implements IDocumentListener, VerifyKeyListener, MouseListener {
+    private final QInvocationSession session;
     private StyledText widget = null;
     private int numSuggestionLines = 0;
     private List<IQInlineSuggestionSegment> suggestionSegments = new ArrayList<>();
+    private List<List<IQInlineSuggestionSegment>> segmentsByLine = new ArrayList<>();
+    // segments built for each suggestion shown so far, so toggling back to one reuses them
+    private final Map<Integer, PreparedSuggestion> preparedSuggestions = new HashMap<>();
+    private QInlineSuggestionRightContextSegment rightCtxSegment;
     private IQInlineBracket[] brackets;
     private int distanceTraversed = 0;
+    // typed before the suggestions were shown, so the editor handled its brackets itself
+    private final int distanceTypedBeforeShown;
     private int normalSegmentCount = 0;
     private String rightCtxBuf = "";
     private IQInlineTypeaheadProcessor typeaheadProcessor;
@@ -40,11 +49,15 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
      * <li>Analyze the buffer in current suggestions for bracket pairs.</li>
      * </ul>
      *
+     * @param session
      * @param widget
      */
-    public QInlineInputListener(final StyledText widget) {
+    public QInlineInputListener(final QInvocationSession session, final StyledText widget) {
+        this.session = session;
         this.widget = widget;
-        QInvocationSession session = QInvocationSession.getInstance();
+        // anything typed between the request and the suggestions arriving has already been matched against them
+        this.distanceTraversed = Math.max(0, widget.getCaretOffset() - session.getInvocationOffset());
+        this.distanceTypedBeforeShown = distanceTraversed;
         ITextEditor editor = session.getEditor();
         typeaheadProcessor = QEclipseEditorUtils.getAutoCloseSettings(editor);
     }
@@ -56,10 +69,11 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
      * </ul>
      *
      * This is to be called on instantiation as well as when new suggestion has been
-     * toggled to.
+     * toggled to, including when what has been typed ahead no longer matches the
+     * suggestion shown but still matches another. The right context is then taken
+     * from the caret rather than the invocation offset.
      */
     public void onNewSuggestion() {
-        QInvocationSession session = QInvocationSession.getInstance();
         // We want to modify the document prior to attaching document listener
         // For that reason, we should move this document listener to onNewSuggestion.
         // - Check to see if the right context exists.
@@ -71,73 +85,163 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
         IDocument doc = viewer.getDocument();
         doc.removeDocumentListener(this);
         int invocationOffset = session.getInvocationOffset();
-        int curLineInDoc = widget.getLineAtOffset(invocationOffset);
-        int lineIdx = invocationOffset - widget.getOffsetAtLine(curLineInDoc);
-        String contentInLine = widget.getLine(curLineInDoc);
+        int typedOffset = invocationOffset + distanceTraversed;
         if (!rightCtxBuf.isEmpty() && normalSegmentCount > 1) {
             try {
                 int adjustedOffset = QEclipseEditorUtils.getOffsetInFullyExpandedDocument(session.getViewer(),
-                        session.getInvocationOffset());
+                        typedOffset);
                 doc.replace(adjustedOffset, 0, rightCtxBuf.split(widget.getLineDelimiter(), 2)[0]);
             } catch (BadLocationException e) {
                 Activator.getLogger().error(e.toString());
             }
         }
-        if (!suggestionSegments.isEmpty()) {
-            suggestionSegments.clear();
+        int curLineInDoc = widget.getLineAtOffset(typedOffset);
+        int lineIdx = typedOffset - widget.getOffsetAtLine(curLineInDoc);
+        String contentInLine = widget.getLine(curLineInDoc);
+        IQInlineBracket[] previousBrackets = brackets;
+        detachRightCtxSegment();
+        PreparedSuggestion prepared = preparedSuggestions.get(session.getCurrentSuggestionIndex());
+        if (prepared == null) {
+            prepared = prepareSuggestion(session.getCurrentSuggestionModel(), invocationOffset);
+            preparedSuggestions.put(session.getCurrentSuggestionIndex(), prepared);
+        } else {
+            prepared.segments().forEach(IQInlineSuggestionSegment::reset);
         }
-        numSuggestionLines = session.getCurrentSuggestion().getInsertText().split("\\R").length;
-        List<IQInlineSuggestionSegment> segments = IQInlineSuggestionSegmentFactory.getSegmentsFromSuggestion(session);
-        brackets = new IQInlineBracket[session.getCurrentSuggestion().getInsertText().length()];
-        if (lineIdx < contentInLine.length()) {
-            rightCtxBuf = contentInLine.substring(lineIdx);
+        suggestionSegments = prepared.segments();
+        segmentsByLine = prepared.segmentsByLine();
+        brackets = prepared.brackets();
+        replayTypedBrackets(previousBrackets);
+        numSuggestionLines = prepared.model().getLineCount();
+        rightCtxBuf = lineIdx < contentInLine.length() ? contentInLine.substring(lineIdx) : "";
+        if (numSuggestionLines > 1 && !rightCtxBuf.isEmpty()) {
+            rightCtxSegment = IQInlineSuggestionSegmentFactory.getRightCtxSegment(session, rightCtxBuf,
+                    prepared.model().getLine(0));
+            suggestionSegments.add(rightCtxSegment);
+            segmentsByLine.get(0).add(rightCtxSegment);
+            try {
+                int expandedOffset = QEclipseEditorUtils.getOffsetInFullyExpandedDocument(viewer, typedOffset);
+                // We want to leave the '\n' on the current line
+                int rightCtxEffectiveLength = rightCtxBuf.endsWith("\n") ? rightCtxBuf.length() - 1
+                        : rightCtxBuf.length();
+                doc.replace(expandedOffset, rightCtxEffectiveLength, "");
+            } catch (BadLocationException e) {
+                Activator.getLogger().error("Error striking out document right context" + e.toString());
+            }
         }
-        int normalSegmentNum = 0;
+        normalSegmentCount = numSuggestionLines;
+        doc.addDocumentListener(this);
+    }
+
+    /*
+     * Brings the bracket states of the suggestion now shown in line with what has
+     * been typed ahead of it while previewing. The typed text is common to the
+     * suggestions that still match it, so an auto close that happened while
+     * typing it carries over from the open bracket at the same position of the
+     * previous suggestion.
+     */
+    private void replayTypedBrackets(final IQInlineBracket[] previousBrackets) {
+        for (int i = 0; i < brackets.length; i++) {
+            if (brackets[i] instanceof QInlineSuggestionOpenBracketSegment) {
+                var openBracket = (QInlineSuggestionOpenBracketSegment) brackets[i];
+                openBracket.setResolve(true);
+                openBracket.setAutoCloseOccurred(false);
+            }
+        }
+        for (int i = distanceTypedBeforeShown; i < distanceTraversed && i < brackets.length; i++) {
+            var bracket = brackets[i];
+            if (bracket == null) {
+                continue;
+            }
+            bracket.onTypeOver();
+            if (bracket instanceof QInlineSuggestionOpenBracketSegment && previousBrackets != null
+                    && i < previousBrackets.length
+                    && previousBrackets[i] instanceof QInlineSuggestionOpenBracketSegment) {
+                ((QInlineSuggestionOpenBracketSegment) bracket).setAutoCloseOccurred(
+                        ((QInlineSuggestionOpenBracketSegment) previousBrackets[i]).hasAutoCloseOccurred());
+            }
+        }
+    }
+
+    /*
+     * Wraps the precomputed model of a suggestion in segments, and indexes its
+     * brackets by position in the suggestion for the typeahead processor. Segments
+     * hold SWT resources, so this runs on the UI thread, once per suggestion.
+     */
+    private PreparedSuggestion prepareSuggestion(final InlineSuggestionModel model, final int invocationOffset) {
+        List<IQInlineSuggestionSegment> segments = IQInlineSuggestionSegmentFactory.getSegmentsFromSuggestion(session,
+                model);
+        var renderedSegments = new ArrayList<IQInlineSuggestionSegment>(segments.size() + 1);
+        var bracketsByPosition = new IQInlineBracket[model.getInsertText().length()];
         for (var segment : segments) {
             if (segment instanceof IQInlineBracket) {
                 int offset = ((IQInlineBracket) segment).getRelevantOffset();
                 int idxInSuggestion = offset - invocationOffset;
                 if (((IQInlineBracket) segment).getSymbol() == '{'
                         && typeaheadProcessor.isCurlyBracesAutoCloseDelayed()) {
-                    int firstNewLineAfter = session.getCurrentSuggestion().getInsertText().indexOf('\n',
-                            idxInSuggestion);
+                    int firstNewLineAfter = model.getInsertText().indexOf('\n', idxInSuggestion);
                     if (firstNewLineAfter != -1) {
-                        brackets[firstNewLineAfter] = (IQInlineBracket) segment;
+                        bracketsByPosition[firstNewLineAfter] = (IQInlineBracket) segment;
                     }
                 } else {
-                    brackets[idxInSuggestion] = (IQInlineBracket) segment;
+                    bracketsByPosition[idxInSuggestion] = (IQInlineBracket) segment;
                 }
                 // We only add close brackets to be rendered separately
                 if (segment instanceof QInlineSuggestionCloseBracketSegment) {
-                    suggestionSegments.add(segment);
+                    renderedSegments.add(segment);
                 }
             } else {
-                suggestionSegments.add(segment);
-                normalSegmentNum++;
+                renderedSegments.add(segment);
             }
         }
-        if (normalSegmentNum > 1 && !rightCtxBuf.isEmpty()) {
-            QInlineSuggestionRightContextSegment rightCtxSegment = IQInlineSuggestionSegmentFactory
-                    .getRightCtxSegment(rightCtxBuf, session.getCurrentSuggestion().getInsertText().split("\\R", 2)[0]);
-            suggestionSegments.add(rightCtxSegment);
-            try {
-                int expandedOffset = QEclipseEditorUtils.getOffsetInFullyExpandedDocument(viewer, invocationOffset);
-                // We want to leave the '\n' on the current line
-                int rightCtxEffectiveLength = rightCtxBuf.endsWith("\n") ? rightCtxBuf.length() - 1
-                        : rightCtxBuf.length();
-                doc.replace(expandedOffset, rightCtxEffectiveLength, "");
-            } catch (BadLocationException e) {
-                Activator.getLogger().error("Error striking out document right context" + e.toString());
+        return new PreparedSuggestion(model, renderedSegments, indexSegmentsByLine(renderedSegments,
+                model.getLineCount()), bracketsByPosition);
+    }
+
+    /*
+     * Groups the segments by the suggestion line they are drawn on, so that a paint
+     * only visits the segments of the lines it has to redraw.
+     */
+    private static List<List<IQInlineSuggestionSegment>> indexSegmentsByLine(
+            final List<IQInlineSuggestionSegment> segments, final int lineCount) {
+        var byLine = new ArrayList<List<IQInlineSuggestionSegment>>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            byLine.add(new ArrayList<>(2));
+        }
+        for (var segment : segments) {
+            int line = segment.getLineInSuggestion();
+            if (line >= 0 && line < lineCount) {
+                byLine.get(line).add(segment);
             }
         }
-        normalSegmentCount = normalSegmentNum;
-        doc.addDocumentListener(this);
+        return byLine;
+    }
+
+    /*
+     * The right context segment depends on the document at the time a suggestion
+     * is shown, so it is not kept with the prepared segments.
+     */
+    private void detachRightCtxSegment() {
+        if (rightCtxSegment != null) {
+            suggestionSegments.remove(rightCtxSegment);
+            if (!segmentsByLine.isEmpty()) {
+                segmentsByLine.get(0).remove(rightCtxSegment);
+            }
+            rightCtxSegment.cleanUp();
+            rightCtxSegment = null;
+        }
     }
 
     public List<IQInlineSuggestionSegment> getSegments() {
         return suggestionSegments;
     }
 
+    public List<IQInlineSuggestionSegment> getSegmentsOnLine(final int lineInSuggestion) {
+        if (lineInSuggestion < 0 || lineInSuggestion >= segmentsByLine.size()) {
+            return List.of();
+        }
+        return segmentsByLine.get(lineInSuggestion);
+    }
+
     public int getOutstandingPadding() {
         return typeaheadProcessor.getOutstandingPadding(brackets);
     }
@@ -151,9 +255,11 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
      * </ul>
      */
     public void beforeRemoval() {
-        var session = QInvocationSession.getInstance();
         IDocument doc = session.getViewer().getDocument();
         doc.removeDocumentListener(this);
+        // the segments hold text layouts, which must be disposed however the session ends
+        preparedSuggestions.values().forEach(prepared -> prepared.segments().forEach(IQInlineSuggestionSegment::cleanUp));
+        preparedSuggestions.clear();
         if (session == null || !session.isActive() || brackets == null || session.getSuggestionAccepted()) {
             return;
         }
@@ -175,7 +281,7 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
             }
         }
         toAppend += rightCtxBuf;
-        suggestionSegments.stream().forEach((segment) -> segment.cleanUp());
+        detachRightCtxSegment();
         final String toAppendFinal = toAppend;
         int idx = distanceTraversed;
         if (!toAppend.isEmpty()) {
@@ -205,7 +311,6 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
 
     @Override
     public void verifyKey(final VerifyEvent event) {
-        var session = QInvocationSession.getInstance();
         if (session == null || !session.isPreviewingSuggestions()) {
             return;
         }
@@ -262,7 +367,6 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
 
     @Override
     public void documentChanged(final DocumentEvent event) {
-        QInvocationSession session = QInvocationSession.getInstance();
 
         if (session == null || !session.isPreviewingSuggestions()) {
             return;
@@ -279,25 +383,25 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
         if (input.isEmpty()) {
             if (distanceTraversed <= 0) {
                 // discard all suggestions as caret position is less than request invocation position
-                session.updateCompletionStates(new ArrayList<String>());
+                session.discardAllSuggestions();
                 session.transitionToDecisionMade();
                 session.end();
                 return;
             }
+            int distanceBeforeDelete = distanceTraversed;
             distanceTraversed = typeaheadProcessor.getNewDistanceTraversedOnDeleteAndUpdateBracketState(
                     event.getLength(), distanceTraversed, brackets);
+            // suggestions ruled out by the deleted text match again
+            session.onTypeaheadDeleted(distanceBeforeDelete - distanceTraversed);
             if (distanceTraversed < 0) {
                 // discard all suggestions as caret position is less than request invocation position
-                session.updateCompletionStates(new ArrayList<String>());
+                session.discardAllSuggestions();
                 session.transitionToDecisionMade();
                 session.end();
             }
 
             // note: distanceTraversed as 0 is currently understood to be when a user presses BS removing any typeahead
             if (distanceTraversed == 0) {
-                // reset completion states for all suggestions when user reverts to request
-                // invocation state
-                session.resetCompletionStates();
                 // mark currently displayed suggestion as seen
                 session.markSuggestionAsSeen();
             }
@@ -332,10 +436,21 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
             }
         }
 
+        session.onTypeahead(input);
         boolean isOutOfBounds = distanceTraversed + input.length() >= currentSuggestion.length()
                 || distanceTraversed < 0;
-        if (isOutOfBounds || !isInputAMatch(currentSuggestion, distanceTraversed, input)) {
+        if (isOutOfBounds || !isInputAMatch(currentSuggestion, distanceTraversed, input)
+                || !session.isCurrentSuggestionMatching()) {
             distanceTraversed += input.length();
+            if (session.hasMatchingSuggestion()) {
+                // another suggestion still matches what has been typed ahead, show that one instead
+                Display.getCurrent().asyncExec(() -> {
+                    if (session.isPreviewingSuggestions()) {
+                        session.showMatchingSuggestion();
+                    }
+                });
+                return;
+            }
             event.getDocument().removeDocumentListener(this);
             StyledText widget = session.getViewer().getTextWidget();
             int caretLine = widget.getLineAtOffset(widget.getCaretOffset());
@@ -345,16 +460,14 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
             Display.getCurrent().asyncExec(() -> {
                 if (session.isActive()) {
                     // discard suggestions and end immediately as typeahead does not match
-                    session.updateCompletionStates(new ArrayList<String>());
+                    session.discardAllSuggestions();
                     session.endImmediately();
                 }
             });
             return;
         }
 
-        // discard all other suggestions except for current one as typeahead matches it
-        // also mark current one as seen as it continues to be displayed
-        session.updateCompletionStates(List.of(session.getCurrentSuggestion().getItemId()));
+        // mark current one as seen as it continues to be displayed
         session.markSuggestionAsSeen();
 
         // Here we perform "post closing bracket insertion caret correction", which
@@ -412,16 +525,15 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
         // CaretMovementReason
         // (the CaretListener) is called _before_ the mouse listener
         // For consistency sake, we'll stick with updating it now.
-        var qInvocationSessionInstance = QInvocationSession.getInstance();
-        if (!qInvocationSessionInstance.isActive()) {
+        if (!session.isActive()) {
             return;
         }
-        qInvocationSessionInstance.setCaretMovementReason(CaretMovementReason.MOUSE);
-        int invocationOffset = qInvocationSessionInstance.getInvocationOffset();
+        session.setCaretMovementReason(CaretMovementReason.MOUSE);
+        int invocationOffset = session.getInvocationOffset();
         int currentOffset = invocationOffset + distanceTraversed;
         int lastKnownLine = widget.getLineAtOffset(currentOffset);
-        qInvocationSessionInstance.transitionToDecisionMade(lastKnownLine + 1);
-        qInvocationSessionInstance.endImmediately();
+        session.transitionToDecisionMade(lastKnownLine + 1);
+        session.endImmediately();
         return;
     }
 
@@ -429,4 +541,8 @@ public final class QInlineInputListener implements IDocumentListener, VerifyKeyL
     public void mouseUp(final MouseEvent e) {
         return;
     }
+
+    private record PreparedSuggestion(InlineSuggestionModel model, List<IQInlineSuggestionSegment> segments,
+            List<List<IQInlineSuggestionSegment>> segmentsByLine, IQInlineBracket[] brackets) {
+    }
 }
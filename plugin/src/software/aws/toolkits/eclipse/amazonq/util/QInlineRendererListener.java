@@ -19,49 +19,62 @@ import static software.aws.toolkits.eclipse.amazonq.util.QEclipseEditorUtils.sho
 
 public class QInlineRendererListener implements PaintListener {
 
+    private final QInvocationSession session;
     private PopupDialog popup;
 
+    public QInlineRendererListener(final QInvocationSession session) {
+        this.session = session;
+    }
+
     @Override
     public final void paintControl(final PaintEvent e) {
-        var qInvocationSessionInstance = QInvocationSession.getInstance();
-        if (!qInvocationSessionInstance.isPreviewingSuggestions()) {
+        if (!session.isPreviewingSuggestions()) {
             return;
         }
 
         var gc = e.gc;
-        var widget = qInvocationSessionInstance.getViewer().getTextWidget();
-        int invocationOffset = qInvocationSessionInstance.getInvocationOffset();
+        var widget = session.getViewer().getTextWidget();
+        int invocationOffset = session.getInvocationOffset();
         int currentOffset = widget.getCaretOffset();
 
         if (currentOffset < invocationOffset) {
-            qInvocationSessionInstance.end();
+            session.end();
             return;
         }
 
         var invocationLine = widget.getLineAtOffset(invocationOffset);
-        var segments = qInvocationSessionInstance.getSegments();
         var caretLine = widget.getLineAtOffset(currentOffset);
-        int numSuggestionLines = qInvocationSessionInstance.getNumSuggestionLines();
+        int numSuggestionLines = session.getNumSuggestionLines();
 
-        if (shouldIndentVertically(widget, caretLine) && qInvocationSessionInstance.isPreviewingSuggestions()) {
+        if (shouldIndentVertically(widget, caretLine) && session.isPreviewingSuggestions()) {
             Point textExtent = gc.stringExtent(" ");
             int height = textExtent.y * (numSuggestionLines - (caretLine - invocationLine) - 1);
             height = Math.max(height, 0);
-            qInvocationSessionInstance.setVerticalIndent(caretLine + 1, height);
+            session.setVerticalIndent(caretLine + 1, height);
         } else if (caretLine + 1 == (invocationLine + numSuggestionLines)) {
-            qInvocationSessionInstance.unsetVerticalIndent(caretLine + 1);
+            session.unsetVerticalIndent(caretLine + 1);
         }
 
-        for (int i = 0; i < segments.size(); i++) {
-            segments.get(i).render(gc, widget.getCaretOffset());
+        // Suggestion line n is drawn about n line heights below the invocation line, so only
+        // the lines overlapping the clip need to be visited, however long the suggestion.
+        // The range is measured from the invocation line's own pixel, as the lines above it
+        // may be wrapped or carry vertical indents and code minings.
+        int lineHt = Math.max(widget.getLineHeight(), 1);
+        int invocationPixel = widget.getLinePixel(invocationLine);
+        int firstLine = Math.max(0, Math.floorDiv(e.y - invocationPixel, lineHt) - 1);
+        int lastLine = Math.min(numSuggestionLines - 1, Math.floorDiv(e.y + e.height - invocationPixel, lineHt) + 1);
+        for (int line = firstLine; line <= lastLine; line++) {
+            for (var segment : session.getSegmentsOnLine(line)) {
+                segment.render(gc, currentOffset);
+            }
         }
+        session.onSuggestionPainted();
     }
 
     public final void onNewSuggestion() {
         if (popup != null) {
             popup.close();
         }
-        QInvocationSession session = QInvocationSession.getInstance();
         InlineCompletionItem currentSuggestion = session.getCurrentSuggestion();
         InlineCompletionReference[] referencesForCurrentSuggestion = currentSuggestion.getReferences();
         if (referencesForCurrentSuggestion == null || referencesForCurrentSuggestion.length == 0) {
@@ -21,9 +21,11 @@ public final class QInlineSuggestionCloseBracketSegment implements IQInlineSugge
     private TextLayout layout;
     private TextLayout measureLayout;
     private boolean isMacOS;
+    private final QInvocationSession session;
 
-    public QInlineSuggestionCloseBracketSegment(final int caretOffset, final int lineInSuggestion, final String text,
-            final char symbol, final boolean isMacOS) {
+    public QInlineSuggestionCloseBracketSegment(final QInvocationSession session, final int caretOffset,
+            final int lineInSuggestion, final String text, final char symbol, final boolean isMacOS) {
+        this.session = session;
         this.caretOffset = caretOffset;
         this.symbol = symbol;
         this.lineInSuggestion = lineInSuggestion;
@@ -31,13 +33,12 @@ public final class QInlineSuggestionCloseBracketSegment implements IQInlineSugge
         this.layout = isMacOS ? null : new TextLayout(Display.getCurrent());
         this.isMacOS = isMacOS;
 
-        var qInvocationSessionInstance = QInvocationSession.getInstance();
-        adjustedTypedFont = qInvocationSessionInstance.getBoldInlineFont();
+        adjustedTypedFont = session.getBoldInlineFont();
         if (!isMacOS) {
-            int[] tabStops = qInvocationSessionInstance.getViewer().getTextWidget().getTabStops();
+            int[] tabStops = session.getViewer().getTextWidget().getTabStops();
             measureLayout = new TextLayout(Display.getCurrent());
             measureLayout.setText(text);
-            measureLayout.setFont(qInvocationSessionInstance.getInlineTextFont());
+            measureLayout.setFont(session.getInlineTextFont());
             measureLayout.setTabs(tabStops);
         }
     }
@@ -60,15 +61,14 @@ public final class QInlineSuggestionCloseBracketSegment implements IQInlineSugge
         if (currentCaretOffset > caretOffset) {
             return;
         }
-        var qInvocationSessionInstance = QInvocationSession.getInstance();
-        if (qInvocationSessionInstance == null) {
+        if (session == null) {
             return;
         }
-        var widget = qInvocationSessionInstance.getViewer().getTextWidget();
+        var widget = session.getViewer().getTextWidget();
 
         int x;
         int y;
-        int invocationOffset = qInvocationSessionInstance.getInvocationOffset();
+        int invocationOffset = session.getInvocationOffset();
         int invocationLine = widget.getLineAtOffset(invocationOffset);
         int lineHt = widget.getLineHeight();
         int fontHt = gc.getFontMetrics().getHeight();
@@ -96,10 +96,10 @@ public final class QInlineSuggestionCloseBracketSegment implements IQInlineSugge
         } else {
             if (isMacOS) {
                 gc.setForeground(Q_INLINE_HINT_TEXT_COLOR);
-                gc.setFont(qInvocationSessionInstance.getInlineTextFont());
+                gc.setFont(session.getInlineTextFont());
                 gc.drawText(textToRender, x, y, true);
             } else {
-                layout.setFont(qInvocationSessionInstance.getInlineTextFont());
+                layout.setFont(session.getInlineTextFont());
                 layout.setText(textToRender);
                 layout.setTabs(widget.getTabStops());
                 gc.setAlpha(127);
@@ -108,6 +108,11 @@ public final class QInlineSuggestionCloseBracketSegment implements IQInlineSugge
         }
     }
 
+    @Override
+    public int getLineInSuggestion() {
+        return lineInSuggestion;
+    }
+
     @Override
     public void onTypeOver() {
         openBracket.setResolve(true);
@@ -21,10 +21,13 @@ public final class QInlineSuggestionNormalSegment implements IQInlineSuggestionS
     private String text;
     private StyleRange styleRange = new StyleRange();
     private TextLayout layout;
+    private int glyphWidth = -1;
     private boolean isMacOS;
+    private final QInvocationSession session;
 
-    public QInlineSuggestionNormalSegment(final int startCaretPosition, final int endCaretPosition,
-            final int lineInSuggestion, final String text, final boolean isMacOS) {
+    public QInlineSuggestionNormalSegment(final QInvocationSession session, final int startCaretPosition,
+            final int endCaretPosition, final int lineInSuggestion, final String text, final boolean isMacOS) {
+        this.session = session;
         this.isMacOS = isMacOS;
         this.text = text;
         this.startCaretOffset = startCaretPosition;
@@ -38,16 +41,15 @@ public final class QInlineSuggestionNormalSegment implements IQInlineSuggestionS
         if (currentCaretOffset > endCaretOffset) {
             return;
         }
-        var qInvocationSessionInstance = QInvocationSession.getInstance();
-        if (qInvocationSessionInstance == null) {
+        if (session == null) {
             return;
         }
-        var widget = qInvocationSessionInstance.getViewer().getTextWidget();
+        var widget = session.getViewer().getTextWidget();
 
         int x;
         int y;
         String textToRender;
-        int invocationLine = widget.getLineAtOffset(qInvocationSessionInstance.getInvocationOffset());
+        int invocationLine = widget.getLineAtOffset(session.getInvocationOffset());
         int lineHt = widget.getLineHeight();
         int fontHt = gc.getFontMetrics().getHeight();
         y = (invocationLine + lineInSuggestion + 1) * lineHt - fontHt;
@@ -61,11 +63,17 @@ public final class QInlineSuggestionNormalSegment implements IQInlineSuggestionS
             String contentInLine = widget.getLine(curLineInDoc);
             String rightCtxInLine = contentInLine.substring(lineIdx);
             if (!rightCtxInLine.isBlank() && !text.endsWith("\n")) {
-                styleRange.start = currentCaretOffset;
-                styleRange.length = 1;
-                styleRange.metrics = new GlyphMetrics(0, 0, gc.textExtent(textToRender).x + gc.textExtent(" ").x);
-                styleRange.foreground = widget.getBackground();
-                widget.setStyleRange(styleRange);
+                int width = gc.textExtent(textToRender).x + gc.textExtent(" ").x;
+                // setting a style range redraws the widget, so only do it when the glyph changes
+                // or a reconciler has replaced the style range and wiped its metrics
+                if (styleRange.start != currentCaretOffset || glyphWidth != width || !isGlyphApplied(widget, currentCaretOffset, width)) {
+                    styleRange.start = currentCaretOffset;
+                    styleRange.length = 1;
+                    styleRange.metrics = new GlyphMetrics(0, 0, width);
+                    styleRange.foreground = widget.getBackground();
+                    widget.setStyleRange(styleRange);
+                    glyphWidth = width;
+                }
                 // also include the character right of the caret that is covered by the glyph
                 textToRender += contentInLine.charAt(lineIdx);
             }
@@ -81,24 +89,45 @@ public final class QInlineSuggestionNormalSegment implements IQInlineSuggestionS
         y -= scrollOffsetY;
 
         if (!isMacOS) {
+            // TextLayout keeps its line layout while text, font and tabs are unchanged,
+            // so lines the caret has not reached are laid out once per suggestion
             layout.setText(textToRender);
-            layout.setFont(qInvocationSessionInstance.getInlineTextFont());
+            layout.setFont(session.getInlineTextFont());
             layout.setTabs(widget.getTabStops());
             gc.setAlpha(127);
             layout.draw(gc, x, y);
         } else {
             gc.setForeground(Q_INLINE_HINT_TEXT_COLOR);
-            gc.setFont(qInvocationSessionInstance.getInlineTextFont());
+            gc.setFont(session.getInlineTextFont());
             gc.drawText(textToRender, x, y, true);
         }
     }
 
+    /*
+     * Returns whether the widget still shows the glyph at the given offset. Reconcilers and
+     * presentation updates replace the style ranges, which drops the metrics without telling us.
+     */
+    private static boolean isGlyphApplied(final StyledText widget, final int offset, final int width) {
+        StyleRange current = widget.getStyleRangeAtOffset(offset);
+        return current != null && current.metrics != null && current.metrics.width == width;
+    }
+
+    @Override
+    public int getLineInSuggestion() {
+        return lineInSuggestion;
+    }
+
+    @Override
+    public void reset() {
+        // another suggestion may have replaced the glyph in the meantime
+        glyphWidth = -1;
+    }
+
     @Override
     public void cleanUp() {
         if (layout != null) {
             layout.dispose();
         }
-        QInvocationSession session = QInvocationSession.getInstance();
         if (!session.isActive()) {
             return;
         }
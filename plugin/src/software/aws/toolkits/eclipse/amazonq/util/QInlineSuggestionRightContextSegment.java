@@ -13,15 +13,17 @@ import org.eclipse.swt.graphics.Point;
 public final class QInlineSuggestionRightContextSegment implements IQInlineSuggestionSegment {
     private String text;
     private String firstLineInSuggestion;
+    private final QInvocationSession session;
 
-    public QInlineSuggestionRightContextSegment(final String text, final String firstLineInSuggestion) {
+    public QInlineSuggestionRightContextSegment(final QInvocationSession session, final String text,
+            final String firstLineInSuggestion) {
+        this.session = session;
         this.text = text;
         this.firstLineInSuggestion = firstLineInSuggestion;
     }
 
     @Override
     public void render(final GC gc, final int currentCaretOffset) {
-        QInvocationSession session = QInvocationSession.getInstance();
         if (session == null) {
             return;
         }
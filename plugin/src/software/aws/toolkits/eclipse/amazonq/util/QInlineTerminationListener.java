@@ -7,6 +7,11 @@ import org.eclipse.swt.events.FocusEvent;
 import org.eclipse.swt.events.FocusListener;
 
 public final class QInlineTerminationListener implements FocusListener {
+    private final QInvocationSession session;
+
+    public QInlineTerminationListener(final QInvocationSession session) {
+        this.session = session;
+    }
 
     @Override
     public void focusGained(final FocusEvent e) {
@@ -16,7 +21,6 @@ public final class QInlineTerminationListener implements FocusListener {
 
     @Override
     public void focusLost(final FocusEvent e) {
-        QInvocationSession session = QInvocationSession.getInstance();
         if (session.isActive()) {
             session.endImmediately();
         }
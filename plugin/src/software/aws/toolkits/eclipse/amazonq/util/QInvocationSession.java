@@ -17,17 +17,19 @@ import org.eclipse.ui.texteditor.ITextEditor;
 
 import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionItem;
 import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionParams;
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionResponse;
 import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionStates;
 import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionTriggerKind;
 import software.aws.toolkits.eclipse.amazonq.lsp.model.LogInlineCompletionSessionResultsParams;
 import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
 import software.aws.toolkits.eclipse.amazonq.views.model.InlineSuggestionCodeReference;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -41,16 +43,17 @@ import static software.aws.toolkits.eclipse.amazonq.util.SuggestionTextUtil.repl
 
 public final class QInvocationSession extends QResource {
 
-    // Static variable to hold the single instance
-    private static QInvocationSession instance;
-
     private volatile QInvocationSessionState state = QInvocationSessionState.INACTIVE;
     private CaretMovementReason caretMovementReason = CaretMovementReason.UNEXAMINED;
     private boolean suggestionAccepted = false;
     private final boolean isMacOS;
 
     private QSuggestionsContext suggestionsContext = null;
-    private final ConcurrentHashMap<String, InlineCompletionStates> suggestionCompletionResults = new ConcurrentHashMap<String, InlineCompletionStates>();
+    // what has been typed ahead decides which suggestions are discarded, so their states are only put together when logged
+    private TypeaheadFilter typeaheadFilter = null;
+    private boolean[] seenSuggestions = null;
+    private int acceptedSuggestionIndex = -1;
+    private boolean allSuggestionsDiscarded = false;
     private IContextService contextService;
     private IContextActivation contextActivation;
 
@@ -67,26 +70,28 @@ public final class QInvocationSession extends QResource {
     private final boolean isTabOnly = false;
     private Consumer<Integer> unsetVerticalIndent;
     private final ConcurrentHashMap<UUID, Future<?>> unresolvedTasks = new ConcurrentHashMap<>();
-    private Runnable changeStatusToQuerying;
-    private Runnable changeStatusToIdle;
-    private Runnable changeStatusToPreviewing;
+    private volatile CompletableFuture<InlineCompletionResponse> cacheRefresh;
+    private final InlineCompletionPrefetcher prefetcher = new InlineCompletionPrefetcher();
     private boolean hasSeenFirstSuggestion = false;
     private long firstSuggestionDisplayLatency;
     private final StopWatch suggestionDisplaySessionStopWatch = new StopWatch();
     private Optional<Integer> initialTypeaheadLength = Optional.empty();
+    private InlineCompletionLatencyRecorder.Trace firstPaintTrace;
 
-    // Private constructor to prevent instantiation
-    private QInvocationSession() {
+    // Sessions are created per text viewer by QInvocationSessionRegistry
+    QInvocationSession() {
         // Initialization code here
         isMacOS = System.getProperty("os.name").toLowerCase().contains("mac");
     }
 
-    // Method to get the single instance
-    public static synchronized QInvocationSession getInstance() {
-        if (instance == null) {
-            instance = new QInvocationSession();
-        }
-        return instance;
+    // Returns the session of the editor that most recently started one
+    public static QInvocationSession getInstance() {
+        return QInvocationSessionRegistry.getInstance().getActiveSession();
+    }
+
+    // Returns the session for the given editor's viewer, creating it on first use
+    public static QInvocationSession getSession(final ITextEditor editor) {
+        return QInvocationSessionRegistry.getInstance().getSession(getActiveTextViewer(editor));
     }
 
     // TODO: separation of concerns between session attributes, session management,
@@ -107,6 +112,7 @@ public final class QInvocationSession extends QResource {
                 return false;
             }
             Activator.getLogger().info("Starting inline session");
+            QInvocationSessionRegistry.getInstance().activate(this);
             transitionToInvokingState();
             contextActivation = contextService.activateContext(Constants.INLINE_SUGGESTIONS_CONTEXT_ID);
 
@@ -119,7 +125,7 @@ public final class QInvocationSession extends QResource {
             }
 
             var widget = viewer.getTextWidget();
-            terminationListener = QEclipseEditorUtils.getInlineTerminationListener();
+            terminationListener = QEclipseEditorUtils.getInlineTerminationListener(this);
             widget.addFocusListener(terminationListener);
 
             suggestionsContext = new QSuggestionsContext();
@@ -136,198 +142,415 @@ public final class QInvocationSession extends QResource {
     private void attachListeners() {
         var widget = this.viewer.getTextWidget();
 
-        paintListener = new QInlineRendererListener();
+        paintListener = new QInlineRendererListener(this);
         widget.addPaintListener(paintListener);
 
-        inputListener = QEclipseEditorUtils.getInlineInputListener(widget);
+        inputListener = QEclipseEditorUtils.getInlineInputListener(this, widget);
         widget.addVerifyKeyListener(inputListener);
         widget.addMouseListener(inputListener);
 
-        caretListener = new QInlineCaretListener(widget);
+        caretListener = new QInlineCaretListener(this, widget);
         widget.addCaretListener(caretListener);
     }
 
     public void invoke(final int invocationOffset, final int inputLength) {
-        var session = QInvocationSession.getInstance();
-
+        long triggeredAt = getLatencyRecorder().nanoTime();
         try {
             int adjustedInvocationOffset = QEclipseEditorUtils.getOffsetInFullyExpandedDocument(viewer,
                     invocationOffset) + inputLength;
-            var params = InlineCompletionUtils.cwParamsFromContext(session.getEditor(), session.getViewer(),
+            var params = InlineCompletionUtils.cwParamsFromContext(editor, viewer,
                     adjustedInvocationOffset, InlineCompletionTriggerKind.Automatic);
-            queryAsync(params, invocationOffset + inputLength);
+            queryAsync(params, invocationOffset + inputLength, startTrace(params, triggeredAt));
         } catch (BadLocationException e) {
             Activator.getLogger().error("Unable to compute inline completion request from document", e);
         }
     }
 
     public void invoke() {
-        var session = QInvocationSession.getInstance();
-
+        long triggeredAt = getLatencyRecorder().nanoTime();
         try {
             int adjustedInvocationOffset = QEclipseEditorUtils.getOffsetInFullyExpandedDocument(viewer,
-                    session.getInvocationOffset());
-            var params = InlineCompletionUtils.cwParamsFromContext(session.getEditor(), session.getViewer(),
+                    invocationOffset);
+            var params = InlineCompletionUtils.cwParamsFromContext(editor, viewer,
                     adjustedInvocationOffset, InlineCompletionTriggerKind.Invoke);
-            queryAsync(params, session.getInvocationOffset());
+            queryAsync(params, invocationOffset, startTrace(params, triggeredAt));
         } catch (BadLocationException e) {
             Activator.getLogger().error("Unable to compute inline completion request from document", e);
         }
     }
 
-    private synchronized void queryAsync(final InlineCompletionParams params, final int invocationOffset) {
+    /*
+     * Starts following a request through the pipeline stages, marking the end of
+     * building its parameters.
+     */
+    private InlineCompletionLatencyRecorder.Trace startTrace(final InlineCompletionParams params,
+            final long triggeredAt) {
+        String uri = params.getTextDocument() != null ? params.getTextDocument().getUri() : null;
+        var trace = getLatencyRecorder().startTrace(uri != null ? LanguageUtil.extractLanguageFromFileUri(uri) : null,
+                triggeredAt);
+        trace.mark(InlineCompletionLatencyRecorder.Stage.TRIGGER_TO_REQUEST);
+        return trace;
+    }
+
+    private static InlineCompletionLatencyRecorder getLatencyRecorder() {
+        return QInvocationSessionRegistry.getInstance().getLatencyRecorder();
+    }
+
+    private synchronized void queryAsync(final InlineCompletionParams params, final int invocationOffset,
+            final InlineCompletionLatencyRecorder.Trace trace) {
+        cancelSupersededTasks();
         var uuid = UUID.randomUUID();
         Activator.getLogger().info(uuid + " queried made at " + invocationOffset);
-        var future = ThreadingUtils.executeAsyncTaskAndReturnFuture(() -> {
-            try {
-                var session = QInvocationSession.getInstance();
-                List<InlineCompletionItem> newSuggestions = new ArrayList<InlineCompletionItem>();
-                List<String> sessionId = new ArrayList<String>();
-                long requestInvocation = System.currentTimeMillis();
-
-                // request lsp for suggestions
-                var response = Activator.getLspProvider().getAmazonQServer().get()
-                        .inlineCompletionWithReferences(params);
-                response.thenAccept(result -> {
-                    sessionId.add(result.getSessionId());
-                    var suggestions = result.getItems().parallelStream().map(item -> {
-                        if (isTabOnly) {
-                            String sanitizedText = replaceSpacesWithTabs(item.getInsertText(), tabSize);
-                            item.setInsertText(sanitizedText);
-                        }
-                        return item;
-                    }).collect(Collectors.toList());
-                    newSuggestions.addAll(suggestions);
-                }).get();
-
-                Display.getDefault().asyncExec(() -> {
-                    unresolvedTasks.remove(uuid);
-
-                    if (newSuggestions == null || newSuggestions.isEmpty() || sessionId.get(0) == null || sessionId.get(0).isEmpty()) {
-                        if (!session.isPreviewingSuggestions()) {
-                            end();
-                        }
-                        Activator.getLogger().info(uuid + " returned with no result.");
-                        if (params.getContext().getTriggerKind() == InlineCompletionTriggerKind.Invoke) {
-                            Display display = Display.getDefault();
-                            String message = "Q returned no suggestions";
-                            QEclipseEditorUtils.showToast(message, display, 2000);
-                        }
-                        return;
-                    } else {
-                        Activator.getLogger().info(uuid + " returned with " + newSuggestions.size() + " results.");
-                    }
 
-                    suggestionsContext.setSessionId(sessionId.get(0));
-                    suggestionsContext.setRequestedAtEpoch(requestInvocation);
-                    suggestionsContext.getDetails()
-                            .addAll(newSuggestions.stream().map(QSuggestionContext::new).collect(Collectors.toList()));
-
-                    initializeSuggestionCompletionResults();
-
-                    // If the caret positions has moved on from the invocation offset, we need to
-                    // see if there exists in the suggestions fetched
-                    // one more suggestions that qualify for what has been typed since the
-                    // invocation.
-                    // Note that we should not remove the ones that have been disqualified by the
-                    // content typed since the user might still want to explore them.
-                    int currentIdxInSuggestion = 0;
-                    boolean hasAMatch = false;
-                    var viewer = session.getViewer();
-                    if (viewer == null || viewer.getTextWidget() == null || viewer.getTextWidget().getCaretOffset() < invocationOffset) {
-                        // discard all suggestions since the current caret is behind request position
-                        updateCompletionStates(new ArrayList<String>());
-                        end();
-                        return;
-                    }
+        var cacheSnapshot = getCacheSnapshot(params);
+        var suggestionCache = QInvocationSessionRegistry.getInstance().getSuggestionCache();
+        var cachedSuggestions = cacheSnapshot.flatMap(suggestionCache::get);
+        if (cachedSuggestions.isPresent()) {
+            var hit = cachedSuggestions.get();
+            Activator.getLogger().info(uuid + " served from cache, hit rate " + suggestionCache.getHitRate());
+            // a cached response involves no server round trip
+            trace.skip();
+            unresolvedTasks.put(uuid, presentSuggestions(uuid, params, invocationOffset - hit.typedLength(),
+                    hit.sessionId(), hit.items(), System.currentTimeMillis(), trace));
+            refreshCache(params, cacheSnapshot.get());
+            return;
+        }
+
+        // a request prefetched after the last acceptance may already be under way for this position
+        var prefetched = cacheSnapshot.flatMap(prefetcher::claim);
+        int requestOffset = invocationOffset - prefetched.map(InlineCompletionPrefetcher.Claim::typedLength).orElse(0);
+        if (prefetched.isPresent()) {
+            Activator.getLogger().info(uuid + " using prefetched request");
+        }
+
+        // request lsp for suggestions; no thread waits for the response, and cancelling
+        // the request when it is superseded lets the server stop working on it too
+        long requestInvocation = System.currentTimeMillis();
+        CompletableFuture<InlineCompletionResponse> response = prefetched.map(InlineCompletionPrefetcher.Claim::response)
+                .orElseGet(() -> requestSuggestions(params));
+        unresolvedTasks.put(uuid, response);
+        response.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                handleFailedQuery(uuid, throwable);
+                return;
+            }
+            // a prefetched response arrives early and says nothing about server latency
+            if (prefetched.isEmpty()) {
+                QInvocationSessionRegistry.getInstance().onResponseLatency(System.currentTimeMillis() - requestInvocation);
+                trace.mark(InlineCompletionLatencyRecorder.Stage.REQUEST_TO_RESPONSE);
+            } else {
+                trace.skip();
+            }
+            String sessionId = result.getSessionId();
+            List<InlineCompletionItem> newSuggestions = toSuggestions(result);
+            cacheSnapshot.ifPresent(snapshot -> cacheSuggestions(snapshot, sessionId, newSuggestions));
+            if (!unresolvedTasks.containsKey(uuid)) {
+                Activator.getLogger().info(uuid + " returned after being superseded.");
+                return;
+            }
 
-                    if (viewer != null && viewer.getTextWidget() != null && viewer.getTextWidget().getCaretOffset() > invocationOffset) {
-                        var widget = viewer.getTextWidget();
-                        int currentOffset = widget.getCaretOffset();
-                        String prefix = widget.getTextRange(invocationOffset, currentOffset - invocationOffset);
-                        // Computes the typed prefix and typeahead length from when user invocation happened to
-                        // before suggestions are first shown in UI
-                        // Note: This computation may change later on but follows the same pattern for consistency across IDEs for now
-                        session.initialTypeaheadLength = Optional.of(prefix.length());
-
-                        for (int i = 0; i < newSuggestions.size(); i++) {
-                            if (newSuggestions.get(i).getInsertText().startsWith(prefix)) {
-                                currentIdxInSuggestion = i;
-                                hasAMatch = true;
-                                break;
-                            }
-                        }
-                        // indicates that typeahead prefix does not match any suggestions
-                        if (invocationOffset != currentOffset && !hasAMatch) {
-                            // all suggestions filtered out, mark them as discarded
-                            updateCompletionStates(new ArrayList<String>());
-                            end();
-                            return;
-                        }
-
-                        // if typeahead exists, mark all suggestions except for current suggestion index with match as discarded
-                        // As of Jan 25, current logic blocks users from toggling between suggestions when a typeahead exists in QToggleSuggestionsHandler
-                        if (invocationOffset != currentOffset && hasAMatch) {
-                            var currentSuggestion = suggestionsContext.getDetails().get(currentIdxInSuggestion);
-                            var filteredSuggestions = List.of(currentSuggestion.getInlineCompletionItem().getItemId());
-                            updateCompletionStates(filteredSuggestions);
-                        }
+            // track the presentation in place of the response, unless the request was superseded meanwhile
+            unresolvedTasks.replace(uuid, response,
+                    presentSuggestions(uuid, params, requestOffset, sessionId, newSuggestions, requestInvocation, trace));
+        });
+    }
+
+    /*
+     * Computes the models of all returned suggestions in parallel on the worker
+     * pool, then hands them to the UI thread to be previewed. Toggling between the
+     * suggestions afterwards only swaps between ready models. The returned future
+     * completes once the suggestions have been handed over.
+     */
+    private CompletableFuture<Void> presentSuggestions(final UUID uuid, final InlineCompletionParams params,
+            final int invocationOffset, final String sessionId, final List<InlineCompletionItem> newSuggestions,
+            final long requestInvocation, final InlineCompletionLatencyRecorder.Trace trace) {
+        return InlineSuggestionModel.precompute(newSuggestions, ThreadingUtils.getWorkerPool())
+                .thenAccept(models -> Display.getDefault().asyncExec(() -> {
+                    if (unresolvedTasks.remove(uuid) == null) {
+                        // superseded by a newer request or the session has ended
+                        Activator.getLogger().info(uuid + " returned after being superseded.");
+                        return;
                     }
+                    trace.mark(InlineCompletionLatencyRecorder.Stage.RESPONSE_TO_DISPATCH);
 
-                    session.invocationOffset = invocationOffset;
-                    suggestionsContext.setCurrentIndex(currentIdxInSuggestion);
+                    showSuggestions(uuid, params, invocationOffset, sessionId, newSuggestions, models,
+                            requestInvocation, trace);
+                }));
+    }
 
-                    session.transitionToPreviewingState();
-                    attachListeners();
-                    session.primeListeners();
-                    session.getViewer().getTextWidget().redraw();
-                });
-            } catch (InterruptedException e) {
-                Activator.getLogger().error("Inline completion interrupted", e);
-            } catch (Exception e) {
-                Activator.getLogger().error("Error executing inline completion", e);
+    private void handleFailedQuery(final UUID uuid, final Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+        if (cause instanceof CancellationException) {
+            Activator.getLogger().info(uuid + " cancelled before completion.");
+            return;
+        }
+        Activator.getLogger().error("Error executing inline completion", cause);
+        Display.getDefault().asyncExec(() -> {
+            if (unresolvedTasks.remove(uuid) != null && !isPreviewingSuggestions()) {
+                end();
             }
         });
-        unresolvedTasks.put(uuid, future);
     }
 
+    /*
+     * Previews the suggestions returned for a request made at the given widget
+     * offset. Runs on the UI thread.
+     */
+    private void showSuggestions(final UUID uuid, final InlineCompletionParams params, final int invocationOffset,
+            final String sessionId, final List<InlineCompletionItem> newSuggestions,
+            final List<InlineSuggestionModel> models, final long requestInvocation,
+            final InlineCompletionLatencyRecorder.Trace trace) {
+        if (newSuggestions == null || newSuggestions.isEmpty() || sessionId == null || sessionId.isEmpty()) {
+            if (!isPreviewingSuggestions()) {
+                end();
+            }
+            Activator.getLogger().info(uuid + " returned with no result.");
+            if (params.getContext().getTriggerKind() == InlineCompletionTriggerKind.Invoke) {
+                Display display = Display.getDefault();
+                String message = "Q returned no suggestions";
+                QEclipseEditorUtils.showToast(message, display, 2000);
+            }
+            return;
+        } else {
+            Activator.getLogger().info(uuid + " returned with " + newSuggestions.size() + " results.");
+        }
+
+        suggestionsContext.setSessionId(sessionId);
+        QInvocationSessionRegistry.getInstance().getSuggestionCache().markShown(sessionId);
+        suggestionsContext.setRequestedAtEpoch(requestInvocation);
+        for (int i = 0; i < newSuggestions.size(); i++) {
+            suggestionsContext.getDetails().add(new QSuggestionContext(newSuggestions.get(i), models.get(i)));
+        }
+
+        initializeSuggestionCompletionResults(newSuggestions);
+
+        // If the caret positions has moved on from the invocation offset, we need to
+        // see if there exists in the suggestions fetched
+        // one more suggestions that qualify for what has been typed since the
+        // invocation.
+        // Note that we should not remove the ones that have been disqualified by the
+        // content typed since the user might still want to explore them.
+        int currentIdxInSuggestion = 0;
+        var viewer = getViewer();
+        if (viewer == null || viewer.getTextWidget() == null || viewer.getTextWidget().getCaretOffset() < invocationOffset) {
+            // discard all suggestions since the current caret is behind request position
+            discardAllSuggestions();
+            end();
+            return;
+        }
+
+        if (viewer != null && viewer.getTextWidget() != null && viewer.getTextWidget().getCaretOffset() > invocationOffset) {
+            var widget = viewer.getTextWidget();
+            int currentOffset = widget.getCaretOffset();
+            String prefix = widget.getTextRange(invocationOffset, currentOffset - invocationOffset);
+            // Computes the typed prefix and typeahead length from when user invocation happened to
+            // before suggestions are first shown in UI
+            // Note: This computation may change later on but follows the same pattern for consistency across IDEs for now
+            initialTypeaheadLength = Optional.of(prefix.length());
+
+            typeaheadFilter.onTyped(prefix);
+            currentIdxInSuggestion = typeaheadFilter.nextMatch(-1, true);
+            // indicates that typeahead prefix does not match any suggestions
+            if (currentIdxInSuggestion < 0) {
+                end();
+                return;
+            }
+        }
+
+        this.invocationOffset = invocationOffset;
+        suggestionsContext.setCurrentIndex(currentIdxInSuggestion);
+
+        transitionToPreviewingState();
+        attachListeners();
+        primeListeners();
+        firstPaintTrace = trace;
+        getViewer().getTextWidget().redraw();
+    }
 
     /*
-     *  Updates completion state of each suggestion in the `suggestionCompletionResult` map, given the updated filtered suggestion list
-     * @param filteredSuggestions
+     * Called by the paint listener after it has drawn the suggestion. The first
+     * paint after a response is shown ends the request's latency trace.
      */
-    public void updateCompletionStates(final List<String> filteredSuggestions) {
-        // Mark all suggestions as unseen and discarded
-        suggestionCompletionResults.values().forEach(item -> {
-            item.setSeen(false);
-            item.setDiscarded(true);
+    void onSuggestionPainted() {
+        if (firstPaintTrace != null) {
+            firstPaintTrace.mark(InlineCompletionLatencyRecorder.Stage.DISPATCH_TO_FIRST_PAINT);
+            firstPaintTrace = null;
+        }
+    }
+
+    /*
+     * A new request makes every request still in flight stale: its result would be
+     * computed for an older caret position and document. Cancelling the task
+     * interrupts its wait on the server, which then cancels the server request.
+     */
+    private void cancelSupersededTasks() {
+        unresolvedTasks.forEach((uuid, task) -> {
+            if (unresolvedTasks.remove(uuid, task) && task.cancel(true)) {
+                Activator.getLogger().info(uuid + " superseded by a newer request.");
+            }
         });
+        cancelCacheRefresh();
+    }
+
+    private List<InlineCompletionItem> toSuggestions(final InlineCompletionResponse result) {
+        return result.getItems().stream().map(item -> {
+            if (isTabOnly) {
+                String sanitizedText = replaceSpacesWithTabs(item.getInsertText(), tabSize);
+                item.setInsertText(sanitizedText);
+            }
+            return item;
+        }).collect(Collectors.toList());
+    }
 
-        // Reset discarded state for filtered suggestions
-        filteredSuggestions.forEach(itemId -> {
-            var item = suggestionCompletionResults.get(itemId);
-            item.setDiscarded(false);
+    /*
+     * Captures the document state the request is made against, or nothing if the
+     * document has no URI to key the cache by.
+     */
+    private Optional<InlineSuggestionCache.Snapshot> getCacheSnapshot(final InlineCompletionParams params) {
+        if (viewer == null || params.getTextDocument() == null || params.getPosition() == null) {
+            return Optional.empty();
+        }
+        try {
+            var document = viewer.getDocument();
+            if (document == null) {
+                return Optional.empty();
+            }
+            int line = params.getPosition().getLine();
+            int lineOffset = document.getLineOffset(line);
+            int caretOffset = lineOffset + params.getPosition().getCharacter();
+            // only the window the fingerprints cover is copied out of the document
+            int start = Math.max(0, lineOffset - InlineSuggestionCache.CONTEXT_LENGTH);
+            int end = Math.min(document.getLength(), caretOffset + InlineSuggestionCache.CONTEXT_LENGTH);
+            return Optional.of(InlineSuggestionCache.snapshot(params.getTextDocument().getUri(),
+                    document.get(start, end - start), line, lineOffset - start, caretOffset - start));
+        } catch (BadLocationException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void cacheSuggestions(final InlineSuggestionCache.Snapshot snapshot, final String sessionId,
+            final List<InlineCompletionItem> suggestions) {
+        if (sessionId != null && !sessionId.isEmpty()) {
+            QInvocationSessionRegistry.getInstance().getSuggestionCache().put(snapshot, sessionId, suggestions);
+        }
+    }
+
+    /*
+     * Re-requests suggestions for a cache hit so the next hit at this position
+     * reflects the latest server response. The result only updates the cache; the
+     * suggestions being previewed are left alone.
+     */
+    private void refreshCache(final InlineCompletionParams params, final InlineSuggestionCache.Snapshot snapshot) {
+        var request = requestSuggestions(params);
+        cacheRefresh = request;
+        request.whenComplete((result, throwable) -> {
+            if (throwable == null) {
+                cacheSuggestions(snapshot, result.getSessionId(), toSuggestions(result));
+            } else if (!(throwable instanceof CancellationException)) {
+                Activator.getLogger().warn("Unable to refresh cached inline suggestions: " + throwable.getMessage());
+            }
         });
     }
 
     /*
-     * Mark all suggestions as unseen and not discarded
+     * Sends an inline completion request without waiting for the server to be
+     * available. Cancelling the returned future cancels the server request.
      */
-    public void resetCompletionStates() {
-        suggestionCompletionResults.values().forEach(item -> {
-            item.setSeen(false);
-            item.setDiscarded(false);
+    private CompletableFuture<InlineCompletionResponse> requestSuggestions(final InlineCompletionParams params) {
+        var response = new CompletableFuture<InlineCompletionResponse>();
+        Activator.getLspProvider().getAmazonQServer().thenAccept(server -> {
+            var request = server.inlineCompletionWithReferences(params);
+            response.whenComplete((result, throwable) -> request.cancel(true));
+            request.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    response.completeExceptionally(throwable);
+                } else {
+                    response.complete(result);
+                }
+            });
+        }).exceptionally(throwable -> {
+            response.completeExceptionally(throwable);
+            return null;
         });
+        return response;
+    }
+
+    /*
+     * Speculatively requests suggestions for the caret position right after an
+     * accepted suggestion, before the session holding the viewer ends. The next
+     * request made at that position picks up the response instead of sending its
+     * own; any other request cancels it.
+     */
+    public void prefetchNextSuggestions() {
+        if (editor == null || viewer == null || viewer.getTextWidget() == null) {
+            return;
+        }
+        try {
+            int caretOffset = viewer.getTextWidget().getCaretOffset();
+            int adjustedOffset = QEclipseEditorUtils.getOffsetInFullyExpandedDocument(viewer, caretOffset);
+            var params = InlineCompletionUtils.cwParamsFromContext(editor, viewer, adjustedOffset,
+                    InlineCompletionTriggerKind.Automatic);
+            getCacheSnapshot(params).ifPresent(snapshot -> prefetcher.prefetch(snapshot, requestSuggestions(params)));
+        } catch (BadLocationException e) {
+            Activator.getLogger().error("Unable to compute inline completion prefetch from document", e);
+        }
+    }
+
+    private void cancelCacheRefresh() {
+        var refresh = cacheRefresh;
+        if (refresh != null && !refresh.isDone()) {
+            refresh.cancel(true);
+        }
+        cacheRefresh = null;
+    }
+
+
+    private void initializeSuggestionCompletionResults(final List<InlineCompletionItem> suggestions) {
+        typeaheadFilter = new TypeaheadFilter(suggestions.stream().map(InlineCompletionItem::getInsertText).toList());
+        seenSuggestions = new boolean[suggestions.size()];
+        acceptedSuggestionIndex = -1;
+        allSuggestionsDiscarded = false;
+    }
+
+    /*
+     * Keeps the suggestions that still match in step with what is typed ahead
+     * while they are previewed. The index of each suggestion that stops matching
+     * is all that is kept, and its completion state is only worked out when the
+     * session results are sent.
+     */
+    public void onTypeahead(final String input) {
+        if (typeaheadFilter != null) {
+            typeaheadFilter.onTyped(input);
+        }
+    }
+
+    public void onTypeaheadDeleted(final int length) {
+        if (typeaheadFilter != null) {
+            typeaheadFilter.onDeleted(length);
+        }
     }
 
-    private void initializeSuggestionCompletionResults() {
-        suggestionsContext.getDetails().forEach(suggestion -> suggestionCompletionResults
-                .put(suggestion.getInlineCompletionItem().getItemId(), new InlineCompletionStates()));
+    /*
+     * Marks every suggestion as discarded, for when the session ends without any
+     * of them being taken up, whatever has been typed ahead.
+     */
+    public void discardAllSuggestions() {
+        allSuggestionsDiscarded = true;
     }
 
     public void setAccepted(final String suggestionId) {
-        var item =  Optional.ofNullable(suggestionCompletionResults.get(suggestionId));
-        item.ifPresent(result -> result.setAccepted(true));
+        if (suggestionsContext == null) {
+            return;
+        }
+        var details = suggestionsContext.getDetails();
+        for (int i = 0; i < details.size(); i++) {
+            if (StringUtils.equals(details.get(i).getInlineCompletionItem().getItemId(), suggestionId)) {
+                acceptedSuggestionIndex = i;
+                return;
+            }
+        }
     }
 
     /*
@@ -335,18 +558,16 @@ public final class QInvocationSession extends QResource {
      */
     public void markSuggestionAsSeen() {
         var index = suggestionsContext.getCurrentIndex();
-        var suggestion = suggestionsContext.getDetails().get(index);
-        var item = Optional
-                .ofNullable(suggestionCompletionResults.get(suggestion.getInlineCompletionItem().getItemId()));
-        item.ifPresent(result -> {
-            result.setSeen(true);
-            // if this was the first suggestion displayed, start suggestion session display timer and record first suggestion's display latency
-            if (!hasSeenFirstSuggestion) {
-                suggestionDisplaySessionStopWatch.start();
-                firstSuggestionDisplayLatency = System.currentTimeMillis() - suggestionsContext.getRequestedAtEpoch();
-                hasSeenFirstSuggestion = true;
-            }
-        });
+        if (seenSuggestions == null || index < 0 || index >= seenSuggestions.length) {
+            return;
+        }
+        seenSuggestions[index] = true;
+        // if this was the first suggestion displayed, start suggestion session display timer and record first suggestion's display latency
+        if (!hasSeenFirstSuggestion) {
+            suggestionDisplaySessionStopWatch.start();
+            firstSuggestionDisplayLatency = System.currentTimeMillis() - suggestionsContext.getRequestedAtEpoch();
+            hasSeenFirstSuggestion = true;
+        }
     }
 
     // Method to end the session
@@ -356,9 +577,7 @@ public final class QInvocationSession extends QResource {
                 int lastKnownLine = getLastKnownLine();
                 unsetVerticalIndent(lastKnownLine + 1);
             }
-            if (changeStatusToIdle != null) {
-                changeStatusToIdle.run();
-            }
+            QInvocationSessionRegistry.getInstance().onIdle(this);
             // Deactivate context
             if (contextService != null && contextActivation != null) {
                 contextService.deactivateContext(contextActivation);
@@ -380,9 +599,7 @@ public final class QInvocationSession extends QResource {
                 int lastKnownLine = getLastKnownLine();
                 unsetVerticalIndent(lastKnownLine + 1);
             }
-            if (changeStatusToIdle != null) {
-                changeStatusToIdle.run();
-            }
+            QInvocationSessionRegistry.getInstance().onIdle(this);
             // Deactivate context
             if (contextService != null && contextActivation != null) {
                 contextService.deactivateContext(contextActivation);
@@ -410,17 +627,13 @@ public final class QInvocationSession extends QResource {
     private synchronized void transitionToPreviewingState() {
         assert state == QInvocationSessionState.INVOKING;
         state = QInvocationSessionState.SUGGESTION_PREVIEWING;
-        if (changeStatusToPreviewing != null) {
-            changeStatusToPreviewing.run();
-        }
+        QInvocationSessionRegistry.getInstance().onPreviewing(this);
     }
 
     private void transitionToInvokingState() {
         assert state == QInvocationSessionState.INACTIVE;
         state = QInvocationSessionState.INVOKING;
-        if (changeStatusToQuerying != null) {
-            changeStatusToQuerying.run();
-        }
+        QInvocationSessionRegistry.getInstance().onQuerying(this);
     }
 
     public void transitionToDecisionMade() {
@@ -492,6 +705,17 @@ public final class QInvocationSession extends QResource {
         return details.get(index).getInlineCompletionItem();
     }
 
+    public InlineSuggestionModel getCurrentSuggestionModel() {
+        if (getCurrentSuggestion() == null) {
+            return null;
+        }
+        return suggestionsContext.getDetails().get(suggestionsContext.getCurrentIndex()).getModel();
+    }
+
+    public int getCurrentSuggestionIndex() {
+        return suggestionsContext.getCurrentIndex();
+    }
+
     public int getNumberOfSuggestions() {
         return suggestionsContext.getNumberOfSuggestions();
     }
@@ -501,23 +725,53 @@ public final class QInvocationSession extends QResource {
     }
 
     public void decrementCurrentSuggestionIndex() {
-        if (suggestionsContext != null && suggestionsContext.getNumberOfSuggestions() > 1) {
-            suggestionsContext.decrementIndex();
-            primeListeners();
-            getViewer().getTextWidget().redraw();
-        }
+        showNextMatchingSuggestion(false);
     }
 
     public void incrementCurentSuggestionIndex() {
-        if (suggestionsContext != null && suggestionsContext.getNumberOfSuggestions() > 1) {
-            suggestionsContext.incrementIndex();
-            primeListeners();
-            getViewer().getTextWidget().redraw();
+        showNextMatchingSuggestion(true);
+    }
+
+    /*
+     * Toggling only goes through the suggestions that still match what has been
+     * typed ahead. The typed text has to be on one line, since the right context
+     * of the line is moved under the suggestion shown.
+     */
+    public boolean canToggleSuggestions() {
+        return isPreviewingSuggestions() && typeaheadFilter != null && typeaheadFilter.getMatchCount() > 1
+                && typeaheadFilter.isTypedOnOneLine();
+    }
+
+    public boolean isCurrentSuggestionMatching() {
+        return typeaheadFilter == null || typeaheadFilter.matches(suggestionsContext.getCurrentIndex());
+    }
+
+    /*
+     * Whether another suggestion can be shown once what has been typed ahead no
+     * longer matches the one shown, instead of the session ending.
+     */
+    public boolean hasMatchingSuggestion() {
+        return typeaheadFilter != null && typeaheadFilter.getMatchCount() > 0 && typeaheadFilter.isTypedOnOneLine();
+    }
+
+    public void showMatchingSuggestion() {
+        if (!isCurrentSuggestionMatching()) {
+            showNextMatchingSuggestion(true);
         }
     }
 
-    public boolean hasBeenTypedahead() {
-        return getInvocationOffset() != getViewer().getTextWidget().getCaretOffset();
+    private void showNextMatchingSuggestion(final boolean forward) {
+        if (suggestionsContext == null || typeaheadFilter == null) {
+            return;
+        }
+        int currentIndex = suggestionsContext.getCurrentIndex();
+        int nextIndex = typeaheadFilter.nextMatch(currentIndex, forward);
+        if (nextIndex < 0 || nextIndex == currentIndex) {
+            return;
+        }
+        suggestionsContext.setCurrentIndex(nextIndex);
+        primeListeners();
+        getViewer().getTextWidget().redraw();
     }
 
     public void executeCallbackForCodeReference() {
@@ -527,7 +781,7 @@ public final class QInvocationSession extends QResource {
 
         var references = selectedSuggestion.getReferences();
         var suggestionText = selectedSuggestion.getInsertText();
-        var filename = instance.getEditor().getTitle();
+        var filename = editor.getTitle();
         InlineSuggestionCodeReference codeReference = new InlineSuggestionCodeReference(references, suggestionText, filename, startLine);
 
         Activator.getCodeReferenceLoggingService().log(codeReference);
@@ -552,6 +806,10 @@ public final class QInvocationSession extends QResource {
         return inputListener.getSegments();
     }
 
+    public List<IQInlineSuggestionSegment> getSegmentsOnLine(final int lineInSuggestion) {
+        return inputListener.getSegmentsOnLine(lineInSuggestion);
+    }
+
     public int getNumSuggestionLines() {
         return inputListener.getNumSuggestionLines();
     }
@@ -577,6 +835,8 @@ public final class QInvocationSession extends QResource {
                 future.get();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
+            } catch (CancellationException e) {
+                // superseded, nothing left to wait for
             } catch (ExecutionException e) {
                 // Propagate the execution exception
                 throw e;
@@ -584,18 +844,6 @@ public final class QInvocationSession extends QResource {
         }
     }
 
-    public void assignQueryingCallback(final Runnable runnable) {
-        changeStatusToQuerying = runnable;
-    }
-
-    public void assignIdlingCallback(final Runnable runnable) {
-        changeStatusToIdle = runnable;
-    }
-
-    public void assignPreviewingCallback(final Runnable runnable) {
-        changeStatusToPreviewing = runnable;
-    }
-
     public Font getBoldInlineFont() {
         return inlineTextFontBold;
     }
@@ -617,14 +865,8 @@ public final class QInvocationSession extends QResource {
                 suggestionDisplaySessionStopWatch.stop();
             }
 
-            final ConcurrentHashMap<String, InlineCompletionStates> completionStatesCopy = new ConcurrentHashMap<String, InlineCompletionStates>();
-            // Explicitly copy the map contents
-            for (Map.Entry<String, InlineCompletionStates> entry : suggestionCompletionResults.entrySet()) {
-                completionStatesCopy.put(String.valueOf(entry.getKey()), entry.getValue());
-            }
-
             var result = new LogInlineCompletionSessionResultsParams(suggestionsContext.getSessionId(),
-                    completionStatesCopy);
+                    collectCompletionStates());
             if (firstSuggestionDisplayLatency > 0L) {
                 result.setFirstCompletionDisplayLatency(firstSuggestionDisplayLatency);
             }
@@ -637,6 +879,7 @@ public final class QInvocationSession extends QResource {
             if (initialTypeaheadLength.isPresent()) {
                 result.setTypeaheadLength(initialTypeaheadLength.get());
             }
+            QInvocationSessionRegistry.getInstance().getSuggestionCache().invalidate(suggestionsContext.getSessionId());
             sendCompletionSessionResult(result);
         } catch (Exception e) {
             Activator.getLogger()
@@ -644,7 +887,45 @@ public final class QInvocationSession extends QResource {
         }
     }
 
-    private void sendCompletionSessionResult(final LogInlineCompletionSessionResultsParams result)
+    /*
+     * A suggestion is discarded once what has been typed ahead rules it out, and
+     * only counts as seen if it was shown and not discarded.
+     */
+    private ConcurrentHashMap<String, InlineCompletionStates> collectCompletionStates() {
+        var completionStates = new ConcurrentHashMap<String, InlineCompletionStates>();
+        var details = suggestionsContext.getDetails();
+        for (int i = 0; i < details.size(); i++) {
+            var states = new InlineCompletionStates();
+            boolean discarded = allSuggestionsDiscarded || typeaheadFilter == null || !typeaheadFilter.matches(i);
+            states.setDiscarded(discarded);
+            states.setSeen(!discarded && seenSuggestions != null && seenSuggestions[i]);
+            states.setAccepted(i == acceptedSuggestionIndex);
+            completionStates.put(details.get(i).getInlineCompletionItem().getItemId(), states);
+        }
+        return completionStates;
+    }
+
+    /*
+     * Closes the server session of suggestions that were cached but never shown,
+     * reporting all of them as discarded.
+     */
+    static void logUnshownSession(final String sessionId, final List<InlineCompletionItem> items) {
+        var completionStates = new ConcurrentHashMap<String, InlineCompletionStates>();
+        for (var item : items) {
+            var states = new InlineCompletionStates();
+            states.setDiscarded(true);
+            states.setSeen(false);
+            states.setAccepted(false);
+            completionStates.put(item.getItemId(), states);
+        }
+        try {
+            sendCompletionSessionResult(new LogInlineCompletionSessionResultsParams(sessionId, completionStates));
+        } catch (Exception e) {
+            Activator.getLogger().error("Error occurred when sending unshown suggestion results to Amazon Q language server", e);
+        }
+    }
+
+    private static void sendCompletionSessionResult(final LogInlineCompletionSessionResultsParams result)
             throws InterruptedException, ExecutionException {
         ThreadingUtils.executeAsyncTask(() -> {
             Activator.getLspProvider().getAmazonQServer().thenAccept(lsp -> lsp.logInlineCompletionSessionResult(result));
@@ -655,8 +936,12 @@ public final class QInvocationSession extends QResource {
         hasSeenFirstSuggestion = false;
         firstSuggestionDisplayLatency = 0L;
         suggestionDisplaySessionStopWatch.reset();
-        suggestionCompletionResults.clear();
+        typeaheadFilter = null;
+        seenSuggestions = null;
+        acceptedSuggestionIndex = -1;
+        allSuggestionsDiscarded = false;
         initialTypeaheadLength = Optional.empty();
+        firstPaintTrace = null;
     }
 
     // Additional methods for the session can be added here
@@ -684,6 +969,7 @@ public final class QInvocationSession extends QResource {
             }
         });
         unresolvedTasks.clear();
+        cancelCacheRefresh();
         if (inputListener != null) {
             inputListener.beforeRemoval();
             widget.removeVerifyKeyListener(inputListener);
@@ -0,0 +1,154 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+import org.eclipse.jface.text.ITextViewer;
+
+/**
+ * Keeps one {@link QInvocationSession} per text viewer, so every editor, split
+ * editor and window has its own suggestion state, listeners and requests, and
+ * sessions never lock against or end one another.
+ *
+ * The registry also tracks which session is active, that is the one most
+ * recently started, which the suggestion handlers and the status bar act on.
+ * State that is not tied to one editor, such as the suggestion cache, the
+ * latency histograms and the status bar callbacks, lives here and is shared by
+ * all sessions.
+ */
+public final class QInvocationSessionRegistry {
+    private static final int SUGGESTION_CACHE_SIZE = 64;
+    private static final QInvocationSessionRegistry INSTANCE = new QInvocationSessionRegistry();
+
+    private final Map<ITextViewer, QInvocationSession> sessions = new ConcurrentHashMap<>();
+    private final InlineSuggestionCache suggestionCache = new InlineSuggestionCache(SUGGESTION_CACHE_SIZE,
+            QInvocationSession::logUnshownSession);
+    private final InlineCompletionLatencyRecorder latencyRecorder = new InlineCompletionLatencyRecorder();
+    // stands in for the active session until one is started, so callers always get a session to query
+    private final QInvocationSession detachedSession = new QInvocationSession();
+    private volatile QInvocationSession activeSession;
+    private volatile Runnable changeStatusToQuerying;
+    private volatile Runnable changeStatusToIdle;
+    private volatile Runnable changeStatusToPreviewing;
+    private volatile LongConsumer responseLatencyCallback;
+
+    private QInvocationSessionRegistry() {
+        // singleton
+    }
+
+    public static QInvocationSessionRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /*
+     * Returns the session for the given viewer, creating it on first use. The
+     * session is dropped once the viewer's widget is disposed.
+     */
+    public QInvocationSession getSession(final ITextViewer viewer) {
+        if (viewer == null) {
+            return detachedSession;
+        }
+        return sessions.computeIfAbsent(viewer, key -> {
+            var widget = key.getTextWidget();
+            if (widget != null) {
+                widget.addDisposeListener(e -> remove(key));
+            }
+            return new QInvocationSession();
+        });
+    }
+
+    public QInvocationSession getActiveSession() {
+        QInvocationSession session = activeSession;
+        return session != null ? session : detachedSession;
+    }
+
+    /*
+     * Hands focus over to the given session. The previously active session keeps
+     * its own state and is ended by its own termination listener, not by this
+     * handoff, so only the status bar switches over.
+     */
+    void activate(final QInvocationSession session) {
+        if (activeSession == session) {
+            return;
+        }
+        activeSession = session;
+        if (session.isPreviewingSuggestions()) {
+            run(changeStatusToPreviewing);
+        } else if (session.isActive()) {
+            run(changeStatusToQuerying);
+        } else {
+            run(changeStatusToIdle);
+        }
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public InlineSuggestionCache getSuggestionCache() {
+        return suggestionCache;
+    }
+
+    public InlineCompletionLatencyRecorder getLatencyRecorder() {
+        return latencyRecorder;
+    }
+
+    public void assignQueryingCallback(final Runnable runnable) {
+        changeStatusToQuerying = runnable;
+    }
+
+    public void assignIdlingCallback(final Runnable runnable) {
+        changeStatusToIdle = runnable;
+    }
+
+    public void assignPreviewingCallback(final Runnable runnable) {
+        changeStatusToPreviewing = runnable;
+    }
+
+    public void assignResponseLatencyCallback(final LongConsumer callback) {
+        responseLatencyCallback = callback;
+    }
+
+    void onQuerying(final QInvocationSession session) {
+        runIfActive(session, changeStatusToQuerying);
+    }
+
+    void onIdle(final QInvocationSession session) {
+        runIfActive(session, changeStatusToIdle);
+    }
+
+    void onPreviewing(final QInvocationSession session) {
+        runIfActive(session, changeStatusToPreviewing);
+    }
+
+    void onResponseLatency(final long latencyMs) {
+        LongConsumer callback = responseLatencyCallback;
+        if (callback != null) {
+            callback.accept(latencyMs);
+        }
+    }
+
+    private void remove(final ITextViewer viewer) {
+        QInvocationSession session = sessions.remove(viewer);
+        if (session != null && activeSession == session) {
+            activeSession = null;
+        }
+    }
+
+    private void runIfActive(final QInvocationSession session, final Runnable callback) {
+        if (getActiveSession() == session) {
+            run(callback);
+        }
+    }
+
+    private static void run(final Runnable callback) {
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+}
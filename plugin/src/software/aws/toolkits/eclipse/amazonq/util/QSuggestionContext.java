@@ -8,9 +8,15 @@ import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionItem;
 public final class QSuggestionContext {
     private InlineCompletionItem inlineCompletionItem;
     private QSuggestionState state;
+    private InlineSuggestionModel model;
 
     public QSuggestionContext(final InlineCompletionItem inlineCompletionItem) {
+        this(inlineCompletionItem, null);
+    }
+
+    public QSuggestionContext(final InlineCompletionItem inlineCompletionItem, final InlineSuggestionModel model) {
         this.inlineCompletionItem = inlineCompletionItem;
+        this.model = model;
         state = QSuggestionState.UNSEEN;
     }
 
@@ -18,6 +24,14 @@ public final class QSuggestionContext {
         return inlineCompletionItem;
     }
 
+    // Computes the model on first use if it was not precomputed with the response
+    public InlineSuggestionModel getModel() {
+        if (model == null) {
+            model = InlineSuggestionModel.of(inlineCompletionItem.getInsertText());
+        }
+        return model;
+    }
+
     public QSuggestionState getState() {
         return state;
     }
@@ -0,0 +1,194 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import java.util.Arrays;
+
+/**
+ * Finds the bracket and quote pairs of an inline suggestion in a single pass
+ * over its lines.
+ *
+ * Offsets are relative to the start of the suggestion and count one character
+ * for each line break. Results are kept in primitive arrays that grow as needed
+ * and are reused by the next call to {@link #tokenize(String[])}, so nothing is
+ * allocated per character. Pairs are reported in the order their closing symbol
+ * appears.
+ */
+final class SuggestionBracketTokenizer {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] lineStarts = new int[INITIAL_CAPACITY];
+    private int lineCount;
+
+    private int[] openOffsets = new int[INITIAL_CAPACITY];
+    private int[] openLines = new int[INITIAL_CAPACITY];
+    private char[] openSymbols = new char[INITIAL_CAPACITY];
+    private int[] closeLines = new int[INITIAL_CAPACITY];
+    private int[] closeColumns = new int[INITIAL_CAPACITY];
+    private char[] closeSymbols = new char[INITIAL_CAPACITY];
+    private int pairCount;
+
+    // open symbols still waiting for their closing symbol
+    private int[] unresolvedOffsets = new int[INITIAL_CAPACITY];
+    private int[] unresolvedLines = new int[INITIAL_CAPACITY];
+    private char[] unresolvedSymbols = new char[INITIAL_CAPACITY];
+    private int unresolvedCount;
+
+    void tokenize(final String[] lines) {
+        lineCount = 0;
+        pairCount = 0;
+        unresolvedCount = 0;
+
+        int lineStart = 0;
+        for (int line = 0; line < lines.length; line++) {
+            String text = lines[line];
+            if (lineCount == lineStarts.length) {
+                lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+            }
+            lineStarts[lineCount++] = lineStart;
+
+            for (int column = 0; column < text.length(); column++) {
+                char c = text.charAt(column);
+                // the line break before a line counts as whitespace
+                boolean afterWhitespace = column > 0 ? Character.isWhitespace(text.charAt(column - 1)) : line > 0;
+                if (isClose(c, afterWhitespace)) {
+                    if (unresolvedCount > 0) {
+                        unresolvedCount--;
+                        if (isPair(unresolvedSymbols[unresolvedCount], c)) {
+                            addPair(line, column, c);
+                        }
+                    }
+                } else if (isOpen(c, afterWhitespace)) {
+                    pushUnresolved(lineStart + column, line, c);
+                }
+            }
+            lineStart += text.length() + 1;
+        }
+    }
+
+    int getLineCount() {
+        return lineCount;
+    }
+
+    int getLineStart(final int line) {
+        return lineStarts[line];
+    }
+
+    int getPairCount() {
+        return pairCount;
+    }
+
+    int getOpenOffset(final int pair) {
+        return openOffsets[pair];
+    }
+
+    int getOpenLine(final int pair) {
+        return openLines[pair];
+    }
+
+    char getOpenSymbol(final int pair) {
+        return openSymbols[pair];
+    }
+
+    int getCloseOffset(final int pair) {
+        return lineStarts[closeLines[pair]] + closeColumns[pair];
+    }
+
+    int getCloseLine(final int pair) {
+        return closeLines[pair];
+    }
+
+    int getCloseColumn(final int pair) {
+        return closeColumns[pair];
+    }
+
+    char getCloseSymbol(final int pair) {
+        return closeSymbols[pair];
+    }
+
+    private boolean isClose(final char c, final boolean afterWhitespace) {
+        switch (c) {
+        case '"':
+        case '\'':
+            return unresolvedCount > 0 && unresolvedSymbols[unresolvedCount - 1] == c;
+        case '>':
+            // TODO: enrich this check to eliminate false positives
+            return !afterWhitespace;
+        case ')':
+        case ']':
+        case '}':
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private static boolean isOpen(final char c, final boolean afterWhitespace) {
+        switch (c) {
+        case '<':
+            // TODO: enrich this check to eliminate false positives
+            return !afterWhitespace;
+        case '(':
+        case '[':
+        case '{':
+        case '"':
+        case '\'':
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private static boolean isPair(final char open, final char close) {
+        switch (open) {
+        case '<':
+            return close == '>';
+        case '{':
+            return close == '}';
+        case '(':
+            return close == ')';
+        case '[':
+            return close == ']';
+        case '"':
+        case '\'':
+            return close == open;
+        default:
+            return false;
+        }
+    }
+
+    private void pushUnresolved(final int offset, final int line, final char symbol) {
+        if (unresolvedCount == unresolvedOffsets.length) {
+            int capacity = unresolvedCount * 2;
+            unresolvedOffsets = Arrays.copyOf(unresolvedOffsets, capacity);
+            unresolvedLines = Arrays.copyOf(unresolvedLines, capacity);
+            unresolvedSymbols = Arrays.copyOf(unresolvedSymbols, capacity);
+        }
+        unresolvedOffsets[unresolvedCount] = offset;
+        unresolvedLines[unresolvedCount] = line;
+        unresolvedSymbols[unresolvedCount] = symbol;
+        unresolvedCount++;
+    }
+
+    // the matching open symbol has just been popped and sits at unresolvedCount
+    private void addPair(final int line, final int column, final char symbol) {
+        if (pairCount == openOffsets.length) {
+            int capacity = pairCount * 2;
+            openOffsets = Arrays.copyOf(openOffsets, capacity);
+            openLines = Arrays.copyOf(openLines, capacity);
+            openSymbols = Arrays.copyOf(openSymbols, capacity);
+            closeLines = Arrays.copyOf(closeLines, capacity);
+            closeColumns = Arrays.copyOf(closeColumns, capacity);
+            closeSymbols = Arrays.copyOf(closeSymbols, capacity);
+        }
+        openOffsets[pairCount] = unresolvedOffsets[unresolvedCount];
+        openLines[pairCount] = unresolvedLines[unresolvedCount];
+        openSymbols[pairCount] = unresolvedSymbols[unresolvedCount];
+        closeLines[pairCount] = line;
+        closeColumns[pairCount] = column;
+        closeSymbols[pairCount] = symbol;
+        pairCount++;
+    }
+
+}
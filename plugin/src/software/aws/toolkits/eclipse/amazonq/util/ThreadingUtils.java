@@ -3,16 +3,23 @@
 
 package software.aws.toolkits.eclipse.amazonq.util;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class ThreadingUtils {
     private static final int CORE_POOL_SIZE = Runtime.getRuntime().availableProcessors();
     private static final ScheduledExecutorService THREAD_POOL = Executors.newScheduledThreadPool(CORE_POOL_SIZE);
 
+    private static final long ORDERED_LANE_KEEP_ALIVE_SECONDS = 30;
+    private static final ThreadPoolExecutor[] ORDERED_LANES = createOrderedLanes();
+
     private ThreadingUtils() {
         // prevent instantiation
     }
@@ -21,10 +28,23 @@ public final class ThreadingUtils {
         return THREAD_POOL;
     }
 
+    /**
+     * Returns a single-threaded executor for the given key. Tasks submitted for the
+     * same key run one at a time in submission order, while different keys are
+     * striped across independent lanes. Idle lanes release their thread.
+     */
+    public static Executor getOrderedExecutor(final Object key) {
+        return ORDERED_LANES[Math.floorMod(key.hashCode(), ORDERED_LANES.length)];
+    }
+
     public static void executeAsyncTask(final Runnable task) {
         THREAD_POOL.execute(task);
     }
 
+    public static void executeOrderedTask(final Object key, final Runnable task) {
+        getOrderedExecutor(key).execute(task);
+    }
+
     public static Future<?> executeAsyncTaskAndReturnFuture(final Runnable task) {
         return THREAD_POOL.submit(task);
     }
@@ -35,5 +55,23 @@ public final class ThreadingUtils {
 
     public static void shutdown() {
         THREAD_POOL.shutdown();
+        for (ThreadPoolExecutor lane : ORDERED_LANES) {
+            lane.shutdown();
+        }
+    }
+
+    private static ThreadPoolExecutor[] createOrderedLanes() {
+        ThreadPoolExecutor[] lanes = new ThreadPoolExecutor[CORE_POOL_SIZE];
+        AtomicInteger threadCount = new AtomicInteger();
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, ORDERED_LANE_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), task -> {
+                        Thread thread = new Thread(task, "amazonq-ordered-lane-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            lanes[i].allowCoreThreadTimeOut(true);
+        }
+        return lanes;
     }
 }
@@ -0,0 +1,107 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tracks which suggestions still match the text typed ahead since the request.
+ *
+ * Each suggestion remembers the depth of typed text at which it stopped
+ * matching. A typed character only compares the suggestions still matching
+ * against that one character, and a deleted character only revives the
+ * suggestions that stopped matching at that depth, so the work per character is
+ * constant for each suggestion however long the suggestions or the typed text
+ * are. A suggestion that has been typed out in full no longer counts as a match,
+ * since there is nothing left of it to show.
+ */
+public final class TypeaheadFilter {
+    private static final int MATCHING = Integer.MAX_VALUE;
+
+    private final String[] suggestions;
+    private final int[] mismatchedAt;
+    private int matchCount;
+    private int typedLength;
+    // depth of the first line break typed ahead, or -1 while everything typed is on one line
+    private int firstLineBreakAt = -1;
+
+    public TypeaheadFilter(final List<String> suggestions) {
+        this.suggestions = suggestions.toArray(new String[0]);
+        this.mismatchedAt = new int[this.suggestions.length];
+        Arrays.fill(mismatchedAt, MATCHING);
+        this.matchCount = this.suggestions.length;
+    }
+
+    public void onTyped(final CharSequence input) {
+        for (int i = 0; i < input.length(); i++) {
+            onTyped(input.charAt(i));
+        }
+    }
+
+    private void onTyped(final char c) {
+        for (int i = 0; i < suggestions.length; i++) {
+            if (mismatchedAt[i] == MATCHING && !continuesWith(suggestions[i], c)) {
+                mismatchedAt[i] = typedLength;
+                matchCount--;
+            }
+        }
+        if ((c == '\n' || c == '\r') && firstLineBreakAt < 0) {
+            firstLineBreakAt = typedLength;
+        }
+        typedLength++;
+    }
+
+    public void onDeleted(final int length) {
+        for (int deleted = 0; deleted < length && typedLength > 0; deleted++) {
+            typedLength--;
+            for (int i = 0; i < suggestions.length; i++) {
+                if (mismatchedAt[i] == typedLength) {
+                    mismatchedAt[i] = MATCHING;
+                    matchCount++;
+                }
+            }
+            if (firstLineBreakAt == typedLength) {
+                firstLineBreakAt = -1;
+            }
+        }
+    }
+
+    public boolean matches(final int index) {
+        return mismatchedAt[index] == MATCHING;
+    }
+
+    public int getMatchCount() {
+        return matchCount;
+    }
+
+    public int getTypedLength() {
+        return typedLength;
+    }
+
+    public boolean isTypedOnOneLine() {
+        return firstLineBreakAt < 0;
+    }
+
+    /*
+     * Returns the next matching suggestion after the given index in the given
+     * direction, wrapping around, or -1 if none matches. Passing -1 going forward
+     * returns the first match.
+     */
+    public int nextMatch(final int from, final boolean forward) {
+        int count = suggestions.length;
+        for (int step = 1; step <= count; step++) {
+            int index = Math.floorMod(forward ? from + step : from - step, count);
+            if (matches(index)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private boolean continuesWith(final String suggestion, final char c) {
+        return typedLength + 1 < suggestion.length() && suggestion.charAt(typedLength) == c;
+    }
+
+}
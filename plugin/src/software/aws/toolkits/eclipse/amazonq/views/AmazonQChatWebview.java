@@ -25,12 +25,14 @@ public class AmazonQChatWebview extends AmazonQView implements ChatUiRequestList
     private Browser browser;
     private WebViewAssetProvider webViewAssetProvider;
     private Future<?> refreshFuture;
+    private final ChatWebviewMessageBatcher messageBatcher;
 
     public AmazonQChatWebview() {
         super();
         chatCommunicationManager = ChatCommunicationManager.getInstance();
         webViewAssetProvider = new ChatWebViewAssetProvider();
         webViewAssetProvider.initialize();
+        messageBatcher = new ChatWebviewMessageBatcher(() -> browser);
     }
 
     @Override
@@ -77,15 +79,13 @@ public class AmazonQChatWebview extends AmazonQView implements ChatUiRequestList
 
     @Override
     public final void onSendToChatUi(final String message) {
-        String script = "window.postMessage(" + message + ");";
-        Display.getDefault().asyncExec(() -> {
-            browser.execute(script);
-        });
+        messageBatcher.enqueue(message);
     }
 
     @Override
     public final void dispose() {
         chatCommunicationManager.removeListener(this);
+        messageBatcher.dispose();
         super.dispose();
     }
 
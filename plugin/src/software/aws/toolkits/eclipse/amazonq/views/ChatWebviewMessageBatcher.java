@@ -0,0 +1,134 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.views;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.eclipse.swt.browser.Browser;
+import org.eclipse.swt.widgets.Display;
+
+import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+
+/**
+ * Collects messages destined for the chat webview and delivers everything that
+ * arrived within one UI frame through a single {@link Browser#execute(String)}
+ * call. Messages are posted to the webview in the order they were enqueued, so
+ * per-tab ordering is preserved.
+ *
+ * Batches are handed to the delivery function injected by
+ * {@link software.aws.toolkits.eclipse.amazonq.providers.assets.ChatWebViewAssetProvider},
+ * which reassembles delta-encoded partial results before posting them. The batch
+ * sizes and queue depths seen over the webview's lifetime are logged when it is
+ * disposed.
+ */
+final class ChatWebviewMessageBatcher {
+
+    static final long FRAME_INTERVAL_MS = 16;
+
+    private final Consumer<String> scriptRunner;
+    private final Consumer<Runnable> frameScheduler;
+    private final Queue<String> pendingMessages = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicInteger maxBatchSize = new AtomicInteger();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong messageCount = new AtomicLong();
+
+    ChatWebviewMessageBatcher(final Supplier<Browser> browserSupplier) {
+        this(script -> {
+            Browser browser = browserSupplier.get();
+            if (browser != null && !browser.isDisposed()) {
+                browser.execute(script);
+            }
+        }, flush -> ThreadingUtils.scheduleAsyncTaskWithDelay(() -> Display.getDefault().asyncExec(flush), FRAME_INTERVAL_MS));
+    }
+
+    /*
+     * Runs each batch's script through the given runner, which must run it on the UI
+     * thread, and schedules a flush one frame ahead through the given scheduler.
+     */
+    ChatWebviewMessageBatcher(final Consumer<String> scriptRunner, final Consumer<Runnable> frameScheduler) {
+        this.scriptRunner = scriptRunner;
+        this.frameScheduler = frameScheduler;
+    }
+
+    void enqueue(final String message) {
+        pendingMessages.add(message);
+        maxQueueDepth.accumulateAndGet(queueDepth.incrementAndGet(), Math::max);
+        if (flushScheduled.compareAndSet(false, true)) {
+            frameScheduler.accept(this::flush);
+        }
+    }
+
+    /*
+     * Runs on the UI thread and drains everything queued so far into one script.
+     */
+    private void flush() {
+        flushScheduled.set(false);
+
+        StringBuilder messages = new StringBuilder();
+        int batchSize = 0;
+        String message;
+        while ((message = pendingMessages.poll()) != null) {
+            if (batchSize > 0) {
+                messages.append(',');
+            }
+            messages.append(message);
+            batchSize++;
+        }
+        if (batchSize == 0) {
+            return;
+        }
+
+        queueDepth.addAndGet(-batchSize);
+        batchCount.incrementAndGet();
+        messageCount.addAndGet(batchSize);
+        maxBatchSize.accumulateAndGet(batchSize, Math::max);
+
+        scriptRunner.accept("(window.amazonQChatDeliver || function(messages) {"
+                + " messages.forEach(function(message) { window.postMessage(message); }); })"
+                + "([" + messages + "]);");
+    }
+
+    void dispose() {
+        Activator.getLogger().info(String.format("Chat webview received %d messages in %d batches, average batch size %.1f,"
+                + " max batch size %d, max queue depth %d", getMessageCount(), getBatchCount(), getAverageBatchSize(),
+                getMaxBatchSize(), getMaxQueueDepth()));
+    }
+
+    int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    int getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    long getBatchCount() {
+        return batchCount.get();
+    }
+
+    long getMessageCount() {
+        return messageCount.get();
+    }
+
+    double getAverageBatchSize() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0 : (double) messageCount.get() / batches;
+    }
+
+}
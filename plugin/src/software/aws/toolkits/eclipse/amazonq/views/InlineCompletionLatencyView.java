@@ -0,0 +1,113 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.views;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IToolBarManager;
+import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.FileDialog;
+import org.eclipse.ui.part.ViewPart;
+
+import software.aws.toolkits.eclipse.amazonq.plugin.Activator;
+import software.aws.toolkits.eclipse.amazonq.util.InlineCompletionLatencyRecorder;
+import software.aws.toolkits.eclipse.amazonq.util.InlineCompletionLatencyRecorder.Stage;
+import software.aws.toolkits.eclipse.amazonq.util.InlineSuggestionCache;
+import software.aws.toolkits.eclipse.amazonq.util.LatencyHistogram;
+import software.aws.toolkits.eclipse.amazonq.util.QInvocationSessionRegistry;
+
+/**
+ * Debug view showing the latency of each inline completion pipeline stage by
+ * language and the suggestion cache counters, with actions to refresh, reset
+ * and export the histograms as JSON.
+ */
+public final class InlineCompletionLatencyView extends ViewPart {
+
+    public static final String ID = "software.aws.toolkits.eclipse.amazonq.views.InlineCompletionLatencyView";
+    private static final String ROW_FORMAT = "%-24s %8s %10s %10s %10s %10s %10s%n";
+
+    private StyledText textArea;
+
+    @Override
+    public void createPartControl(final Composite parent) {
+        textArea = new StyledText(parent, SWT.BORDER | SWT.V_SCROLL | SWT.H_SCROLL | SWT.READ_ONLY);
+        textArea.setFont(JFaceResources.getTextFont());
+
+        IToolBarManager toolBar = getViewSite().getActionBars().getToolBarManager();
+        toolBar.add(new Action("Refresh") {
+            @Override
+            public void run() {
+                refresh();
+            }
+        });
+        toolBar.add(new Action("Reset") {
+            @Override
+            public void run() {
+                getRecorder().reset();
+                refresh();
+            }
+        });
+        toolBar.add(new Action("Export JSON") {
+            @Override
+            public void run() {
+                exportJson();
+            }
+        });
+        refresh();
+    }
+
+    @Override
+    public void setFocus() {
+        textArea.setFocus();
+    }
+
+    private void refresh() {
+        StringBuilder text = new StringBuilder();
+        InlineSuggestionCache cache = QInvocationSessionRegistry.getInstance().getSuggestionCache();
+        text.append(String.format("suggestion cache: %d entries, %d hits, %d misses, hit rate %.1f%%%n%n", cache.size(),
+                cache.getHitCount(), cache.getMissCount(), cache.getHitRate() * 100));
+        Map<String, Map<Stage, LatencyHistogram.Snapshot>> snapshot = getRecorder().snapshot();
+        if (snapshot.isEmpty()) {
+            text.append("No inline completion latencies have been recorded yet.");
+        }
+        snapshot.forEach((language, stages) -> {
+            text.append(language).append(System.lineSeparator());
+            text.append(String.format(ROW_FORMAT, "stage (ms)", "count", "mean", "p50", "p90", "p99", "max"));
+            stages.forEach((stage, stats) -> text.append(String.format(ROW_FORMAT, stage, stats.count(),
+                    stats.meanMs(), stats.p50Ms(), stats.p90Ms(), stats.p99Ms(), stats.maxMs())));
+            text.append(System.lineSeparator());
+        });
+        textArea.setText(text.toString());
+    }
+
+    private void exportJson() {
+        FileDialog dialog = new FileDialog(getSite().getShell(), SWT.SAVE);
+        dialog.setFilterExtensions(new String[] {"*.json"});
+        dialog.setFilterNames(new String[] {"JSON Files (.json)"});
+        dialog.setFileName("inline-completion-latency.json");
+        dialog.setOverwrite(true);
+        String filePath = dialog.open();
+        if (filePath == null) {
+            return;
+        }
+        try {
+            Files.writeString(Path.of(filePath), getRecorder().exportJson(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            Activator.getLogger().error("Unable to export inline completion latencies to " + filePath, e);
+        }
+    }
+
+    private static InlineCompletionLatencyRecorder getRecorder() {
+        return QInvocationSessionRegistry.getInstance().getLatencyRecorder();
+    }
+
+}
@@ -20,6 +20,7 @@ public final class ViewVisibilityManager {
     }
 
     private static final String CODE_REFERENCE_VIEW = AmazonQCodeReferenceView.ID;
+    private static final String INLINE_COMPLETION_LATENCY_VIEW = InlineCompletionLatencyView.ID;
     private static final String ERROR_LOG_VIEW = "org.eclipse.pde.runtime.LogView";
     private static final String AMAZON_Q_VIEW_CONTAINER = AmazonQViewContainer.ID;
 
@@ -36,6 +37,10 @@ public final class ViewVisibilityManager {
         showView(ERROR_LOG_VIEW, source);
     }
 
+    public static void showInlineCompletionLatencyView(final String source) {
+        showView(INLINE_COMPLETION_LATENCY_VIEW, source);
+    }
+
     private static void showView(final String viewId, final String source) {
         IWorkbenchWindow window = PlatformUI.getWorkbench().getActiveWorkbenchWindow();
         if (window != null) {
@@ -28,6 +28,7 @@ public abstract class AmazonQAbstractCommonActions {
         private final OpenUserGuideAction openUserGuideAction;
         private final ViewSourceAction viewSourceAction;
         private final ViewLogsAction viewLogsAction;
+        private final ViewInlineCompletionLatencyAction viewInlineCompletionLatencyAction;
         private final ChangeProfileDialogContributionItem changeProfileDialogContributionItem;
         private final ReportAnIssueAction reportAnIssueAction;
         private final OpenPreferencesAction openPreferencesAction;
@@ -43,6 +44,7 @@ public abstract class AmazonQAbstractCommonActions {
             openUserGuideAction = new OpenUserGuideAction();
             viewSourceAction = new ViewSourceAction();
             viewLogsAction = new ViewLogsAction();
+            viewInlineCompletionLatencyAction = new ViewInlineCompletionLatencyAction();
             reportAnIssueAction = new ReportAnIssueAction();
             openPreferencesAction = new OpenPreferencesAction();
             changeProfileDialogContributionItem = new ChangeProfileDialogContributionItem();
@@ -86,6 +88,7 @@ public abstract class AmazonQAbstractCommonActions {
         helpSubMenu.add(new Separator());
         helpSubMenu.add(action.viewSourceAction);
         helpSubMenu.add(action.viewLogsAction);
+        helpSubMenu.add(action.viewInlineCompletionLatencyAction);
 
         menuManager.add(action.openCodeReferenceLogAction);
         menuManager.add(new Separator());
@@ -11,7 +11,7 @@ import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.ui.menus.WorkbenchWindowControlContribution;
 
-import software.aws.toolkits.eclipse.amazonq.util.QInvocationSession;
+import software.aws.toolkits.eclipse.amazonq.util.QInvocationSessionRegistry;
 
 public final class InlineQueryStatusBarContribution extends WorkbenchWindowControlContribution {
 
@@ -42,8 +42,8 @@ public final class InlineQueryStatusBarContribution extends WorkbenchWindowContr
         statusLabel = new Label(parent, SWT.NONE);
         statusLabel.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, true));
         statusLabel.setText(IDLE_STATUS);
-        QInvocationSession session = QInvocationSession.getInstance();
-        session.assignQueryingCallback(new Runnable() {
+        QInvocationSessionRegistry sessions = QInvocationSessionRegistry.getInstance();
+        sessions.assignQueryingCallback(new Runnable() {
             @Override
             public void run() {
                 statusLabel.getDisplay().asyncExec(() -> {
@@ -53,7 +53,7 @@ public final class InlineQueryStatusBarContribution extends WorkbenchWindowContr
                 });
             }
         });
-        session.assignIdlingCallback(new Runnable() {
+        sessions.assignIdlingCallback(new Runnable() {
             @Override
             public void run() {
                 statusLabel.getDisplay().asyncExec(() -> {
@@ -63,7 +63,7 @@ public final class InlineQueryStatusBarContribution extends WorkbenchWindowContr
                 });
             }
         });
-        session.assignPreviewingCallback(new Runnable() {
+        sessions.assignPreviewingCallback(new Runnable() {
             @Override
             public void run() {
                 statusLabel.getDisplay().asyncExec(() -> {
@@ -0,0 +1,128 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class ChatAsyncResultManagerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private ChatAsyncResultManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new ChatAsyncResultManager(200, TimeUnit.MILLISECONDS, 3, 1024, 1000,
+                () -> TimeUnit.MILLISECONDS.toNanos(clock.get()));
+    }
+
+    @Test
+    void testWaiterIsCompletedWithoutStoringResult() throws Exception {
+        manager.createRequestId("request");
+        CompletableFuture<Object> result = manager.getResultAsync("request");
+        assertFalse(result.isDone());
+
+        manager.setResult("request", "value");
+
+        assertEquals("value", result.get());
+        assertEquals(0, manager.getStoredResultCount());
+        assertEquals(1, manager.getHitCount());
+    }
+
+    @Test
+    void testResultPostedBetweenRegisteringAndWaitingIsNotLost() throws Exception {
+        manager.createRequestId("request");
+        manager.setResult("request", "value");
+
+        assertEquals("value", manager.getResultAsync("request").get());
+        assertEquals(1, manager.getHitCount());
+
+        manager.removeRequestId("request");
+        assertThrows(IllegalArgumentException.class, () -> manager.getResult("request"));
+    }
+
+    @Test
+    void testResultPostedBeforeWaitingIsServedFromStore() throws Exception {
+        manager.setResult("request", Map.of("result", "tab"));
+        manager.createRequestId("request");
+
+        assertEquals(Map.of("result", "tab"), manager.getResult("request"));
+        assertEquals(1, manager.getHitCount());
+
+        manager.removeRequestId("request");
+        assertEquals(0, manager.getStoredResultCount());
+        assertEquals(0, manager.getStoredBytes());
+    }
+
+    @Test
+    void testUnknownRequestIsMiss() {
+        assertThrows(IllegalArgumentException.class, () -> manager.getResult("unknown"));
+        assertEquals(1, manager.getMissCount());
+    }
+
+    @Test
+    void testWaiterTimesOut() {
+        manager.createRequestId("request");
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> manager.getResultAsync("request").get());
+
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+        assertEquals(1, manager.getMissCount());
+        assertThrows(IllegalArgumentException.class, () -> manager.getResult("request"));
+    }
+
+    @Test
+    void testStoredResultsExpire() {
+        manager.setResult("old", "value");
+        clock.addAndGet(600);
+        manager.setResult("new", "value");
+        clock.addAndGet(600);
+
+        manager.createRequestId("other");
+
+        assertEquals(1, manager.getStoredResultCount());
+        assertEquals(1, manager.getEvictionCount());
+        assertThrows(IllegalArgumentException.class, () -> manager.getResult("old"));
+    }
+
+    @Test
+    void testEntryLimitEvictsOldestFirst() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            manager.setResult("request-" + i, i);
+        }
+
+        assertEquals(3, manager.getStoredResultCount());
+        assertEquals(2, manager.getEvictionCount());
+        assertEquals(4, manager.getResult("request-4"));
+        assertThrows(IllegalArgumentException.class, () -> manager.getResult("request-0"));
+    }
+
+    @Test
+    void testByteLimitEvictsOldestFirst() {
+        manager.setResult("small", "x");
+        manager.setResult("large", "x".repeat(400));
+        assertEquals(2, manager.getStoredResultCount());
+
+        manager.setResult("larger", "x".repeat(450));
+
+        assertEquals(1, manager.getStoredResultCount());
+        assertTrue(manager.getStoredBytes() <= 1024);
+        assertEquals(ChatAsyncResultManager.estimateSize("x".repeat(450)), manager.getStoredBytes());
+    }
+
+}
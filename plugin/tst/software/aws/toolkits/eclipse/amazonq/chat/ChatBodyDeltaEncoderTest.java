@@ -0,0 +1,55 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class ChatBodyDeltaEncoderTest {
+
+    private ChatBodyDeltaEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        encoder = new ChatBodyDeltaEncoder();
+    }
+
+    @Test
+    void testFirstPartialCarriesFullBody() {
+        assertEquals(0, encoder.deltaOffset("tab", "m1", "Hello"));
+    }
+
+    @Test
+    void testAppendedPartialCarriesOnlyNewTail() {
+        encoder.deltaOffset("tab", "m1", "Hello");
+
+        assertEquals(5, encoder.deltaOffset("tab", "m1", "Hello world"));
+    }
+
+    @Test
+    void testDivergedPrefixCarriesReplacementFromDivergencePoint() {
+        encoder.deltaOffset("tab", "m1", "Hello world");
+
+        assertEquals(6, encoder.deltaOffset("tab", "m1", "Hello there"));
+    }
+
+    @Test
+    void testNewMessageIdOrResetSendsFullBody() {
+        encoder.deltaOffset("tab", "m1", "Hello");
+        assertEquals(0, encoder.deltaOffset("tab", "m2", "Hello again"));
+
+        encoder.reset("tab");
+        assertEquals(0, encoder.deltaOffset("tab", "m2", "Hello again!"));
+    }
+
+    @Test
+    void testCommonPrefixLength() {
+        assertEquals(3, ChatBodyDeltaEncoder.commonPrefixLength("abc", "abcdef"));
+        assertEquals(2, ChatBodyDeltaEncoder.commonPrefixLength("abc", "abd"));
+        assertEquals(0, ChatBodyDeltaEncoder.commonPrefixLength("abc", "xyz"));
+    }
+
+}
@@ -11,6 +11,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -60,8 +61,8 @@ import software.aws.toolkits.eclipse.amazonq.lsp.AmazonQLspServer;
 import software.aws.toolkits.eclipse.amazonq.lsp.encryption.LspEncryptionManager;
 import software.aws.toolkits.eclipse.amazonq.providers.lsp.LspProvider;
 import software.aws.toolkits.eclipse.amazonq.util.JsonHandler;
-import software.aws.toolkits.eclipse.amazonq.util.ObjectMapperFactory;
 import software.aws.toolkits.eclipse.amazonq.util.ProgressNotificationUtils;
+import software.aws.toolkits.eclipse.amazonq.views.ChatUiRequestListener;
 import software.aws.toolkits.eclipse.amazonq.views.model.Command;
 
 public final class ChatCommunicationManagerTest {
@@ -195,8 +196,7 @@ public final class ChatCommunicationManagerTest {
             when(amazonQLspServer.sendChatPrompt(any(EncryptedChatParams.class)))
                     .thenReturn(completedFuture);
 
-            when(jsonHandler.deserialize(anyString(), eq(Map.class)))
-                    .thenReturn(ObjectMapperFactory.getInstance().readValue(jsonString, Map.class));
+            when(lspEncryptionManager.decrypt(anyString())).thenReturn(jsonString);
 
             CompletableFuture<AmazonQLspServer> serverFuture = CompletableFuture.completedFuture(amazonQLspServer);
             when(activatorStaticMockExtension.getMock(LspProvider.class).getAmazonQServer()).thenReturn(serverFuture);
@@ -221,9 +221,6 @@ public final class ChatCommunicationManagerTest {
 
             when(amazonQLspServer.sendChatPrompt(any(EncryptedChatParams.class))).thenReturn(completedFuture);
 
-            RuntimeException deserializeException = new RuntimeException("Test exception");
-            when(jsonHandler.deserialize(anyString(), eq(Map.class))).thenThrow(deserializeException);
-
             CompletableFuture<AmazonQLspServer> serverFuture = CompletableFuture.completedFuture(amazonQLspServer);
             when(activatorStaticMockExtension.getMock(LspProvider.class).getAmazonQServer()).thenReturn(serverFuture);
 
@@ -307,14 +304,11 @@ public final class ChatCommunicationManagerTest {
           when(amazonQLspServer.sendQuickAction(any(EncryptedQuickActionParams.class)))
                   .thenReturn(completedFuture);
 
-          when(jsonHandler.deserialize(anyString(), eq(Map.class)))
-                  .thenReturn(ObjectMapperFactory.getInstance().readValue(jsonString, Map.class));
+          when(lspEncryptionManager.decrypt(anyString())).thenReturn(jsonString);
 
           CompletableFuture<AmazonQLspServer> serverFuture = CompletableFuture.completedFuture(amazonQLspServer);
           when(activatorStaticMockExtension.getMock(LspProvider.class).getAmazonQServer()).thenReturn(serverFuture);
 
-          when(lspEncryptionManager.decrypt(anyString())).thenReturn("some-json-data");
-
           try (MockedStatic<Display> displayMock = mockStatic(Display.class)) {
               displayMock.when(Display::getDefault).thenReturn(display);
 
@@ -334,9 +328,6 @@ public final class ChatCommunicationManagerTest {
 
           when(amazonQLspServer.sendQuickAction(any(EncryptedQuickActionParams.class))).thenReturn(completedFuture);
 
-          RuntimeException deserializeException = new RuntimeException("Test exception");
-          when(jsonHandler.deserialize(anyString(), eq(Map.class))).thenThrow(deserializeException);
-
           CompletableFuture<AmazonQLspServer> serverFuture = CompletableFuture.completedFuture(amazonQLspServer);
           when(activatorStaticMockExtension.getMock(LspProvider.class).getAmazonQServer()).thenReturn(serverFuture);
 
@@ -573,16 +564,7 @@ public final class ChatCommunicationManagerTest {
 
       @Test
       void testIncorrectParamsObject() {
-          ConcurrentHashMap<String, Object> partialResultLocks = new ConcurrentHashMap<>();
-          partialResultLocks.put("token", new Object());
-
-          try {
-              Field partialResultLocksField = ChatCommunicationManager.class.getDeclaredField("partialResultLocks");
-              partialResultLocksField.setAccessible(true);
-              partialResultLocksField.set(chatCommunicationManager, partialResultLocks);
-          } catch (Exception e) {
-              throw new RuntimeException(e);
-          }
+          chatCommunicationManager.registerPartialResultToken("token");
 
           try (MockedStatic<ProgressNotificationUtils> progressNotificationUtilsMock = mockStatic(ProgressNotificationUtils.class)) {
               progressNotificationUtilsMock
@@ -619,10 +601,7 @@ public final class ChatCommunicationManagerTest {
                   .when(() -> ProgressNotificationUtils.getObject(any(ProgressParams.class), eq(String.class)))
                   .thenReturn("chatPartialResult");
 
-              Map<String, Object> chatResult = mock(Map.class);
-
-              when(jsonHandler.deserialize(anyString(), eq(Map.class))).thenReturn(chatResult);
-              when(chatResult.get(any())).thenReturn(null);
+              when(lspEncryptionManager.decrypt(anyString())).thenReturn("{}");
 
               chatCommunicationManager.handlePartialResultProgressNotification(progressParams);
           }
@@ -644,15 +623,40 @@ public final class ChatCommunicationManagerTest {
                   .when(() -> ProgressNotificationUtils.getObject(any(ProgressParams.class), eq(String.class)))
                   .thenReturn("chatPartialResult");
 
-              Map<String, Object> chatResult = mock(Map.class);
-
-              when(jsonHandler.deserialize(anyString(), eq(Map.class))).thenReturn(chatResult);
-              when(chatResult.get("body")).thenReturn("body");
+              when(lspEncryptionManager.decrypt(anyString())).thenReturn("{\"body\":\"body\"}");
               when(jsonHandler.serialize(any(ChatUIInboundCommand.class))).thenReturn("serializedObject");
 
               chatCommunicationManager.handlePartialResultProgressNotification(progressParams);
           }
       }
+
+      @Test
+      void testInlineChatPartialResultsGoToTheSessionThatSentThem() {
+          String firstTabId = ChatCommunicationManager.INLINE_CHAT_TAB_ID_PREFIX + "first";
+          String secondTabId = ChatCommunicationManager.INLINE_CHAT_TAB_ID_PREFIX + "second";
+          ChatUiRequestListener firstListener = mock(ChatUiRequestListener.class);
+          ChatUiRequestListener secondListener = mock(ChatUiRequestListener.class);
+          chatCommunicationManager.setInlineChatRequestListener(firstTabId, firstListener);
+          chatCommunicationManager.setInlineChatRequestListener(secondTabId, secondListener);
+          chatCommunicationManager.registerPartialResultToken("firstToken");
+          chatCommunicationManager.registerPartialResultToken("secondToken");
+          when(chatPartialResultMap.getValue("firstToken")).thenReturn(firstTabId);
+          when(chatPartialResultMap.getValue("secondToken")).thenReturn(secondTabId);
+          when(lspEncryptionManager.decrypt(anyString())).thenReturn("{\"body\":\"" + "x".repeat(60) + "\"}");
+          when(jsonHandler.serialize(any(ChatUIInboundCommand.class)))
+                  .thenAnswer(invocation -> ((ChatUIInboundCommand) invocation.getArgument(0)).tabId());
+
+          chatCommunicationManager.processPartialResult("secondToken", "encrypted");
+
+          verify(secondListener).onSendToChatUi(secondTabId);
+          verify(firstListener, never()).onSendToChatUi(anyString());
+
+          // a session that has ended no longer receives results
+          chatCommunicationManager.removeListener(firstListener);
+          chatCommunicationManager.processPartialResult("firstToken", "encrypted");
+
+          verify(firstListener, never()).onSendToChatUi(anyString());
+      }
   }
 
 }
@@ -0,0 +1,86 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import software.aws.toolkits.eclipse.amazonq.util.ObjectMapperFactory;
+
+public final class ChatMessageTest {
+
+    private final Map<String, Object> params = Map.of(
+            "tabId", "tab-1",
+            "prompt", Map.of("prompt", "hello", "context", List.of("file")));
+
+    @Test
+    void testLookupsResolveNestedKeys() {
+        ChatMessage message = new ChatMessage(params);
+
+        assertEquals("tab-1", message.getValueAsString("tabId"));
+        assertEquals("file", message.getValueForKey("prompt.context").get(0).asText());
+        assertTrue(message.hasKey("prompt.prompt"));
+        assertFalse(message.hasKey("prompt.missing"));
+        assertFalse(message.hasKey("tabId.nested"));
+        assertNull(message.getValueAsString("missing"));
+    }
+
+    @Test
+    void testRepeatedLookupsReuseTree() {
+        ChatMessage message = new ChatMessage(params);
+
+        JsonNode first = message.getValueForKey("prompt");
+        assertSame(first, message.getValueForKey("prompt"));
+        assertSame(first.get("context"), message.getValueForKey("prompt.context"));
+    }
+
+    @Test
+    void testUnmodifiedMessageKeepsOriginalData() {
+        ChatMessage message = new ChatMessage(params);
+        message.getValueAsString("tabId");
+
+        assertSame(params, message.getData());
+    }
+
+    @Test
+    void testAddValueUpdatesTreeInPlace() {
+        ChatMessage message = new ChatMessage(params);
+        message.getValueForKey("context");
+
+        message.addValueForKey("context", message.getValueForKey("prompt.context"));
+        message.addValueForKey("editor.cursorState", List.of(Map.of("line", 1)));
+
+        ObjectNode data = assertInstanceOf(ObjectNode.class, message.getData());
+        assertEquals("file", message.getValueForKey("context").get(0).asText());
+        assertEquals(1, message.getValueForKey("editor.cursorState").get(0).get("line").asInt());
+        assertEquals(ObjectMapperFactory.getInstance().valueToTree(params).get("prompt"), data.get("prompt"));
+
+        message.addValueForKey("tabId", "tab-2");
+        assertEquals("tab-2", message.getValueAsString("tabId"));
+        assertSame(data, message.getData());
+    }
+
+    @Test
+    void testNullValueOnlyCreatesParents() {
+        ChatMessage message = new ChatMessage(params);
+
+        message.addValueForKey("textDocument.uri", null);
+
+        assertTrue(message.hasKey("textDocument"));
+        assertFalse(message.hasKey("textDocument.uri"));
+    }
+
+}
@@ -0,0 +1,87 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import software.aws.toolkits.eclipse.amazonq.util.ThreadingUtils;
+
+public final class ChatPartialResultCoalescerTest {
+
+    @Test
+    void testOnlyLatestPendingPayloadIsFlushed() throws Exception {
+        List<String> flushed = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        ChatPartialResultCoalescer coalescer = new ChatPartialResultCoalescer((token, payload) -> {
+            flushed.add(payload);
+            latch.countDown();
+        }, token -> 200, ThreadingUtils::getOrderedExecutor);
+
+        coalescer.submit("token", "first");
+        coalescer.submit("token", "second");
+        coalescer.submit("token", "third");
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Thread.sleep(300);
+        assertEquals(List.of("third"), flushed);
+        assertFalse(coalescer.hasPending("token"));
+    }
+
+    @Test
+    void testDiscardDropsPendingPayload() throws Exception {
+        List<String> flushed = new CopyOnWriteArrayList<>();
+        ChatPartialResultCoalescer coalescer = new ChatPartialResultCoalescer((token, payload) -> flushed.add(payload),
+                token -> 200, ThreadingUtils::getOrderedExecutor);
+
+        coalescer.submit("token", "payload");
+        coalescer.discard("token");
+
+        Thread.sleep(400);
+        assertTrue(flushed.isEmpty());
+    }
+
+    @Test
+    void testExpeditedTokenIsFlushedWithoutWaitingForTheTick() throws Exception {
+        List<String> flushed = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+        ChatPartialResultCoalescer coalescer = new ChatPartialResultCoalescer((token, payload) -> {
+            flushed.add(payload);
+            latch.countDown();
+        }, token -> 10_000, ThreadingUtils::getOrderedExecutor);
+
+        coalescer.submit("token", "partial");
+        coalescer.expedite("token");
+        coalescer.submit("token", "stop");
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("partial", "stop"), flushed);
+        assertFalse(coalescer.hasPending("token"));
+    }
+
+    @Test
+    void testTokensAreCoalescedIndependently() throws Exception {
+        List<String> flushed = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+        ChatPartialResultCoalescer coalescer = new ChatPartialResultCoalescer((token, payload) -> {
+            flushed.add(token + ":" + payload);
+            latch.countDown();
+        }, token -> 0, ThreadingUtils::getOrderedExecutor);
+
+        coalescer.submit("a", "one");
+        coalescer.submit("b", "two");
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(flushed.containsAll(List.of("a:one", "b:two")));
+    }
+
+}
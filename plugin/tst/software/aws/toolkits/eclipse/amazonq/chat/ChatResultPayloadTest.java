@@ -0,0 +1,91 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import software.aws.toolkits.eclipse.amazonq.chat.models.ChatUIInboundCommand;
+import software.aws.toolkits.eclipse.amazonq.util.ObjectMapperFactory;
+
+public final class ChatResultPayloadTest {
+
+    private static final String RESULT = "{\"type\":\"answer\",\"messageId\":\"m1\","
+            + "\"followUp\":{\"options\":[{\"pillText\":\"more\"}]},"
+            + "\"body\":\"Hello \\\"world\\\"\\n\\u00e9t\\u00e9\","
+            + "\"additionalMessages\":[{\"messageId\":\"a1\",\"body\":\"x\"},{\"messageId\":\"stopped-1\"}],"
+            + "\"codeReference\":[{\"licenseName\":\"MIT\",\"repository\":\"repo\"}]}";
+
+    @Test
+    void testDecodeExtractsOnlyHostFields() throws IOException {
+        ChatResultPayload payload = ChatResultPayload.decode(RESULT);
+
+        assertEquals("m1", payload.messageId());
+        assertEquals("Hello \"world\"\nété", payload.body());
+        assertEquals(List.of("a1", "stopped-1"), payload.additionalMessageIds());
+        assertTrue(payload.isStopMessage());
+        assertEquals(1, payload.codeReferences().length);
+        assertEquals("MIT", payload.codeReferences()[0].licenseName());
+        assertSame(RESULT, payload.json());
+    }
+
+    @Test
+    void testDecodeWithoutOptionalFields() throws IOException {
+        ChatResultPayload payload = ChatResultPayload.decode("{\"messageId\":\"m1\",\"body\":null}");
+
+        assertFalse(payload.hasBody());
+        assertFalse(payload.hasAdditionalMessages());
+        assertFalse(payload.isStopMessage());
+        assertNull(payload.codeReferences());
+    }
+
+    @Test
+    void testDecodeRejectsNonObject() {
+        assertThrows(IOException.class, () -> ChatResultPayload.decode("[]"));
+    }
+
+    @Test
+    void testParamsAreEmbeddedVerbatim() throws IOException {
+        ChatResultPayload payload = ChatResultPayload.decode(RESULT);
+
+        Map<String, Object> command = serializeCommand(payload.asParams());
+
+        assertEquals(ObjectMapperFactory.getInstance().readValue(RESULT, new TypeReference<Map<String, Object>>() { }),
+                command.get("params"));
+    }
+
+    @Test
+    void testParamsWithBodyDeltaReplaceBodyWithTail() throws IOException {
+        ChatResultPayload payload = ChatResultPayload.decode(RESULT);
+
+        Map<String, Object> command = serializeCommand(payload.asParamsWithBodyDelta(6));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> params = (Map<String, Object>) command.get("params");
+        assertNull(params.get("body"));
+        assertEquals(Map.of(ChatBodyDeltaEncoder.OFFSET_KEY, 6, ChatBodyDeltaEncoder.TEXT_KEY, "\"world\"\nété"),
+                params.get(ChatBodyDeltaEncoder.BODY_DELTA_KEY));
+        assertEquals("m1", params.get("messageId"));
+        assertEquals(2, ((List<?>) params.get("additionalMessages")).size());
+    }
+
+    private static Map<String, Object> serializeCommand(final Object params) throws IOException {
+        String json = ObjectMapperFactory.getInstance()
+                .writeValueAsString(new ChatUIInboundCommand("aws/chat/sendChatPrompt", "tab", params, true, null));
+        return ObjectMapperFactory.getInstance().readValue(json, new TypeReference<Map<String, Object>>() { });
+    }
+
+}
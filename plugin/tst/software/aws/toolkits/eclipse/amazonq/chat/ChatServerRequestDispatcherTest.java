@@ -0,0 +1,125 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+public final class ChatServerRequestDispatcherTest {
+
+    private final List<CompletableFuture<String>> serverFutures = new ArrayList<>();
+
+    private CompletableFuture<String> serverCall() {
+        CompletableFuture<String> serverFuture = new CompletableFuture<>();
+        serverFutures.add(serverFuture);
+        return serverFuture;
+    }
+
+    @Test
+    void testResponseIsForwarded() throws Exception {
+        ChatServerRequestDispatcher dispatcher = new ChatServerRequestDispatcher(2);
+
+        CompletableFuture<String> result = dispatcher.submit(null, 0, this::serverCall);
+        serverFutures.get(0).complete("response");
+
+        assertEquals("response", result.get(1, TimeUnit.SECONDS));
+        assertEquals(0, dispatcher.getInFlightRequestCount());
+    }
+
+    @Test
+    void testConcurrencyLimitQueuesRequests() throws Exception {
+        ChatServerRequestDispatcher dispatcher = new ChatServerRequestDispatcher(2);
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(dispatcher.submit(null, 0, this::serverCall));
+        }
+        assertEquals(2, serverFutures.size());
+        assertEquals(3, dispatcher.getWaitingRequestCount());
+
+        serverFutures.get(0).complete("first");
+
+        assertEquals("first", results.get(0).get(1, TimeUnit.SECONDS));
+        assertEquals(3, serverFutures.size());
+        assertEquals(2, dispatcher.getInFlightRequestCount());
+    }
+
+    @Test
+    void testNewerRequestSupersedesSentRequest() throws Exception {
+        ChatServerRequestDispatcher dispatcher = new ChatServerRequestDispatcher(1);
+
+        CompletableFuture<String> sent = dispatcher.submit("history", 0, this::serverCall);
+        CompletableFuture<String> latest = dispatcher.submit("history", 0, this::serverCall);
+
+        assertTrue(sent.isCancelled());
+        assertTrue(serverFutures.get(0).isCancelled());
+
+        serverFutures.get(1).complete("latest");
+        assertEquals("latest", latest.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testNewerRequestSupersedesWaitingRequest() throws Exception {
+        ChatServerRequestDispatcher dispatcher = new ChatServerRequestDispatcher(1);
+
+        dispatcher.submit(null, 0, this::serverCall);
+        CompletableFuture<String> waiting = dispatcher.submit("history", 0, this::serverCall);
+        CompletableFuture<String> latest = dispatcher.submit("history", 0, this::serverCall);
+        assertTrue(waiting.isCancelled());
+
+        serverFutures.get(0).complete("other");
+
+        // the superseded request is skipped rather than sent
+        assertEquals(2, serverFutures.size());
+        serverFutures.get(1).complete("latest");
+        assertEquals("latest", latest.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRequestsWithoutKeyAreIndependent() {
+        ChatServerRequestDispatcher dispatcher = new ChatServerRequestDispatcher(2);
+
+        CompletableFuture<String> first = dispatcher.submit(null, 0, this::serverCall);
+        dispatcher.submit(null, 0, this::serverCall);
+
+        assertFalse(first.isDone());
+    }
+
+    @Test
+    void testTimeoutCancelsServerCall() {
+        ChatServerRequestDispatcher dispatcher = new ChatServerRequestDispatcher(1);
+
+        CompletableFuture<String> result = dispatcher.submit(null, 50, this::serverCall);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+        assertTrue(serverFutures.get(0).isCancelled());
+        assertEquals(0, dispatcher.getInFlightRequestCount());
+    }
+
+    @Test
+    void testCancellingResultCancelsServerCall() {
+        ChatServerRequestDispatcher dispatcher = new ChatServerRequestDispatcher(1);
+
+        CompletableFuture<String> result = dispatcher.submit(null, 0, this::serverCall);
+        result.cancel(true);
+
+        assertThrows(CancellationException.class, result::join);
+        assertTrue(serverFutures.get(0).isCancelled());
+    }
+
+}
@@ -0,0 +1,153 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.inlineChat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.source.Annotation;
+import org.eclipse.jface.text.source.AnnotationModel;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.TextEdit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class InlineChatDiffAnnotationsTest {
+    private static final String ADDED = "diffAnnotation.added";
+    private static final String DELETED = "diffAnnotation.deleted";
+
+    private Document document;
+    private AnnotationModel annotationModel;
+    private InlineChatDiffAnnotations diffAnnotations;
+    private int modelEvents;
+    private int documentEvents;
+
+    @BeforeEach
+    public void setUp() {
+        document = new Document("a\nb\nc\n");
+        annotationModel = new AnnotationModel();
+        annotationModel.connect(document);
+        annotationModel.addAnnotation(new Annotation("org.eclipse.ui.workbench.texteditor.spelling", false, "typo"),
+                new Position(0, 1));
+        annotationModel.addAnnotationModelListener(model -> modelEvents++);
+        // registering the listener notifies it once
+        modelEvents = 0;
+        diffAnnotations = new InlineChatDiffAnnotations();
+        diffAnnotations.reset(3);
+    }
+
+    @Test
+    void testReplacingLinesUpdatesTheModelOnce() {
+        diffAnnotations.replaceLines(annotationModel, 1, 1,
+                Arrays.asList(new TextDiff(2, 1, true), new TextDiff(4, 1, false)), ADDED, DELETED);
+
+        assertEquals(1, modelEvents);
+        assertEquals(List.of(new Position(2, 1)), diffAnnotations.getPositions(annotationModel, DELETED));
+        assertEquals(List.of(new Position(4, 1)), diffAnnotations.getPositions(annotationModel, ADDED));
+    }
+
+    @Test
+    void testReplacedLinesLoseTheirAnnotations() {
+        diffAnnotations.replaceLines(annotationModel, 1, 1,
+                Arrays.asList(new TextDiff(2, 1, true), new TextDiff(4, 1, false)), ADDED, DELETED);
+        // the added line is shown unchanged again
+        diffAnnotations.replaceLines(annotationModel, 2, 1, Arrays.asList((TextDiff) null), ADDED, DELETED);
+
+        assertTrue(diffAnnotations.getPositions(annotationModel, ADDED).isEmpty());
+        assertEquals(1, diffAnnotations.getPositions(annotationModel, DELETED).size());
+        assertEquals(2, annotationTypes().size());
+    }
+
+    @Test
+    void testPositionsFollowDocumentChanges() throws Exception {
+        diffAnnotations.replaceLines(annotationModel, 2, 1, Arrays.asList(new TextDiff(4, 1, false)), ADDED, DELETED);
+
+        document.replace(0, 0, "zz\n");
+
+        assertEquals(List.of(new Position(7, 1)), diffAnnotations.getPositions(annotationModel, ADDED));
+    }
+
+    @Test
+    void testClearOnlyRemovesDiffAnnotations() {
+        diffAnnotations.replaceLines(annotationModel, 0, 3,
+                Arrays.asList(new TextDiff(0, 1, true), new TextDiff(2, 1, false), null), ADDED, DELETED);
+        modelEvents = 0;
+
+        diffAnnotations.clear(annotationModel);
+
+        assertEquals(1, modelEvents);
+        assertEquals(List.of("org.eclipse.ui.workbench.texteditor.spelling"), annotationTypes());
+    }
+
+    @Test
+    void testAcceptingAllHunksDeletesTheirLinesInOneEdit() throws Exception {
+        document.set("a\nb\nB\nc\nd\nD\n");
+        diffAnnotations.reset(0);
+        diffAnnotations.replaceLines(annotationModel, 0, 0, Arrays.asList(null, new TextDiff(2, 1, true),
+                new TextDiff(4, 1, false), null, new TextDiff(8, 1, true), new TextDiff(10, 1, false)), ADDED, DELETED);
+        document.addDocumentListener(new IDocumentListener() {
+            @Override
+            public void documentAboutToBeChanged(final DocumentEvent event) {
+            }
+
+            @Override
+            public void documentChanged(final DocumentEvent event) {
+                documentEvents++;
+            }
+        });
+
+        List<InlineChatDiffAnnotations.Hunk> hunks = diffAnnotations.getHunks();
+        assertEquals(List.of(new InlineChatDiffAnnotations.Hunk(1, 2), new InlineChatDiffAnnotations.Hunk(4, 2)), hunks);
+        modelEvents = 0;
+
+        diffAnnotations.resolve(document, annotationModel, hunks, DELETED).apply(document, TextEdit.NONE);
+
+        assertEquals("a\nB\nc\nD\n", document.get());
+        assertEquals(2, documentEvents);
+        assertTrue(diffAnnotations.getHunks().isEmpty());
+        assertEquals(List.of("org.eclipse.ui.workbench.texteditor.spelling"), annotationTypes());
+    }
+
+    @Test
+    void testRejectingOneHunkLeavesTheOthersPending() throws Exception {
+        document.set("a\nb\nc\nB\nC\nx\nd\nD\n");
+        diffAnnotations.reset(0);
+        diffAnnotations.replaceLines(annotationModel, 0, 0, Arrays.asList(null, new TextDiff(2, 1, true),
+                new TextDiff(4, 1, true), new TextDiff(6, 1, false), new TextDiff(8, 1, false), null,
+                new TextDiff(12, 1, true), new TextDiff(14, 1, false)), ADDED, DELETED);
+
+        // the caret is on the added "C"
+        InlineChatDiffAnnotations.Hunk hunk = diffAnnotations.getHunkAt(annotationModel, 8);
+        assertEquals(new InlineChatDiffAnnotations.Hunk(1, 4), hunk);
+        MultiTextEdit edit = diffAnnotations.resolve(document, annotationModel, List.of(hunk), ADDED);
+
+        // both added lines go in one deletion
+        assertEquals(1, edit.getChildrenSize());
+        edit.apply(document, TextEdit.NONE);
+        assertEquals("a\nb\nc\nx\nd\nD\n", document.get());
+        assertEquals(List.of(new InlineChatDiffAnnotations.Hunk(4, 2)), diffAnnotations.getHunks());
+        assertEquals(List.of(new Position(8, 1)), diffAnnotations.getPositions(annotationModel, DELETED));
+        // past the last hunk the caret wraps around to the first one
+        assertEquals(new InlineChatDiffAnnotations.Hunk(4, 2), diffAnnotations.getHunkAt(annotationModel, 20));
+    }
+
+    private List<String> annotationTypes() {
+        List<String> types = new ArrayList<>();
+        Iterator<Annotation> annotations = annotationModel.getAnnotationIterator();
+        while (annotations.hasNext()) {
+            types.add(annotations.next().getType());
+        }
+        return types;
+    }
+
+}
@@ -3,6 +3,8 @@
 
 package software.aws.toolkits.eclipse.amazonq.inlineChat;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -19,14 +21,18 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.TextSelection;
 import org.eclipse.jface.text.source.Annotation;
 import org.eclipse.jface.text.source.IAnnotationModel;
+import org.eclipse.jface.viewers.ISelectionProvider;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.texteditor.IDocumentProvider;
@@ -60,7 +66,7 @@ public final class InlineChatDiffManagerTest {
 
     @BeforeEach
     public void setUp() {
-        diffManager = InlineChatDiffManager.getInstance();
+        diffManager = new InlineChatDiffManager();
         mockTask = mock(InlineChatTask.class);
         mockEditor = mock(ITextEditor.class);
         mockDocument = mock(IDocument.class);
@@ -85,6 +91,11 @@ public final class InlineChatDiffManagerTest {
             runnable.run();
             return null;
         }).when(mockDisplay).syncExec(any(Runnable.class));
+        doAnswer(invocation -> {
+            Runnable runnable = invocation.getArgument(0);
+            runnable.run();
+            return null;
+        }).when(mockDisplay).asyncExec(any(Runnable.class));
 
         diffManager.initNewTask(mockTask, false);
     }
@@ -131,9 +142,12 @@ public final class InlineChatDiffManagerTest {
 
         CompletableFuture<Void> result = diffManager.processDiff(mockChatResult, isPartialResult);
 
+        // the diff is computed in the background and then applied on the UI thread
+        result.get(5, TimeUnit.SECONDS);
         assertTrue(result.isDone());
 
-        verify(mockDocument).replace(eq(0), anyInt(), anyString());
+        // only the range from the first changed line on is replaced
+        verify(mockDocument).replace(anyInt(), anyInt(), anyString());
         verify(mockAnnotationModel, times(numAddedLines)).addAnnotation(
             argThat(annotation -> annotation.getType().contains("diffAnnotation.added")),
             any(Position.class));
@@ -158,39 +172,25 @@ public final class InlineChatDiffManagerTest {
 
     @Test
     public void testHandleDecisionAccept() throws Exception {
+        Map<Annotation, Position> annotations = trackAddedAnnotations();
+        renderFinalResult("line1\nline2\n", "line1\nline2 modified\n");
 
-        // Setup annotations
-        Annotation addedAnnotation = mock(Annotation.class);
-        Annotation deletedAnnotation = mock(Annotation.class);
-        Position addedPosition = new Position(0, 10);
-        Position deletedPosition = new Position(20, 10);
-
-        @SuppressWarnings("unchecked")
-        Iterator<Annotation> annotationIterator = mock(Iterator.class);
-        when(annotationIterator.hasNext()).thenReturn(true, true, false, true, false);
-        when(annotationIterator.next()).thenReturn(addedAnnotation, deletedAnnotation, addedAnnotation);
-        when(mockAnnotationModel.getAnnotationIterator()).thenReturn(annotationIterator);
-
-        when(addedAnnotation.getType()).thenReturn("diffAnnotation.added");
-        when(deletedAnnotation.getType()).thenReturn("diffAnnotation.deleted");
-        when(mockAnnotationModel.getPosition(addedAnnotation)).thenReturn(addedPosition);
-        when(mockAnnotationModel.getPosition(deletedAnnotation)).thenReturn(deletedPosition);
-
-        // Setup document operations
-        when(mockDocument.getLineOfOffset(anyInt())).thenReturn(2);
-        when(mockDocument.getLineOffset(anyInt())).thenReturn(20);
-        when(mockDocument.getLineLength(anyInt())).thenReturn(10);
+        // "line2" is shown deleted at offset 6, "line2 modified" added at offset 12
+        when(mockDocument.getLineOfOffset(6)).thenReturn(1);
+        when(mockDocument.getLineOffset(1)).thenReturn(6);
+        when(mockDocument.getLineLength(1)).thenReturn(6);
+        when(mockDocument.getLength()).thenReturn(27);
 
         CompletableFuture<Void> result = diffManager.handleDecision(true);
         result.get();
 
-        verify(addedAnnotation, times(2)).getType();
-        verify(deletedAnnotation).getType();
-        verify(annotationIterator, times(5)).hasNext();
         assertTrue(result.isDone());
-        verify(mockDocument, never()).replace(0, 10, "");
-        verify(mockDocument).replace(20, 10, "");
-        verify(mockAnnotationModel).removeAnnotation(any(Annotation.class));
+        assertEquals(2, annotations.size());
+        verify(mockDocument).replace(6, 6, "");
+        verify(mockDocument, never()).replace(eq(12), anyInt(), eq(""));
+        verify(mockAnnotationModel, times(2)).removeAnnotation(any(Annotation.class));
+        // only the diff annotations are looked at, not the whole annotation model
+        verify(mockAnnotationModel, never()).getAnnotationIterator();
     }
 
     @Test
@@ -198,39 +198,43 @@ public final class InlineChatDiffManagerTest {
 
         // Test dark mode
         diffManager.initNewTask(mockTask, true);
+        Map<Annotation, Position> annotations = trackAddedAnnotations();
+        renderFinalResult("line1\nline2\n", "line1\nline2 modified\n");
 
-        // Setup annotations
-        Annotation addedAnnotation = mock(Annotation.class);
-        Annotation deletedAnnotation = mock(Annotation.class);
-        Position addedPosition = new Position(0, 10);
-        Position deletedPosition = new Position(20, 10);
-
-        @SuppressWarnings("unchecked")
-        Iterator<Annotation> annotationIterator = mock(Iterator.class);
-        when(annotationIterator.hasNext()).thenReturn(true, true, false, true, false);
-        when(annotationIterator.next()).thenReturn(addedAnnotation, deletedAnnotation, deletedAnnotation);
-        when(mockAnnotationModel.getAnnotationIterator()).thenReturn(annotationIterator);
-
-        when(addedAnnotation.getType()).thenReturn("diffAnnotation.added.dark");
-        when(deletedAnnotation.getType()).thenReturn("diffAnnotation.deleted.dark");
-        when(mockAnnotationModel.getPosition(addedAnnotation)).thenReturn(addedPosition);
-        when(mockAnnotationModel.getPosition(deletedAnnotation)).thenReturn(deletedPosition);
-
-        // Setup document operations
-        when(mockDocument.getLineOfOffset(anyInt())).thenReturn(0);
-        when(mockDocument.getLineOffset(anyInt())).thenReturn(0);
-        when(mockDocument.getLineLength(anyInt())).thenReturn(10);
+        when(mockDocument.getLineOfOffset(12)).thenReturn(2);
+        when(mockDocument.getLineOffset(2)).thenReturn(12);
+        when(mockDocument.getLineLength(2)).thenReturn(15);
+        when(mockDocument.getLength()).thenReturn(27);
 
         CompletableFuture<Void> result = diffManager.handleDecision(false);
         result.get();
 
-        verify(addedAnnotation).getType();
-        verify(deletedAnnotation, times(2)).getType();
-        verify(annotationIterator, times(5)).hasNext();
         assertTrue(result.isDone());
-        verify(mockDocument).replace(0, 10, "");
-        verify(mockDocument, never()).replace(20, 10, "");
-        verify(mockAnnotationModel).removeAnnotation(any(Annotation.class));
+        assertTrue(annotations.keySet().stream().allMatch(annotation -> annotation.getType().endsWith(".dark")));
+        verify(mockDocument).replace(12, 15, "");
+        verify(mockDocument, never()).replace(eq(6), anyInt(), eq(""));
+        verify(mockAnnotationModel, times(2)).removeAnnotation(any(Annotation.class));
+        verify(mockAnnotationModel, never()).getAnnotationIterator();
+    }
+
+    @Test
+    public void testHandleHunkDecisionAtCaret() throws Exception {
+        trackAddedAnnotations();
+        renderFinalResult("line1\nline2\n", "line1\nline2 modified\n");
+        ISelectionProvider mockSelectionProvider = mock(ISelectionProvider.class);
+        when(mockEditor.getSelectionProvider()).thenReturn(mockSelectionProvider);
+        when(mockSelectionProvider.getSelection()).thenReturn(new TextSelection(14, 0));
+        when(mockDocument.getLineOfOffset(6)).thenReturn(1);
+        when(mockDocument.getLineOffset(1)).thenReturn(6);
+        when(mockDocument.getLineLength(1)).thenReturn(6);
+        when(mockDocument.getLength()).thenReturn(27);
+
+        CompletableFuture<Boolean> result = diffManager.handleHunkDecision(true);
+
+        // the only hunk is decided on, so none are left
+        assertFalse(result.get());
+        verify(mockDocument).replace(6, 6, "");
+        verify(mockAnnotationModel, times(2)).removeAnnotation(any(Annotation.class));
     }
 
     @Test
@@ -243,20 +247,14 @@ public final class InlineChatDiffManagerTest {
     }
 
     @Test
-    void testRestoreState() {
-        Annotation diffAnnotation = mock(Annotation.class);
-        @SuppressWarnings("unchecked")
-        Iterator<Annotation> annotationIterator = mock(Iterator.class);
-        when(annotationIterator.hasNext()).thenReturn(true, false);
-        when(annotationIterator.next()).thenReturn(diffAnnotation);
-        when(mockAnnotationModel.getAnnotationIterator()).thenReturn(annotationIterator);
-        when(diffAnnotation.getType()).thenReturn("diffAnnotation.test");
+    void testRestoreState() throws Exception {
+        Map<Annotation, Position> annotations = trackAddedAnnotations();
+        renderFinalResult("line1\nline2\n", "line1\nline2 modified\n");
 
         diffManager.restoreState();
 
-        verify(mockAnnotationModel).getAnnotationIterator();
-        verify(diffAnnotation).getType();
-        verify(mockAnnotationModel).removeAnnotation(diffAnnotation);
+        annotations.keySet().forEach(annotation -> verify(mockAnnotationModel).removeAnnotation(annotation));
+        verify(mockAnnotationModel, never()).getAnnotationIterator();
     }
 
     @Test
@@ -270,6 +268,26 @@ public final class InlineChatDiffManagerTest {
             any(Throwable.class));
     }
 
+    // records the annotations added to the mocked annotation model, so their positions can be looked up
+    private Map<Annotation, Position> trackAddedAnnotations() {
+        Map<Annotation, Position> annotations = new HashMap<>();
+        doAnswer(invocation -> {
+            annotations.put(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(mockAnnotationModel).addAnnotation(any(Annotation.class), any(Position.class));
+        when(mockAnnotationModel.getPosition(any(Annotation.class)))
+            .thenAnswer(invocation -> annotations.get(invocation.getArgument(0)));
+        return annotations;
+    }
+
+    private void renderFinalResult(final String originalCode, final String newCode) throws Exception {
+        when(mockTask.hasActiveSelection()).thenReturn(true);
+        when(mockTask.getOriginalCode()).thenReturn(originalCode);
+        when(mockTask.getSelectionOffset()).thenReturn(0);
+        when(mockChatResult.body()).thenReturn(newCode);
+        diffManager.processDiff(mockChatResult, false).get(5, TimeUnit.SECONDS);
+    }
+
     private static Stream<Arguments> processDiffTestCaseProvider() {
         return Stream.of(
             // Case 1: One line modified (1 add, 1 delete), final result, not first token
@@ -0,0 +1,112 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.inlineChat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import software.aws.toolkits.eclipse.amazonq.inlineChat.InlineChatStreamingDiff.LineType;
+import software.aws.toolkits.eclipse.amazonq.inlineChat.InlineChatStreamingDiff.RenderedLine;
+
+public final class InlineChatStreamingDiffTest {
+
+    @ParameterizedTest
+    @MethodSource("streamingTestCaseProvider")
+    void testStreamedUpdatesKeepDisplayedTextInSync(final String originalCode, final String response) {
+        InlineChatStreamingDiff diff = new InlineChatStreamingDiff(originalCode);
+        StringBuilder displayed = new StringBuilder(originalCode);
+
+        // stream the response a few characters at a time, as partial results do
+        for (int end = 1; end <= response.length(); end += 3) {
+            apply(diff.update(response.substring(0, end)), displayed);
+            assertEquals(render(diff.getRenderedLines(), originalCode), displayed.toString());
+        }
+        apply(diff.update(response), displayed);
+
+        assertEquals(render(diff.getRenderedLines(), originalCode), displayed.toString());
+        assertEquals(originalCode.lines().toList(), linesOf(diff.getRenderedLines(), LineType.ADDED));
+        assertEquals(response.lines().toList(), linesOf(diff.getRenderedLines(), LineType.DELETED));
+        assertEquals(displayed.length(), diff.getDisplayLength());
+    }
+
+    @Test
+    void testStableLinesAreNotReplacedAgain() {
+        String originalCode = "a\nb\nc\nd\ne\n";
+        InlineChatStreamingDiff diff = new InlineChatStreamingDiff(originalCode);
+        StringBuilder displayed = new StringBuilder(originalCode);
+
+        apply(diff.update("a\nb\nx\n"), displayed);
+        InlineChatStreamingDiff.Update update = diff.update("a\nb\nx\nd\n");
+        apply(update, displayed);
+
+        // only the lines after the matched "b" are rendered again
+        assertTrue(update.startLine() >= 2);
+        assertEquals("a\nb\nc\nx\nd\ne\n", displayed.toString());
+        assertEquals(2, diff.getDeletedLineCount());
+        assertEquals(1, diff.getAddedLineCount());
+    }
+
+    @Test
+    void testRewrittenResponseIsDiffedAgainInFull() {
+        String originalCode = "one\ntwo\nthree";
+        InlineChatStreamingDiff diff = new InlineChatStreamingDiff(originalCode);
+        StringBuilder displayed = new StringBuilder(originalCode);
+
+        apply(diff.update("one\ntwo\n"), displayed);
+        apply(diff.update("uno\ntwo\nthree"), displayed);
+
+        assertEquals("one\nuno\ntwo\nthree", displayed.toString());
+        assertEquals(1, diff.getDeletedLineCount());
+        assertEquals(1, diff.getAddedLineCount());
+    }
+
+    @Test
+    void testUnchangedResponseIsAnEmptyUpdate() {
+        InlineChatStreamingDiff diff = new InlineChatStreamingDiff("same\n");
+
+        assertTrue(diff.update("same\n").isEmpty());
+        assertEquals(List.of(new RenderedLine("same", LineType.UNCHANGED)), diff.getRenderedLines());
+    }
+
+    private static Stream<Arguments> streamingTestCaseProvider() {
+        return Stream.of(
+            Arguments.of("line1\nline2\n", "line1\nline2 modified\n"),
+            Arguments.of("hello\nworld", "hello\nworld\nnew line"),
+            Arguments.of("one\ntwo\nthree\nfour\n", "one\nfour\n"),
+            Arguments.of("", "int x = 1;\nint y = 2;\n"),
+            Arguments.of("a\nb\nc\n", "x\ny\nz\n"),
+            Arguments.of("if (a) {\n    b();\n}\nreturn;\n", "if (a) {\n    c();\n    b();\n}\n\nreturn;"),
+            Arguments.of("}\n}\n}\n", "    }\n}\n  }\n}\n"));
+    }
+
+    private static void apply(final InlineChatStreamingDiff.Update update, final StringBuilder displayed) {
+        displayed.replace(update.displayOffset(), update.displayOffset() + update.displayRemovedLength(),
+                update.displayText());
+    }
+
+    private static String render(final List<RenderedLine> lines, final String originalCode) {
+        StringBuilder text = new StringBuilder();
+        for (RenderedLine line : lines) {
+            text.append(line.text()).append("\n");
+        }
+        if (!originalCode.endsWith("\n") && text.length() > 0) {
+            text.setLength(text.length() - 1);
+        }
+        return text.toString();
+    }
+
+    // the lines left once the ones of the given type are taken out
+    private static List<String> linesOf(final List<RenderedLine> lines, final LineType excluded) {
+        return lines.stream().filter(line -> line.type() != excluded).map(RenderedLine::text).toList();
+    }
+
+}
@@ -5,11 +5,17 @@ package software.aws.toolkits.eclipse.amazonq.lsp.encryption;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.RegisterExtension;
-import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.DirectDecrypter;
+import com.nimbusds.jose.crypto.DirectEncrypter;
+
 import software.aws.toolkits.eclipse.amazonq.exception.AmazonQPluginException;
-import software.aws.toolkits.eclipse.amazonq.extensions.implementation.LspJsonWebTokenStaticMockExtension;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
@@ -29,10 +35,6 @@ import static org.mockito.Mockito.when;
 
 public final class DefaultLspEncryptionManagerTest {
 
-    @RegisterExtension
-    private static LspJsonWebTokenStaticMockExtension lspJsonWebTokenStaticMockExtension
-            = new LspJsonWebTokenStaticMockExtension();
-
     private LspEncryptionKey lspEncryptionKeyMock;
     private LspEncryptionManager lspEncryptionManager;
     private SecretKey secretKey;
@@ -74,7 +76,7 @@ public final class DefaultLspEncryptionManagerTest {
     }
 
     @Test
-    void testEncryptCallsLspJsonWebTokenMethod() {
+    void testEncryptProducesJweReadableByNimbus() throws Exception {
         SecretKey testSecretKey = TestSecretKey.createTestSecretKey();
         TestObject testObject = new TestObject("test");
 
@@ -82,26 +84,35 @@ public final class DefaultLspEncryptionManagerTest {
 
         String result = lspEncryptionManager.encrypt(testObject);
 
-        MockedStatic<LspJsonWebToken> lspJsonWebTokenStaticMock = lspJsonWebTokenStaticMockExtension.getStaticMock();
-        lspJsonWebTokenStaticMock.verify(() -> LspJsonWebToken.encrypt(any(SecretKey.class), any(Object.class)),
-                times(1));
-
-        assertEquals(result, "Mocked Encrypted Value");
+        JWEObject jweObject = JWEObject.parse(result);
+        jweObject.decrypt(new DirectDecrypter(testSecretKey));
+        assertEquals("{\"field\":\"test\"}", jweObject.getPayload().toString());
     }
 
     @Test
-    void testDecryptCallsLspJsonWebTokenMethod() {
+    void testDecryptReadsJweProducedByNimbus() throws Exception {
         SecretKey testSecretKey = TestSecretKey.createTestSecretKey();
 
         when(lspEncryptionKeyMock.getKey()).thenReturn(testSecretKey);
 
-        String result = lspEncryptionManager.decrypt("test");
+        JWEObject jweObject = new JWEObject(new JWEHeader(JWEAlgorithm.DIR, EncryptionMethod.A256GCM),
+                new Payload("{\"field\":\"test\"}"));
+        jweObject.encrypt(new DirectEncrypter(testSecretKey));
+
+        String result = lspEncryptionManager.decrypt(jweObject.serialize());
+
+        assertEquals("{\"field\":\"test\"}", result);
+    }
+
+    @Test
+    void testEncryptionContextIsBuiltOnce() {
+        when(lspEncryptionKeyMock.getKey()).thenReturn(TestSecretKey.createTestSecretKey());
 
-        MockedStatic<LspJsonWebToken> lspJsonWebTokenStaticMock = lspJsonWebTokenStaticMockExtension.getStaticMock();
-        lspJsonWebTokenStaticMock.verify(() -> LspJsonWebToken.decrypt(any(SecretKey.class), any(String.class)),
-                times(1));
+        String encrypted = lspEncryptionManager.encrypt(new TestObject("test"));
+        lspEncryptionManager.decrypt(encrypted);
+        lspEncryptionManager.encrypt(new TestObject("test"));
 
-        assertEquals(result, "Mocked Decrypted Value");
+        verify(lspEncryptionKeyMock, times(1)).getKey();
     }
 
     @Test
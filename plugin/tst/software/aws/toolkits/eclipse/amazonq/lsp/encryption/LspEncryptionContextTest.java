@@ -0,0 +1,90 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.lsp.encryption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.DirectDecrypter;
+import com.nimbusds.jose.crypto.DirectEncrypter;
+
+import software.aws.toolkits.eclipse.amazonq.exception.AmazonQPluginException;
+
+public final class LspEncryptionContextTest {
+
+    private static SecretKeySpec createTestSecretKey() {
+        byte[] keyBytes = new byte[32];
+        for (int i = 0; i < keyBytes.length; i++) {
+            keyBytes[i] = (byte) i;
+        }
+        return new SecretKeySpec(keyBytes, "AES");
+    }
+
+    private static String createBody(final int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + (i % 26)));
+        }
+        return builder.toString();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1024, 16 * 1024, 256 * 1024})
+    void testEncryptedPayloadIsReadableByNimbus(final int payloadLength) throws Exception {
+        SecretKeySpec key = createTestSecretKey();
+        String body = createBody(payloadLength);
+
+        String jwt = new LspEncryptionContext(key).encrypt(Map.of("body", body));
+
+        JWEObject jweObject = JWEObject.parse(jwt);
+        jweObject.decrypt(new DirectDecrypter(key));
+        assertEquals("{\"body\":\"" + body + "\"}", jweObject.getPayload().toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1024, 16 * 1024, 256 * 1024})
+    void testDecryptsPayloadProducedByNimbus(final int payloadLength) throws Exception {
+        SecretKeySpec key = createTestSecretKey();
+        String payload = "{\"body\":\"" + createBody(payloadLength) + "\"}";
+        JWEObject jweObject = new JWEObject(new JWEHeader(JWEAlgorithm.DIR, EncryptionMethod.A256GCM), new Payload(payload));
+        jweObject.encrypt(new DirectEncrypter(key));
+
+        LspEncryptionContext context = new LspEncryptionContext(key);
+
+        // decrypt twice to exercise the cached header and per-thread cipher
+        assertEquals(payload, context.decrypt(jweObject.serialize()));
+        assertEquals(payload, context.decrypt(jweObject.serialize()));
+    }
+
+    @Test
+    void testTamperedCipherTextFailsAuthentication() {
+        LspEncryptionContext context = new LspEncryptionContext(createTestSecretKey());
+        String jwt = context.encrypt(Map.of("body", "body"));
+        String[] parts = jwt.split("\\.");
+        parts[3] = parts[3].charAt(0) == 'A' ? "B" + parts[3].substring(1) : "A" + parts[3].substring(1);
+
+        assertThrows(AmazonQPluginException.class, () -> context.decrypt(String.join(".", parts)));
+    }
+
+    @Test
+    void testInvalidKeyLength() {
+        LspEncryptionContext context = new LspEncryptionContext(new SecretKeySpec(new byte[16], "AES"));
+
+        assertThrows(AmazonQPluginException.class, () -> context.encrypt(Map.of("body", "body")));
+    }
+
+}
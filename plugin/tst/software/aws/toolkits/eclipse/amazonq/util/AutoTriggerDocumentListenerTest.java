@@ -11,6 +11,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 
@@ -46,6 +47,7 @@ public class AutoTriggerDocumentListenerTest {
         sessionMockStatic = mockStatic(QInvocationSession.class);
         sessionMock = mock(QInvocationSession.class, RETURNS_DEEP_STUBS);
         sessionMockStatic.when(QInvocationSession::getInstance).thenReturn(sessionMock);
+        sessionMockStatic.when(() -> QInvocationSession.getSession(any())).thenReturn(sessionMock);
 
         editorUtilsMockStatic = mockStatic(QEclipseEditorUtils.class);
         ITextEditor editorMock = mock(ITextEditor.class);
@@ -82,7 +84,12 @@ public class AutoTriggerDocumentListenerTest {
         when(sessionMock.isActive()).thenReturn(false);
         when(sessionMock.getViewer().getTextWidget().getCaretOffset()).thenReturn(0);
 
-        AutoTriggerDocumentListener listener = new AutoTriggerDocumentListener();
+        // run triggers as soon as they are scheduled; debouncing is covered by InlineCompletionTriggerSchedulerTest
+        AutoTriggerDocumentListener listener = new AutoTriggerDocumentListener(new InlineCompletionTriggerScheduler(
+                () -> 0L, (task, delay) -> {
+                    task.run();
+                    return CompletableFuture.completedFuture(null);
+                }));
 
         listener.documentChanged(eventMock);
         verify(sessionMock, times(0)).invoke(any(Integer.class), any(Integer.class));
@@ -99,12 +106,13 @@ public class AutoTriggerDocumentListenerTest {
 
         when(sessionMock.isDecisionMade()).thenReturn(false);
         listener.documentChanged(eventMock);
-        verify(sessionMock, times(1)).invoke(0, TEXT_STUB.length());
+        // the trigger runs after the caret has moved past the typed text
+        verify(sessionMock, times(1)).invoke(0, 0);
 
         when(sessionMock.isActive()).thenReturn(true);
         listener.documentChanged(eventMock);
         verify(sessionMock, times(1)).start(any(ITextEditor.class));
-        verify(sessionMock, times(2)).invoke(0, TEXT_STUB.length());
+        verify(sessionMock, times(2)).invoke(0, 0);
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,82 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import software.aws.toolkits.eclipse.amazonq.util.InlineCompletionLatencyRecorder.Stage;
+
+public final class InlineCompletionLatencyRecorderTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final InlineCompletionLatencyRecorder recorder = new InlineCompletionLatencyRecorder(now::get);
+
+    @Test
+    void testTraceRecordsTimeBetweenMarks() {
+        var trace = recorder.startTrace("java", 0);
+        now.set(2_000_000);
+        trace.mark(Stage.TRIGGER_TO_REQUEST);
+        now.set(152_000_000);
+        trace.mark(Stage.REQUEST_TO_RESPONSE);
+
+        var stages = recorder.snapshot().get("java");
+        assertEquals(List.of(Stage.TRIGGER_TO_REQUEST, Stage.REQUEST_TO_RESPONSE), List.copyOf(stages.keySet()));
+        assertEquals(2, stages.get(Stage.TRIGGER_TO_REQUEST).maxMs());
+        assertEquals(150, stages.get(Stage.REQUEST_TO_RESPONSE).maxMs());
+    }
+
+    @Test
+    void testSkippedStageIsNotRecorded() {
+        var trace = recorder.startTrace("python", 0);
+        now.set(500_000_000);
+        trace.skip();
+        now.set(501_000_000);
+        trace.mark(Stage.RESPONSE_TO_DISPATCH);
+
+        var stages = recorder.snapshot().get("python");
+        assertEquals(1, stages.size());
+        assertEquals(1, stages.get(Stage.RESPONSE_TO_DISPATCH).maxMs());
+    }
+
+    @Test
+    void testUnknownLanguageIsGroupedTogether() {
+        recorder.startTrace(null, 0).mark(Stage.TRIGGER_TO_REQUEST);
+        recorder.startTrace(null, 0).mark(Stage.TRIGGER_TO_REQUEST);
+
+        assertEquals(2, recorder.snapshot().get(InlineCompletionLatencyRecorder.UNKNOWN_LANGUAGE)
+                .get(Stage.TRIGGER_TO_REQUEST).count());
+    }
+
+    @Test
+    void testExportedJsonHasStatisticsByLanguageAndStage() throws Exception {
+        recorder.record("java", Stage.DISPATCH_TO_FIRST_PAINT, 4_000_000);
+        recorder.record("go", Stage.DISPATCH_TO_FIRST_PAINT, 8_000_000);
+
+        JsonNode json = ObjectMapperFactory.getInstance().readTree(recorder.exportJson());
+        assertEquals(List.of("go", "java"), toList(json.fieldNames()));
+        JsonNode paint = json.get("java").get("DISPATCH_TO_FIRST_PAINT");
+        assertEquals(1, paint.get("count").asLong());
+        assertEquals(4.0, paint.get("p99Ms").asDouble());
+
+        recorder.reset();
+        assertTrue(recorder.snapshot().isEmpty());
+    }
+
+    private static <T> List<T> toList(final Iterator<T> iterator) {
+        List<T> values = new ArrayList<>();
+        iterator.forEachRemaining(values::add);
+        return values;
+    }
+
+}
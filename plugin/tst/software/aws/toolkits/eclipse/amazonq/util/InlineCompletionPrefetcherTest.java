@@ -0,0 +1,100 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionResponse;
+
+public final class InlineCompletionPrefetcherTest {
+
+    private static final String URI = "file:///Main.java";
+    private static final String BEFORE = "class Main {\n";
+    private static final String AFTER = "\n}\n";
+
+    private final List<Runnable> expiries = new ArrayList<>();
+    private InlineCompletionPrefetcher prefetcher;
+
+    @BeforeEach
+    void setUp() {
+        expiries.clear();
+        prefetcher = new InlineCompletionPrefetcher((task, delay) -> {
+            expiries.add(task);
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    @Test
+    void testClaimAtSamePositionHandsOverResponse() {
+        var response = new CompletableFuture<InlineCompletionResponse>();
+        prefetcher.prefetch(snapshot("    int x = 1;"), response);
+
+        var claim = prefetcher.claim(snapshot("    int x = 1;"));
+
+        assertTrue(claim.isPresent());
+        assertSame(response, claim.get().response());
+        assertEquals(0, claim.get().typedLength());
+        assertFalse(response.isCancelled());
+        assertTrue(prefetcher.claim(snapshot("    int x = 1;")).isEmpty());
+        assertEquals(1, prefetcher.getClaimCount());
+    }
+
+    @Test
+    void testClaimAfterTypingReportsTypedLength() {
+        prefetcher.prefetch(snapshot("    int x = 1;"), new CompletableFuture<>());
+
+        var claim = prefetcher.claim(snapshot("    int x = 1; //"));
+
+        assertTrue(claim.isPresent());
+        assertEquals(3, claim.get().typedLength());
+    }
+
+    @Test
+    void testClaimAtOtherPositionCancelsPrefetch() {
+        var response = new CompletableFuture<InlineCompletionResponse>();
+        prefetcher.prefetch(snapshot("    int x = 1;"), response);
+
+        assertTrue(prefetcher.claim(snapshot("    int x")).isEmpty());
+        assertTrue(response.isCancelled());
+    }
+
+    @Test
+    void testNewPrefetchCancelsPrevious() {
+        var first = new CompletableFuture<InlineCompletionResponse>();
+        var second = new CompletableFuture<InlineCompletionResponse>();
+        prefetcher.prefetch(snapshot("    int x = 1;"), first);
+        prefetcher.prefetch(snapshot("    int y = 2;"), second);
+
+        assertTrue(first.isCancelled());
+        assertFalse(second.isCancelled());
+        assertEquals(2, prefetcher.getPrefetchCount());
+    }
+
+    @Test
+    void testExpiredPrefetchIsCancelled() {
+        var response = new CompletableFuture<InlineCompletionResponse>();
+        prefetcher.prefetch(snapshot("    int x = 1;"), response);
+
+        expiries.forEach(Runnable::run);
+
+        assertTrue(response.isCancelled());
+        assertTrue(prefetcher.claim(snapshot("    int x = 1;")).isEmpty());
+    }
+
+    private static InlineSuggestionCache.Snapshot snapshot(final String linePrefix) {
+        String text = BEFORE + linePrefix + AFTER;
+        return InlineSuggestionCache.snapshot(URI, text, 1, BEFORE.length(), BEFORE.length() + linePrefix.length());
+    }
+
+}
@@ -0,0 +1,109 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class InlineCompletionTriggerSchedulerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<Runnable> scheduledTasks = new ArrayList<>();
+    private final List<Long> scheduledDelays = new ArrayList<>();
+    private final List<CompletableFuture<Void>> scheduledFutures = new ArrayList<>();
+    private InlineCompletionTriggerScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new InlineCompletionTriggerScheduler(clock::get, (task, delay) -> {
+            scheduledTasks.add(task);
+            scheduledDelays.add(delay);
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            scheduledFutures.add(future);
+            return future;
+        });
+    }
+
+    @Test
+    void testBurstOfKeystrokesTriggersOnce() {
+        AtomicInteger triggers = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            scheduler.onKeystroke(triggers::incrementAndGet);
+            clock.addAndGet(40);
+        }
+
+        scheduledTasks.forEach(Runnable::run);
+
+        assertEquals(1, triggers.get());
+        assertEquals(10, scheduler.getKeystrokeCount());
+        assertEquals(1, scheduler.getTriggerCount());
+        // every superseded timer was cancelled
+        assertTrue(scheduledFutures.subList(0, 9).stream().allMatch(CompletableFuture::isCancelled));
+    }
+
+    @Test
+    void testCancelDropsPendingTrigger() {
+        AtomicInteger triggers = new AtomicInteger();
+        scheduler.onKeystroke(triggers::incrementAndGet);
+
+        scheduler.cancel();
+        scheduledTasks.forEach(Runnable::run);
+
+        assertEquals(0, triggers.get());
+    }
+
+    @Test
+    void testWindowFollowsTypingSpeed() {
+        assertEquals(InlineCompletionTriggerScheduler.MIN_DEBOUNCE_MS, scheduler.getDebounceMillis());
+
+        typeWithGap(100, 5);
+        assertEquals(150, scheduler.getDebounceMillis());
+
+        typeWithGap(10, 20);
+        assertEquals(InlineCompletionTriggerScheduler.MIN_DEBOUNCE_MS, scheduler.getDebounceMillis());
+
+        typeWithGap(600, 20);
+        assertEquals(InlineCompletionTriggerScheduler.MAX_DEBOUNCE_MS, scheduler.getDebounceMillis());
+    }
+
+    @Test
+    void testPausesDoNotCountAsTypingSpeed() {
+        typeWithGap(100, 5);
+        clock.addAndGet(InlineCompletionTriggerScheduler.TYPING_PAUSE_MS * 5);
+        scheduler.onKeystroke(() -> { });
+
+        assertEquals(150, scheduler.getDebounceMillis());
+    }
+
+    @Test
+    void testWindowIsCappedByServerLatency() {
+        typeWithGap(150, 5);
+        assertEquals(225, scheduler.getDebounceMillis());
+
+        scheduler.recordServerLatency(200);
+        assertEquals(100, scheduler.getDebounceMillis());
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.recordServerLatency(20);
+        }
+        assertEquals(InlineCompletionTriggerScheduler.MIN_DEBOUNCE_MS, scheduler.getDebounceMillis());
+    }
+
+    private void typeWithGap(final long gapMs, final int keystrokes) {
+        for (int i = 0; i < keystrokes; i++) {
+            scheduler.onKeystroke(() -> { });
+            clock.addAndGet(gapMs);
+        }
+    }
+
+}
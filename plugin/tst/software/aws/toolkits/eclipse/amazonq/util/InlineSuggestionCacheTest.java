@@ -0,0 +1,168 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionItem;
+
+public final class InlineSuggestionCacheTest {
+
+    private static final String URI = "file:///Main.java";
+    private static final String BEFORE = "class Main {\n    void run() {\n";
+    private static final String AFTER = "\n    }\n}\n";
+
+    private InlineSuggestionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new InlineSuggestionCache(2);
+    }
+
+    @Test
+    void testSamePositionHits() {
+        cache.put(snapshot("        ", "", URI), "session", List.of(item("1", "System.out.println();")));
+
+        var hit = cache.get(snapshot("        ", "", URI));
+
+        assertTrue(hit.isPresent());
+        assertEquals("session", hit.get().sessionId());
+        assertEquals(0, hit.get().typedLength());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void testTypeaheadMatchingSuggestionHits() {
+        cache.put(snapshot("        ", "", URI), "session",
+                List.of(item("1", "System.out.println();"), item("2", "return;")));
+
+        var hit = cache.get(snapshot("        Sys", "", URI));
+
+        assertTrue(hit.isPresent());
+        assertEquals(3, hit.get().typedLength());
+        assertEquals(2, hit.get().items().size());
+    }
+
+    @Test
+    void testTypeaheadMatchingNoSuggestionMisses() {
+        cache.put(snapshot("        ", "", URI), "session", List.of(item("1", "System.out.println();")));
+
+        assertTrue(cache.get(snapshot("        int", "", URI)).isEmpty());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testEditsOutsidePrefixMiss() {
+        cache.put(snapshot("        ", "", URI), "session", List.of(item("1", "System.out.println();")));
+
+        // text after the caret changed
+        assertTrue(cache.get(snapshot("        ", "x", URI)).isEmpty());
+        // text above the line changed
+        assertTrue(cache.get(InlineSuggestionCache.snapshot(URI, "// edit\n" + BEFORE + "        " + AFTER, 3,
+                ("// edit\n" + BEFORE).length(), ("// edit\n" + BEFORE + "        ").length())).isEmpty());
+        // another document
+        assertTrue(cache.get(snapshot("        ", "", "file:///Other.java")).isEmpty());
+        // backspacing past the cached prefix
+        assertTrue(cache.get(snapshot("    ", "", URI)).isEmpty());
+        assertEquals(0, cache.getHitRate());
+    }
+
+    @Test
+    void testEditsOutsideContextWindowStillHit() {
+        String farAbove = "// " + "x".repeat(InlineSuggestionCache.CONTEXT_LENGTH) + "\n";
+        String text = farAbove + BEFORE + "        " + AFTER;
+        int lineOffset = (farAbove + BEFORE).length();
+        cache.put(InlineSuggestionCache.snapshot(URI, text, 3, lineOffset, lineOffset + 8), "session",
+                List.of(item("1", "System.out.println();")));
+
+        // the language server does not see an edit this far above the caret either
+        String edited = "//" + text.substring("// ".length());
+        var hit = cache.get(InlineSuggestionCache.snapshot(URI, edited, 3, lineOffset - 1, lineOffset + 7));
+
+        assertTrue(hit.isPresent());
+    }
+
+    @Test
+    void testSnapshotOfContextWindowMatchesWholeDocument() {
+        String farAbove = "// " + "x".repeat(InlineSuggestionCache.CONTEXT_LENGTH) + "\n";
+        String text = farAbove + BEFORE + "        " + AFTER;
+        int lineOffset = (farAbove + BEFORE).length();
+        int start = lineOffset - InlineSuggestionCache.CONTEXT_LENGTH;
+
+        assertEquals(InlineSuggestionCache.snapshot(URI, text, 3, lineOffset, lineOffset + 8),
+                InlineSuggestionCache.snapshot(URI, text.substring(start), 3, lineOffset - start, lineOffset + 8 - start));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        cache.put(snapshot("a", "", URI), "s1", List.of(item("1", "a1")));
+        cache.put(snapshot("b", "1", URI), "s2", List.of(item("2", "b2")));
+        cache.get(snapshot("a", "", URI));
+
+        cache.put(snapshot("c", "2", URI), "s3", List.of(item("3", "c3")));
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.get(snapshot("a", "", URI)).isPresent());
+        assertTrue(cache.get(snapshot("b", "1", URI)).isEmpty());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testLoggedSessionIsNotServedAgain() {
+        cache.put(snapshot("        ", "", URI), "session", List.of(item("1", "System.out.println();")));
+        cache.markShown("session");
+
+        cache.invalidate("session");
+
+        assertTrue(cache.get(snapshot("        ", "", URI)).isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testUnshownSessionsAreReportedWhenDropped() {
+        List<String> unshown = new ArrayList<>();
+        cache = new InlineSuggestionCache(1, (sessionId, items) -> unshown.add(sessionId));
+        cache.put(snapshot("a", "", URI), "shown", List.of(item("1", "a1")));
+        cache.markShown("shown");
+        // replacing a shown entry leaves its result to the session showing it
+        cache.put(snapshot("a", "", URI), "refresh", List.of(item("2", "a2")));
+        assertTrue(unshown.isEmpty());
+
+        // evicting the refresh nobody has shown closes its session
+        cache.put(snapshot("b", "", URI), "other", List.of(item("3", "b3")));
+        assertEquals(List.of("refresh"), unshown);
+
+        cache.clear();
+        assertEquals(List.of("refresh", "other"), unshown);
+    }
+
+    @Test
+    void testEmptyResponsesAreNotCached() {
+        cache.put(snapshot("        ", "", URI), "session", List.of());
+
+        assertEquals(0, cache.size());
+    }
+
+    private static InlineSuggestionCache.Snapshot snapshot(final String linePrefix, final String rightContext,
+            final String uri) {
+        String text = BEFORE + linePrefix + rightContext + AFTER;
+        return InlineSuggestionCache.snapshot(uri, text, 2, BEFORE.length(), BEFORE.length() + linePrefix.length());
+    }
+
+    private static InlineCompletionItem item(final String id, final String insertText) {
+        InlineCompletionItem item = new InlineCompletionItem();
+        item.setItemId(id);
+        item.setInsertText(insertText);
+        return item;
+    }
+
+}
@@ -0,0 +1,89 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import software.aws.toolkits.eclipse.amazonq.lsp.model.InlineCompletionItem;
+
+public final class InlineSuggestionModelTest {
+
+    @Test
+    void testModelSplitsLinesAndBlanksMatchedCloseBrackets() {
+        InlineSuggestionModel model = InlineSuggestionModel.of("foo(bar) {\n    x\n}]");
+
+        assertEquals(3, model.getLineCount());
+        assertEquals("    x", model.getLine(1));
+        assertEquals(11, model.getLineStart(1));
+        assertEquals(17, model.getLineStart(2));
+
+        assertEquals("foo(bar  {", model.getNormalText(0));
+        assertEquals("    x", model.getNormalText(1));
+        // the unmatched close bracket stays in the line
+        assertEquals(" ]", model.getNormalText(2));
+    }
+
+    @Test
+    void testModelKeepsPairsInClosingOrder() {
+        InlineSuggestionModel model = InlineSuggestionModel.of("foo(bar) {\n}");
+
+        assertEquals(2, model.getPairCount());
+        assertEquals('(', model.getOpenSymbol(0));
+        assertEquals(3, model.getOpenOffset(0));
+        assertEquals(7, model.getCloseOffset(0));
+        assertEquals('{', model.getOpenSymbol(1));
+        assertEquals(0, model.getOpenLine(1));
+        assertEquals(1, model.getCloseLine(1));
+        assertEquals(0, model.getCloseColumn(1));
+        assertEquals('}', model.getCloseSymbol(1));
+    }
+
+    @Test
+    void testModelsBuiltOnOneThreadAreIndependent() {
+        InlineSuggestionModel first = InlineSuggestionModel.of("a(b) {\n[c]\n}");
+        InlineSuggestionModel second = InlineSuggestionModel.of("d");
+
+        assertEquals(3, first.getPairCount());
+        assertEquals(3, first.getLineCount());
+        assertEquals('[', first.getOpenSymbol(1));
+        assertEquals(0, second.getPairCount());
+        assertEquals(1, second.getLineCount());
+    }
+
+    @Test
+    void testPrecomputeKeepsSuggestionOrder() throws Exception {
+        List<InlineCompletionItem> items = List.of(item("a(b)"), item("c\nd"), item("e[f]\ng"));
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<InlineSuggestionModel> models = InlineSuggestionModel.precompute(items, executor).get();
+
+            assertEquals(3, models.size());
+            for (int i = 0; i < items.size(); i++) {
+                assertEquals(items.get(i).getInsertText(), models.get(i).getInsertText());
+            }
+            assertEquals(2, models.get(1).getLineCount());
+            assertEquals(1, models.get(2).getPairCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testPrecomputeOfNoSuggestionsCompletesImmediately() {
+        assertEquals(List.of(), InlineSuggestionModel.precompute(List.of(), Runnable::run).join());
+    }
+
+    private static InlineCompletionItem item(final String insertText) {
+        InlineCompletionItem item = new InlineCompletionItem();
+        item.setInsertText(insertText);
+        return item;
+    }
+
+}
@@ -0,0 +1,81 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public final class LatencyHistogramTest {
+
+    @Test
+    void testEmptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(new LatencyHistogram.Snapshot(0, 0, 0, 0, 0, 0), histogram.snapshot());
+    }
+
+    @Test
+    void testBucketsCoverEveryValueWithinPrecision() {
+        long previousBucket = -1;
+        for (long micros = 0; micros < 1 << 20; micros++) {
+            int bucket = LatencyHistogram.bucketOf(micros);
+            assertTrue(bucket == previousBucket || bucket == previousBucket + 1);
+            long highest = LatencyHistogram.highestValueIn(bucket);
+            assertTrue(highest >= micros);
+            assertTrue(highest - micros <= micros / LatencyHistogram.SUB_BUCKET_COUNT);
+            previousBucket = bucket;
+        }
+    }
+
+    @Test
+    void testPercentilesOfUniformLatencies() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(millis, TimeUnit.MILLISECONDS);
+        }
+
+        var snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.count());
+        assertEquals(50.5, snapshot.meanMs());
+        assertEquals(50, snapshot.p50Ms(), 50 * 0.035);
+        assertEquals(90, snapshot.p90Ms(), 90 * 0.035);
+        assertEquals(99, snapshot.p99Ms(), 99 * 0.035);
+        assertEquals(100, snapshot.maxMs());
+    }
+
+    @Test
+    void testHugeValuesAreClampedToLastBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(30, TimeUnit.DAYS);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(TimeUnit.DAYS.toMicros(30), histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testConcurrentRecordingLosesNothing() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i % 500, TimeUnit.MICROSECONDS);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(40_000, histogram.getCount());
+    }
+
+}
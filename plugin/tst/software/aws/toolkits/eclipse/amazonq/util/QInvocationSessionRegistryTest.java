@@ -0,0 +1,83 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.events.DisposeListener;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+public final class QInvocationSessionRegistryTest {
+
+    private final QInvocationSessionRegistry registry = QInvocationSessionRegistry.getInstance();
+
+    @Test
+    void testEachViewerGetsItsOwnSession() {
+        ITextViewer first = mockViewer(mock(StyledText.class));
+        ITextViewer second = mockViewer(mock(StyledText.class));
+
+        QInvocationSession firstSession = registry.getSession(first);
+
+        assertSame(firstSession, registry.getSession(first));
+        assertNotSame(firstSession, registry.getSession(second));
+    }
+
+    @Test
+    void testNoViewerFallsBackToDetachedSession() {
+        QInvocationSession detached = registry.getSession(null);
+
+        assertNotNull(detached);
+        assertSame(detached, registry.getSession(null));
+    }
+
+    @Test
+    void testSessionIsDroppedWhenWidgetIsDisposed() {
+        StyledText widget = mock(StyledText.class);
+        ITextViewer viewer = mockViewer(widget);
+        QInvocationSession session = registry.getSession(viewer);
+        int sessionCount = registry.getSessionCount();
+        registry.activate(session);
+
+        ArgumentCaptor<DisposeListener> disposeListener = ArgumentCaptor.forClass(DisposeListener.class);
+        verify(widget).addDisposeListener(disposeListener.capture());
+        disposeListener.getValue().widgetDisposed(null);
+
+        assertEquals(sessionCount - 1, registry.getSessionCount());
+        assertNotSame(session, registry.getActiveSession());
+        assertNotSame(session, registry.getSession(viewer));
+    }
+
+    @Test
+    void testStatusCallbacksOnlyFollowActiveSession() {
+        QInvocationSession active = registry.getSession(mockViewer(mock(StyledText.class)));
+        QInvocationSession background = registry.getSession(mockViewer(mock(StyledText.class)));
+        Runnable idle = mock(Runnable.class);
+        registry.assignIdlingCallback(idle);
+
+        registry.activate(active);
+        registry.onIdle(background);
+        registry.onIdle(active);
+
+        // once for the handoff and once for the active session going idle
+        verify(idle, times(2)).run();
+        registry.assignIdlingCallback(null);
+    }
+
+    private static ITextViewer mockViewer(final StyledText widget) {
+        ITextViewer viewer = mock(ITextViewer.class);
+        when(viewer.getTextWidget()).thenReturn(widget);
+        return viewer;
+    }
+
+}
@@ -17,13 +17,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.jface.text.ITextViewer;
@@ -73,7 +68,6 @@ public class QInvocationSessionTest {
     private static MockedStatic<Platform> prefMockStatic;
     private static MockedStatic<Activator> activatorMockStatic;
     private static MockedStatic<Display> displayMockStatic;
-    private static MockedStatic<ThreadingUtils> threadingUtilsMock;
     private static MockedStatic<InlineCompletionUtils> inlineCompletionUtilsMock;
     private static MockedStatic<QEclipseEditorUtils> editorUtilsMock;
     private static MockedStatic<PlatformUI> platformUIMockStatic;
@@ -138,9 +132,6 @@ public class QInvocationSessionTest {
         if (displayMockStatic != null) {
             displayMockStatic.close();
         }
-        if (threadingUtilsMock != null) {
-            threadingUtilsMock.close();
-        }
         if (inlineCompletionUtilsMock != null) {
             inlineCompletionUtilsMock.close();
         }
@@ -185,28 +176,13 @@ public class QInvocationSessionTest {
     // - Session should be ended after all requests in flight have resolved
     // - Session should not be ended if there are still requests in flight
     void testSessionEnd() throws InterruptedException, ExecutionException {
-        threadingUtilsMock = mockStatic(ThreadingUtils.class);
-        threadingUtilsMock.when(() -> ThreadingUtils.executeAsyncTaskAndReturnFuture(any(Runnable.class)))
-                .thenAnswer(new Answer<Future<?>>() {
-                    @Override
-                    public Future<?> answer(final InvocationOnMock invocation) throws Throwable {
-                        Runnable runnable = invocation.getArgument(0);
-                        Runnable wrapper = () -> {
-                            mockLspProvider();
-                            mockDisplayAsyncCall();
-                            mockQEclipseEditorUtils();
-                            runnable.run();
-                        };
-                        ExecutorService executor = Executors.newSingleThreadExecutor();
-                        return executor.submit(wrapper);
-                    }
-                });
+        // The server responds immediately and the Display mock runs UI work inline,
+        // so each request resolves before invoke returns
+        AmazonQLspServer mockAmazonQServer = mockLspProvider();
 
         QInvocationSession session = QInvocationSession.getInstance();
         session.start(MOCK_EDITOR);
 
-        // We need to mock the Display here because the latter half of the update is
-        // done on the UI thread
         inlineCompletionUtilsMock = mockStatic(InlineCompletionUtils.class);
 
         // Test case: when there are suggestions received
@@ -229,32 +205,21 @@ public class QInvocationSessionTest {
         session.endImmediately();
 
         // Test case: calling end when there are still requests in flight
-        BlockingQueue<Integer> queue = new ArrayBlockingQueue<>(1);
-        threadingUtilsMock.when(() -> ThreadingUtils.executeAsyncTaskAndReturnFuture(any(Runnable.class)))
-                .thenAnswer(new Answer<Future<?>>() {
-                    @Override
-                    public Future<?> answer(final InvocationOnMock invocation) throws Throwable {
-                        Runnable runnable = () -> {
-                            try {
-                                queue.take();
-                            } catch (InterruptedException e) {
-                                // This will print stack traces from interrupted exception for when it gets terminated forcefully
-                                // It does not mean the test has failed.
-                                e.printStackTrace();
-                            }
-                        };
-                        ExecutorService executor = Executors.newSingleThreadExecutor();
-                        return executor.submit(runnable);
-                    }
-                });
+        InlineCompletionParams pendingParam = mock(InlineCompletionParams.class, RETURNS_DEEP_STUBS);
+        CompletableFuture<InlineCompletionResponse> pendingResponse = new CompletableFuture<>();
+        when(mockAmazonQServer.inlineCompletionWithReferences(pendingParam)).thenReturn(pendingResponse);
+        inlineCompletionUtilsMock.when(() -> InlineCompletionUtils.cwParamsFromContext(any(ITextEditor.class),
+                any(ITextViewer.class), any(Integer.class), any(InlineCompletionTriggerKind.class)))
+                .thenReturn(pendingParam);
         session.start(MOCK_EDITOR);
         session.invoke();
         session.end();
         assertTrue(session.isActive());
 
-        // Test case: force end
+        // Test case: force end, which also cancels the server request
         session.endImmediately();
         assertTrue(!session.isActive());
+        assertTrue(pendingResponse.isCancelled());
     }
 
     static List<InlineCompletionItem> getInlineCompletionItems() {
@@ -271,41 +236,22 @@ public class QInvocationSessionTest {
         return items;
     }
 
-    static MockedStatic<Activator> mockLspProvider() {
-        MockedStatic<Activator> localizedActivatorMock = mockStatic(Activator.class);
+    static AmazonQLspServer mockLspProvider() {
         LspProvider mockLspProvider = mock(LspProvider.class);
         AmazonQLspServer mockAmazonQServer = mock(AmazonQLspServer.class);
-        localizedActivatorMock.when(Activator::getLspProvider).thenReturn(mockLspProvider);
+        activatorMockStatic.when(Activator::getLspProvider).thenReturn(mockLspProvider);
         potentResponse = mock(InlineCompletionResponse.class);
         impotentResponse = mock(InlineCompletionResponse.class);
         when(potentResponse.getSessionId()).thenReturn("sample-sessionId");
         when(potentResponse.getItems()).thenReturn(new ArrayList<>(getInlineCompletionItems()));
         when(impotentResponse.getItems()).thenReturn(Collections.emptyList());
-        LoggingService loggingServiceMock = mock(LoggingService.class);
-        localizedActivatorMock.when(Activator::getLogger).thenReturn(loggingServiceMock);
 
         when(mockLspProvider.getAmazonQServer()).thenReturn(CompletableFuture.completedFuture(mockAmazonQServer));
         when(mockAmazonQServer.inlineCompletionWithReferences(POTENT_PARAM))
-                .thenReturn(CompletableFuture.supplyAsync(() -> potentResponse));
+                .thenReturn(CompletableFuture.completedFuture(potentResponse));
         when(mockAmazonQServer.inlineCompletionWithReferences(IMPOTENT_PARAM))
-                .thenReturn(CompletableFuture.supplyAsync(() -> impotentResponse));
-        return localizedActivatorMock;
-    }
-
-    static MockedStatic<Display> mockDisplayAsyncCall() {
-        MockedStatic<Display> displayMockStatic = mockStatic(Display.class);
-        Display displayMock = mock(Display.class);
-        displayMockStatic.when(Display::getDefault).thenReturn(displayMock);
-        doAnswer(new Answer<Runnable>() {
-            @Override
-            public Runnable answer(final InvocationOnMock invocation) throws Throwable {
-                Runnable runnable = invocation.getArgument(0);
-                runnable.run();
-                return null;
-            }
-        }).when(displayMock).asyncExec(any(Runnable.class));
-
-        return displayMockStatic;
+                .thenReturn(CompletableFuture.completedFuture(impotentResponse));
+        return mockAmazonQServer;
     }
 
     static MockedStatic<QEclipseEditorUtils> mockQEclipseEditorUtils() {
@@ -320,7 +266,7 @@ public class QInvocationSessionTest {
                 .thenReturn(fontMock);
 
         QInlineInputListener inputListenerMock = mock(QInlineInputListener.class);
-        editorUtilsMock.when(() -> QEclipseEditorUtils.getInlineInputListener(any(StyledText.class)))
+        editorUtilsMock.when(() -> QEclipseEditorUtils.getInlineInputListener(any(QInvocationSession.class), any(StyledText.class)))
                 .thenReturn(inputListenerMock);
 
         StyledText mockStyledText = mock(StyledText.class);
@@ -0,0 +1,76 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public final class SuggestionBracketTokenizerTest {
+
+    private final SuggestionBracketTokenizer tokenizer = new SuggestionBracketTokenizer();
+
+    @Test
+    void testPairsAreReportedInClosingOrder() {
+        tokenizer.tokenize(new String[] {"foo(bar[0]) {", "    return \"x\";", "}"});
+
+        assertEquals(3, tokenizer.getLineCount());
+        assertEquals(14, tokenizer.getLineStart(1));
+        assertEquals(30, tokenizer.getLineStart(2));
+        assertEquals(4, tokenizer.getPairCount());
+
+        assertPair(0, '[', 7, 0, ']', 9, 0);
+        assertPair(1, '(', 3, 0, ')', 10, 0);
+        assertPair(2, '"', 25, 1, '"', 27, 1);
+        assertPair(3, '{', 12, 0, '}', 30, 2);
+    }
+
+    @Test
+    void testMismatchedCloseDiscardsInnermostOpen() {
+        tokenizer.tokenize(new String[] {"a(b]c)"});
+
+        // ']' pops '(' without pairing, leaving nothing for ')'
+        assertEquals(0, tokenizer.getPairCount());
+    }
+
+    @Test
+    void testAngleBracketsAfterWhitespaceAreComparisons() {
+        tokenizer.tokenize(new String[] {"if (a < b && c > d) List<String> x;"});
+
+        assertEquals(2, tokenizer.getPairCount());
+        assertPair(0, '(', 3, 0, ')', 18, 0);
+        assertPair(1, '<', 24, 0, '>', 31, 0);
+    }
+
+    @Test
+    void testLineBreakCountsAsWhitespace() {
+        tokenizer.tokenize(new String[] {"List<", ">"});
+
+        assertEquals(0, tokenizer.getPairCount());
+    }
+
+    @Test
+    void testTokenizerIsReusedAcrossSuggestions() {
+        String longLine = "(".repeat(100) + ")".repeat(100);
+        tokenizer.tokenize(new String[] {longLine});
+        assertEquals(100, tokenizer.getPairCount());
+
+        tokenizer.tokenize(new String[] {"x = 'a';"});
+
+        assertEquals(1, tokenizer.getPairCount());
+        assertEquals(1, tokenizer.getLineCount());
+        assertPair(0, '\'', 4, 0, '\'', 6, 0);
+    }
+
+    private void assertPair(final int pair, final char openSymbol, final int openOffset, final int openLine,
+            final char closeSymbol, final int closeOffset, final int closeLine) {
+        assertEquals(openSymbol, tokenizer.getOpenSymbol(pair));
+        assertEquals(openOffset, tokenizer.getOpenOffset(pair));
+        assertEquals(openLine, tokenizer.getOpenLine(pair));
+        assertEquals(closeSymbol, tokenizer.getCloseSymbol(pair));
+        assertEquals(closeOffset, tokenizer.getCloseOffset(pair));
+        assertEquals(closeLine, tokenizer.getCloseLine(pair));
+    }
+
+}
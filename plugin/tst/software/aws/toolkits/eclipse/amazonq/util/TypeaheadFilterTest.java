@@ -0,0 +1,85 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public final class TypeaheadFilterTest {
+
+    @Test
+    void testTypingNarrowsMatchesToSuggestionsWithTypedPrefix() {
+        TypeaheadFilter filter = new TypeaheadFilter(List.of("foo()", "for (;;)", "bar"));
+
+        filter.onTyped("f");
+        assertEquals(2, filter.getMatchCount());
+        assertFalse(filter.matches(2));
+
+        filter.onTyped("or");
+        assertEquals(1, filter.getMatchCount());
+        assertTrue(filter.matches(1));
+        assertEquals(3, filter.getTypedLength());
+    }
+
+    @Test
+    void testDeletingRevivesSuggestionsRuledOutByDeletedText() {
+        TypeaheadFilter filter = new TypeaheadFilter(List.of("foo()", "for (;;)", "bar"));
+        filter.onTyped("for");
+
+        filter.onDeleted(1);
+        assertEquals(2, filter.getMatchCount());
+        assertTrue(filter.matches(0));
+        assertFalse(filter.matches(2));
+
+        filter.onDeleted(2);
+        assertEquals(3, filter.getMatchCount());
+        assertEquals(0, filter.getTypedLength());
+    }
+
+    @Test
+    void testFullyTypedSuggestionNoLongerMatches() {
+        TypeaheadFilter filter = new TypeaheadFilter(List.of("ab", "abc"));
+
+        filter.onTyped("a");
+        assertEquals(2, filter.getMatchCount());
+
+        filter.onTyped("b");
+        assertFalse(filter.matches(0));
+        assertTrue(filter.matches(1));
+    }
+
+    @Test
+    void testNextMatchWrapsAroundAndSkipsRuledOutSuggestions() {
+        TypeaheadFilter filter = new TypeaheadFilter(List.of("xa", "ya", "xb", "xc"));
+        filter.onTyped("x");
+
+        assertEquals(0, filter.nextMatch(-1, true));
+        assertEquals(2, filter.nextMatch(0, true));
+        assertEquals(0, filter.nextMatch(3, true));
+        assertEquals(3, filter.nextMatch(0, false));
+
+        filter.onTyped("q");
+        assertEquals(-1, filter.nextMatch(0, true));
+    }
+
+    @Test
+    void testLineBreakIsTrackedUntilDeleted() {
+        TypeaheadFilter filter = new TypeaheadFilter(List.of("a\n  b"));
+
+        filter.onTyped("a");
+        assertTrue(filter.isTypedOnOneLine());
+        filter.onTyped("\n ");
+        assertFalse(filter.isTypedOnOneLine());
+
+        filter.onDeleted(2);
+        assertTrue(filter.isTypedOnOneLine());
+        assertEquals(1, filter.getMatchCount());
+    }
+
+}
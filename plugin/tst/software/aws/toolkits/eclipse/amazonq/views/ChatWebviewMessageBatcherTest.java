@@ -0,0 +1,77 @@
+// Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package software.aws.toolkits.eclipse.amazonq.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class ChatWebviewMessageBatcherTest {
+
+    private final List<String> scripts = new ArrayList<>();
+    private final List<Runnable> scheduledFlushes = new ArrayList<>();
+    private ChatWebviewMessageBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        batcher = new ChatWebviewMessageBatcher(scripts::add, scheduledFlushes::add);
+    }
+
+    @Test
+    void testMessagesWithinOneFrameAreDeliveredInOneScript() {
+        batcher.enqueue("{\"tabId\":\"1\",\"n\":1}");
+        batcher.enqueue("{\"tabId\":\"2\",\"n\":1}");
+        batcher.enqueue("{\"tabId\":\"1\",\"n\":2}");
+
+        assertEquals(1, scheduledFlushes.size());
+        assertEquals(3, batcher.getQueueDepth());
+        runScheduledFlushes();
+
+        assertEquals(1, scripts.size());
+        assertTrue(scripts.get(0).endsWith("([{\"tabId\":\"1\",\"n\":1},{\"tabId\":\"2\",\"n\":1},{\"tabId\":\"1\",\"n\":2}]);"));
+        assertEquals(0, batcher.getQueueDepth());
+        assertEquals(3, batcher.getMaxQueueDepth());
+        assertEquals(3, batcher.getMaxBatchSize());
+    }
+
+    @Test
+    void testMessagesAfterAFlushGoInTheNextFrame() {
+        batcher.enqueue("{\"n\":1}");
+        runScheduledFlushes();
+        batcher.enqueue("{\"n\":2}");
+        batcher.enqueue("{\"n\":3}");
+        runScheduledFlushes();
+
+        assertEquals(2, scripts.size());
+        assertTrue(scripts.get(0).endsWith("([{\"n\":1}]);"));
+        assertTrue(scripts.get(1).endsWith("([{\"n\":2},{\"n\":3}]);"));
+        assertEquals(2, batcher.getBatchCount());
+        assertEquals(3, batcher.getMessageCount());
+        assertEquals(1.5, batcher.getAverageBatchSize());
+        assertEquals(2, batcher.getMaxBatchSize());
+    }
+
+    @Test
+    void testEmptyFlushRunsNoScript() {
+        batcher.enqueue("{\"n\":1}");
+        Runnable flush = scheduledFlushes.get(0);
+        flush.run();
+        flush.run();
+
+        assertEquals(1, scripts.size());
+        assertEquals(1, batcher.getBatchCount());
+    }
+
+    private void runScheduledFlushes() {
+        List<Runnable> flushes = new ArrayList<>(scheduledFlushes);
+        scheduledFlushes.clear();
+        flushes.forEach(Runnable::run);
+    }
+
+}